@@ -0,0 +1,80 @@
+package com.boa.apigenerator.bench;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result file against a recorded baseline and fails when a benchmark got
+ * slower than the allowed threshold.
+ *
+ * Usage: BaselineCheck <baseline.json> <results.json> [threshold, default 0.10]
+ *
+ * All benchmarks run in throughput mode, so a regression is a score below
+ * baseline * (1 - threshold). Benchmarks missing from either file are reported and skipped.
+ */
+public class BaselineCheck {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.json> <results.json> [threshold]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.isFile()) {
+            System.err.println("No baseline at " + baselineFile + ", record one first (see README)");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Double> baseline = scores(baselineFile);
+        Map<String, Double> current = scores(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> e : current.entrySet()) {
+            Double before = baseline.get(e.getKey());
+            if (before == null) {
+                System.out.printf("NEW         %-80s %14.3f%n", e.getKey(), e.getValue());
+                continue;
+            }
+            double change = (e.getValue() - before) / before;
+            boolean regressed = e.getValue() < before * (1 - threshold);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-11s %-80s %14.3f -> %14.3f (%+.1f%%)%n",
+                    regressed ? "REGRESSION" : "ok", e.getKey(), before, e.getValue(), change * 100);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("MISSING     %s%n", missing);
+            }
+        }
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + (threshold * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Benchmark name plus parameters -> primary score.
+     */
+    private static Map<String, Double> scores(File file) throws Exception {
+        Map<String, Double> scores = new TreeMap<>();
+        for (JsonNode run : mapper.readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            Map<String, String> params = new LinkedHashMap<>();
+            run.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            if (!params.isEmpty()) {
+                key.append(params);
+            }
+            scores.put(key.toString(), run.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,89 @@
+package com.boa.apigenerator.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.service.GeneratorContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Fixtures shared by the benchmarks: deterministic spec lists of a given size and a generator
+ * wired up without the web server.
+ */
+final class BenchmarkSpecs {
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+    private static final String[] TYPES = {"String", "Long", "Integer", "Boolean"};
+
+    private BenchmarkSpecs() {}
+
+    static List<ApiSpec> specs(int endpoints) {
+        List<ApiSpec> specs = new ArrayList<>(endpoints);
+        for (int i = 0; i < endpoints; i++) {
+            ApiSpec s = new ApiSpec();
+            s.setApiName("operation" + i);
+            s.setMethod(METHODS[i % METHODS.length]);
+            s.setReturnType(i % 3 == 0 ? "String" : "Dto" + i);
+            List<Map<String, String>> params = new ArrayList<>();
+            for (int p = 0; p < 1 + i % 3; p++) {
+                Map<String, String> param = new LinkedHashMap<>();
+                param.put("name", "arg" + p);
+                param.put("type", TYPES[(i + p) % TYPES.length]);
+                params.add(param);
+            }
+            s.setParameters(params);
+            specs.add(s);
+        }
+        return specs;
+    }
+
+    static Path writeSpecFile(int endpoints, Path dir) throws IOException {
+        Path file = dir.resolve("spec-" + endpoints + ".json");
+        new ObjectMapper().writeValue(file.toFile(), specs(endpoints));
+        return file;
+    }
+
+    /**
+     * A scratch folder on tmpfs when the machine has one, so disk speed does not dominate.
+     */
+    static Path scratchDir(String prefix) throws IOException {
+        Path shm = Path.of("/dev/shm");
+        return Files.isDirectory(shm) && Files.isWritable(shm)
+                ? Files.createTempDirectory(shm, prefix)
+                : Files.createTempDirectory(prefix);
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * The generator beans, writing into outputDir, with the generation cache switched off so
+     * every call renders.
+     */
+    static AnnotationConfigApplicationContext generator(Path outputDir) throws IOException {
+        Map<String, Object> props = new LinkedHashMap<>();
+        props.put("generator.output-dir", outputDir.toString());
+        props.put("generator.serials.file", outputDir.resolve(".apigen-serials.properties").toString());
+        props.put("generator.cache.enabled", "false");
+        props.put("generator.cache.dir", outputDir.resolve(".apigen-cache").toString());
+        return GeneratorContext.create(null, props);
+    }
+}
@@ -0,0 +1,129 @@
+package com.boa.apigenerator.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.service.DtoRegistry;
+import com.boa.apigenerator.service.DtoType;
+import com.boa.apigenerator.service.SpecCompiler;
+import com.boa.apigenerator.service.Templates;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JSON conversion of a list of generated DTOs, with the generated serializers ("generated") and
+ * with Jackson's default bean binding of the same records ("default"). The DTOs are rendered and
+ * compiled in the setup, so the benchmark needs a JDK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoBindingBenchmark {
+
+    private static final String USER = "{\"id\":42,\"name\":\"Ada Lovelace\",\"age\":36,\"active\":true,\"score\":97.5,"
+            + "\"tags\":[\"admin\",\"math\",\"poet\"],\"address\":{\"street\":\"12 St James's Square\",\"zip\":10001},"
+            + "\"created\":\"2024-05-01T10:15:30Z\"}";
+
+    @Param({"default", "generated"})
+    public String binding;
+
+    @Param({"1000"})
+    public int items;
+
+    private Path dir;
+    private ObjectMapper mapper;
+    private JavaType listType;
+    private String json;
+    private Object value;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = BenchmarkSpecs.scratchDir("apigen-dto-");
+        Path src = Files.createDirectories(dir.resolve("com/boa/generated"));
+        List<String> args = new ArrayList<>(List.of("-nowarn", "-d", dir.toString(),
+                "-cp", System.getProperty("java.class.path")));
+        for (DtoType type : DtoRegistry.of(SpecCompiler.compile(specs()))) {
+            Path file = src.resolve(type.getName() + ".java");
+            try (Writer out = Files.newBufferedWriter(file)) {
+                Templates.writeDto(type, binding.equals("generated"), out);
+            }
+            args.add(file.toString());
+        }
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null || javac.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Could not compile the DTOs (a JDK is required)");
+        }
+        ClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader());
+
+        mapper = new ObjectMapper().findAndRegisterModules()
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        listType = mapper.getTypeFactory().constructCollectionType(List.class,
+                loader.loadClass("com.boa.generated.UserDto"));
+        StringBuilder list = new StringBuilder(items * (USER.length() + 1)).append('[');
+        for (int i = 0; i < items; i++) {
+            list.append(i == 0 ? "" : ",").append(USER);
+        }
+        json = list.append(']').toString();
+        value = mapper.readValue(json, listType);
+        if (!mapper.writeValueAsString(value).equals(json)) {
+            throw new IllegalStateException("The " + binding + " binding does not round-trip " + USER);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkSpecs.delete(dir);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return mapper.readValue(json, listType);
+    }
+
+    private static List<ApiSpec> specs() {
+        ApiSpec user = new ApiSpec();
+        user.setApiName("getUser");
+        user.setMethod("GET");
+        user.setReturnType("UserDto");
+        user.setReturnFields(List.of(field("id", "Long"), field("name", "String"), field("age", "int"),
+                field("active", "Boolean"), field("score", "double"), field("tags", "List<String>"),
+                field("address", "AddressDto"), field("created", "Instant")));
+        ApiSpec address = new ApiSpec();
+        address.setApiName("getAddress");
+        address.setMethod("GET");
+        address.setReturnType("AddressDto");
+        address.setReturnFields(List.of(field("street", "String"), field("zip", "Integer")));
+        return List.of(user, address);
+    }
+
+    private static Map<String, String> field(String name, String type) {
+        Map<String, String> field = new LinkedHashMap<>();
+        field.put("name", name);
+        field.put("type", type);
+        return field;
+    }
+}
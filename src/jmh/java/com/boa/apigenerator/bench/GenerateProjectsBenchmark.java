@@ -0,0 +1,67 @@
+package com.boa.apigenerator.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.service.ApiProjectGeneratorService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * End-to-end generateProjects into a tmpfs folder (a temp folder when /dev/shm is missing).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GenerateProjectsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int endpoints;
+
+    private Path dir;
+    private List<ApiSpec> specs;
+    private AnnotationConfigApplicationContext context;
+    private ApiProjectGeneratorService generator;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = BenchmarkSpecs.scratchDir("apigen-generate-");
+        specs = BenchmarkSpecs.specs(endpoints);
+        context = BenchmarkSpecs.generator(dir);
+        generator = context.getBean(ApiProjectGeneratorService.class);
+    }
+
+    /**
+     * Drop the projects of the finished iteration so tmpfs does not fill up.
+     */
+    @TearDown(Level.Iteration)
+    public void cleanIteration() throws IOException {
+        try (Stream<Path> projects = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) projects::iterator) {
+                if (Files.isDirectory(p)) {
+                    BenchmarkSpecs.delete(p);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        BenchmarkSpecs.delete(dir);
+    }
+
+    @Benchmark
+    public String generateProjects() throws Exception {
+        return generator.generateProjects(specs, "boa_hackathon_project");
+    }
+}
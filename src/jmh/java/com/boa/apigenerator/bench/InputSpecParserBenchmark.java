@@ -0,0 +1,56 @@
+package com.boa.apigenerator.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.service.InputSpecParser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing a spec file: binding the whole array versus the streaming parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputSpecParserBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int endpoints;
+
+    private Path dir;
+    private File specFile;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = BenchmarkSpecs.scratchDir("apigen-parse-");
+        specFile = BenchmarkSpecs.writeSpecFile(endpoints, dir).toFile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkSpecs.delete(dir);
+    }
+
+    @Benchmark
+    public List<ApiSpec> parseFromFile() throws Exception {
+        return InputSpecParser.parseFromFile(specFile);
+    }
+
+    @Benchmark
+    public void stream(Blackhole bh) throws Exception {
+        try (InputStream in = Files.newInputStream(specFile.toPath())) {
+            InputSpecParser.stream(in, bh::consume);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.boa.apigenerator.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.service.ProjectSerialAllocator;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Project folder allocation against an output folder that already holds many projects; this
+ * replaced the per-request directory scan of determineNextParentName. The startup scan that
+ * rebuilds the counters is measured separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialAllocatorBenchmark {
+
+    /** existing project folders in the output directory */
+    @Param({"10", "1000", "100000"})
+    public int existing;
+
+    private Path dir;
+    private AnnotationConfigApplicationContext context;
+    private ProjectSerialAllocator allocator;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = BenchmarkSpecs.scratchDir("apigen-serial-");
+        for (int i = 1; i <= existing; i++) {
+            Files.createDirectory(dir.resolve("boa_hackathon_project_" + i));
+        }
+        context = BenchmarkSpecs.generator(dir);
+        allocator = context.getBean(ProjectSerialAllocator.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        BenchmarkSpecs.delete(dir);
+    }
+
+    @Benchmark
+    public File allocate() throws IOException {
+        File project = allocator.allocate("boa_hackathon_project");
+        // keep the folder count constant
+        Files.delete(project.toPath());
+        return project;
+    }
+
+    @Benchmark
+    public void startupScan() throws IOException {
+        allocator.load();
+    }
+}
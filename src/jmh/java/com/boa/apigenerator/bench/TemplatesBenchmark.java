@@ -0,0 +1,82 @@
+package com.boa.apigenerator.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.service.CompiledEndpoint;
+import com.boa.apigenerator.service.SpecCompiler;
+import com.boa.apigenerator.service.Templates;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Each Templates.generated* method, plus the Writer-based rendering the generator actually uses
+ * and the spec compilation stage on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplatesBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int endpoints;
+
+    private List<ApiSpec> specs;
+    private final Writer sink = Writer.nullWriter();
+
+    @Setup
+    public void setup() {
+        specs = BenchmarkSpecs.specs(endpoints);
+    }
+
+    @Benchmark
+    public List<CompiledEndpoint> compileSpecs() {
+        return SpecCompiler.compile(specs);
+    }
+
+    @Benchmark
+    public String generatedServicePom() {
+        return Templates.generatedServicePom();
+    }
+
+    @Benchmark
+    public String generatedApplicationClass() {
+        return Templates.generatedApplicationClass();
+    }
+
+    @Benchmark
+    public String generatedController() {
+        return Templates.generatedController(specs);
+    }
+
+    @Benchmark
+    public String generatedServiceClass() {
+        return Templates.generatedServiceClass(specs);
+    }
+
+    @Benchmark
+    public String generatedModels() {
+        return Templates.generatedModels(specs);
+    }
+
+    @Benchmark
+    public void writeController() throws IOException {
+        Templates.writeController(specs, sink);
+    }
+
+    @Benchmark
+    public void writeServiceClass() throws IOException {
+        Templates.writeServiceClass(specs, sink);
+    }
+
+    @Benchmark
+    public void writeModels() throws IOException {
+        Templates.writeModels(specs, sink);
+    }
+}
@@ -0,0 +1,63 @@
+package com.boa.apigenerator;
+
+import java.nio.file.Paths;
+
+import com.boa.apigenerator.service.ApiProjectGeneratorService;
+import com.boa.apigenerator.service.GeneratorContext;
+import com.boa.apigenerator.service.SpecWatcher;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Command line entry point that generates projects without starting the web application: only
+ * the generator beans are created (see {@link GeneratorContext}), with no classpath scanning,
+ * auto-configuration or embedded server.
+ *
+ * java -jar api-generator.jar --inputFile=a.json --inputFile=b.json --parentName=boa_hackathon_project
+ * java -jar api-generator.jar --inputDir=/path/to/specs
+ * java -jar api-generator.jar --watchDir=/path/to/specs
+ *
+ * {@link ApiGeneratorApplication#main} hands these invocations to this class. Generator settings
+ * can be overridden with --generator.*=value. Exits with 1 when any input failed.
+ *
+ * --watchDir keeps running and regenerates the project of a spec file whenever it changes (see
+ * {@link SpecWatcher}) until the process is stopped.
+ */
+public class GeneratorCli {
+
+    public static void main(String[] args) throws Exception {
+        String watchDir = option(args, "--watchDir=");
+        if (watchDir != null) {
+            // stopping the process closes the context, which ends the watch
+            AnnotationConfigApplicationContext context = GeneratorContext.create(args, null);
+            context.getBean(SpecWatcher.class).watch(Paths.get(watchDir));
+            return;
+        }
+        int failed;
+        try (AnnotationConfigApplicationContext context = GeneratorContext.create(args, null)) {
+            failed = context.getBean(ApiProjectGeneratorService.class).handleCommandLineArgs(args);
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * True when the arguments ask for command line generation.
+     */
+    static boolean isCliInvocation(String[] args) {
+        for (String a : args) {
+            if (a.startsWith("--inputFile=") || a.startsWith("--inputDir=") || a.startsWith("--watchDir=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String option(String[] args, String prefix) {
+        for (String a : args) {
+            if (a.startsWith(prefix)) {
+                return a.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.boa.apigenerator.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import com.boa.apigenerator.model.BatchJob;
+import com.boa.apigenerator.model.BatchRequest;
+import com.boa.apigenerator.service.BatchJobService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Asynchronous batch generation:
+ * - POST a {@link BatchRequest} to queue many projects at once; the job id comes back immediately
+ * - GET the job to poll per-project progress and results
+ *
+ * When the queue is full the submission is rejected with 429 Too Many Requests and a Retry-After
+ * header estimated from the queued projects.
+ */
+@RestController
+@RequestMapping("/api/generator/jobs")
+public class BatchJobController {
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchJob> submit(@RequestBody BatchRequest request,
+                                           @RequestHeader(value = "X-Submitter", required = false) String submitter) throws Exception {
+        return ResponseEntity.accepted().body(batchJobService.submit(request, submitter));
+    }
+
+    @GetMapping("/{id}")
+    public BatchJob status(@PathVariable("id") String id) {
+        BatchJob job = batchJobService.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job " + id);
+        }
+        return job;
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> queueFull(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(batchJobService.retryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
@@ -1,43 +1,196 @@
 package com.boa.apigenerator.controller;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import com.boa.apigenerator.service.ApiProjectGeneratorService;
-import com.boa.apigenerator.service.InputSpecParser;
+import com.boa.apigenerator.service.GeneratedSourceValidator;
+import com.boa.apigenerator.service.GenerationCache;
+import com.boa.apigenerator.service.GenerationExecutor;
 import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.BatchRequest;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.model.ValidationReport;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 /**
  * Simple REST controller that accepts:
  * - multipart file upload containing JSON spec described in README
  * - or direct JSON body list of API specs
+ *
+ * /update takes the same JSON body and updates an existing generated project in place.
+ * /zip takes the same JSON body but streams the generated project back as a ZIP archive
+ * instead of writing it to the server's working directory.
+ *
+ * /validate compiles the sources the specs would generate, in memory, and reports the compiler
+ * diagnostics per spec; /validate/batch does the same for several projects in parallel.
+ *
+ * All of them accept the generation options as query parameters named like the properties of
+ * {@link GenerationOptions} (maxEndpointsPerClass, reactive, persistence, ...); the ones left out
+ * keep their configured generator.* values.
+ *
+ * Generation, including the ZIP download, and validation run on the {@link GenerationExecutor}
+ * rather than the request thread, which is released as soon as the work is queued. When too many
+ * requests are waiting the request is refused with 429 Too Many Requests and a Retry-After
+ * header; a request that runs past generator.async.timeout-millis gets 503 Service Unavailable,
+ * or is cut off if it already started sending its ZIP archive.
  */
 @RestController
 @RequestMapping("/api/generator")
 public class GeneratorController {
 
+    private static final String OPTIONS = "options";
+    private static final String ZIP = "application/zip";
+    private static final int ZIP_CHUNK_SIZE = 64 * 1024;
+
     @Autowired
     private ApiProjectGeneratorService generatorService;
 
+    @Autowired
+    private GenerationCache generationCache;
+
+    @Autowired
+    private GeneratedSourceValidator validator;
+
+    @Autowired
+    private GenerationExecutor executor;
+
+    /**
+     * The configured options, onto which each request binds the parameters named like them.
+     */
+    @ModelAttribute(OPTIONS)
+    public GenerationOptions options() {
+        return generatorService.defaultOptions();
+    }
+
+    /**
+     * Parses the upload straight from the multipart stream, one spec at a time, so no copy of the
+     * file is made. Size limits are the spring.servlet.multipart.* properties; parts above
+     * file-size-threshold are spooled by the container, which removes them after the request
+     * completes, i.e. after the generation.
+     */
     @PostMapping(value = "/fromFile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public String generateFromFile(@RequestParam("file") MultipartFile file,
-                                   @RequestParam(value = "parentName", defaultValue = "boa_hackathon_project1") String parentName) throws Exception {
-        Path temp = Files.createTempFile("apigen-spec-", ".json");
-        file.transferTo(temp.toFile());
-        List<ApiSpec> specs = InputSpecParser.parseFromFile(temp.toFile());
-        return generatorService.generateProjects(specs, parentName);
+    public CompletableFuture<String> generateFromFile(@RequestParam("file") MultipartFile file,
+                                   @RequestParam(value = "parentName", defaultValue = "boa_hackathon_project1") String parentName,
+                                   @ModelAttribute(OPTIONS) GenerationOptions options) {
+        return executor.submit(() -> {
+            try (InputStream in = file.getInputStream()) {
+                return generatorService.generateProjects(in, parentName, options);
+            }
+        });
     }
 
     @PostMapping(value = "/fromJson", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public String generateFromJson(@RequestBody List<ApiSpec> specs,
-                                   @RequestParam(value = "parentName", defaultValue = "boa_hackathon_project1") String parentName) throws Exception {
-        return generatorService.generateProjects(specs, parentName);
+    public CompletableFuture<String> generateFromJson(@RequestBody List<ApiSpec> specs,
+                                                     @RequestParam(value = "parentName", defaultValue = "boa_hackathon_project1") String parentName,
+                                                     @ModelAttribute(OPTIONS) GenerationOptions options) {
+        return executor.submit(() -> generatorService.generateProjects(specs, parentName, options));
+    }
+
+    @PostMapping(value = "/update", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<String> updateProject(@RequestBody List<ApiSpec> specs,
+                                                   @RequestParam("projectDir") String projectDir,
+                                                   @ModelAttribute(OPTIONS) GenerationOptions options) {
+        return executor.submit(() -> generatorService.updateProject(specs, projectDir, options));
+    }
+
+    /**
+     * Renders the archive on the {@link GenerationExecutor} and hands it to the emitter in chunks as
+     * it is written, so it goes out with chunked transfer and nothing is kept beyond one chunk.
+     * Refused with 429 like the others when the queue is full; a timeout ends the download.
+     */
+    @PostMapping(value = "/zip", consumes = MediaType.APPLICATION_JSON_VALUE, produces = ZIP)
+    public ResponseEntity<ResponseBodyEmitter> generateZip(@RequestBody List<ApiSpec> specs,
+                                                           @RequestParam(value = "parentName", defaultValue = "boa_hackathon_project1") String parentName,
+                                                           @ModelAttribute(OPTIONS) GenerationOptions options) {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("No API specs provided");
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        executor.submit(() -> {
+            try (OutputStream out = new BufferedOutputStream(new EmitterOutputStream(emitter), ZIP_CHUNK_SIZE)) {
+                generatorService.generateZip(specs, parentName, options, out);
+            }
+            emitter.complete();
+            return null;
+        }).whenComplete((done, e) -> {
+            if (e != null) {
+                emitter.completeWithError(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + generatorService.zipFileName(parentName) + "\"")
+                .contentType(MediaType.parseMediaType(ZIP))
+                .body(emitter);
+    }
+
+    @PostMapping(value = "/validate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ValidationReport> validate(@RequestBody List<ApiSpec> specs,
+                                                        @ModelAttribute(OPTIONS) GenerationOptions options) {
+        return executor.submit(() -> validator.validate(specs, options));
+    }
+
+    @PostMapping(value = "/validate/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<List<ValidationReport>> validateBatch(@RequestBody BatchRequest request,
+                                                                   @ModelAttribute(OPTIONS) GenerationOptions options) {
+        return executor.submit(() -> validator.validateAll(request, options));
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return generationCache.stats();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> queueFull(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(executor.retryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> timedOut(TimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Generation did not finish within the configured timeout");
+    }
+
+    /**
+     * Sends each write to the emitter as one chunk of the response.
+     */
+    private static class EmitterOutputStream extends OutputStream {
+        private static final MediaType ZIP_TYPE = MediaType.parseMediaType(ZIP);
+
+        private final ResponseBodyEmitter emitter;
+
+        EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            emitter.send(new byte[] {(byte) b}, ZIP_TYPE);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            emitter.send(Arrays.copyOfRange(b, off, off + len), ZIP_TYPE);
+        }
     }
 }
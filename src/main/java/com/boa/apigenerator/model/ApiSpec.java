@@ -9,14 +9,48 @@ import java.util.Map;
  *   "apiName": "createUser",
  *   "parameters": [ {"name":"username","type":"String"}, {"name":"age","type":"Integer"} ],
  *   "returnType": "UserDto",
- *   "method": "POST"
+ *   "returnFields": [ {"name":"id","type":"Long"}, {"name":"username","type":"String"} ],
+ *   "method": "POST",
+ *   "group": "users",
+ *   "reactive": true,
+ *   "cache": { "ttlSeconds": 30, "maxSize": 1000 },
+ *   "batch": true,
+ *   "sloMillis": [50, 100, 250, 500]
  * }
+ *
+ * returnFields is optional and declares the fields of returnType. Each DTO is generated once,
+ * as a record in its own file, from the first spec that names it; a later spec may repeat the
+ * same fields or leave them out, but not declare different ones.
+ *
+ * group is optional; with sharding by group, endpoints of one group share a controller and
+ * service class.
+ *
+ * reactive is optional and overrides the project's flavor for this endpoint: true returns Mono
+ * from the controller and the business service, false keeps a blocking business method.
+ *
+ * cache is optional and only allowed on blocking GET endpoints: responses are cached per request
+ * parameters in front of the business method (see {@link CacheSpec}). In a WebFlux project a
+ * cached endpoint runs its business method on a worker thread unless it sets reactive: true,
+ * which is rejected.
+ *
+ * batch is optional: true adds POST /{apiName}/batch, which takes a JSON array of parameter
+ * objects and answers with one result or error per item, in order.
+ *
+ * sloMillis is optional and only used with the endpointMetrics option: the latency buckets, in
+ * milliseconds, of the endpoint's histograms. Without it the generated EndpointMetrics defaults
+ * apply.
  */
 public class ApiSpec {
     private String apiName;
     private List<Map<String,String>> parameters;
     private String returnType;
+    private List<Map<String,String>> returnFields;
     private String method;
+    private String group;
+    private Boolean reactive;
+    private CacheSpec cache;
+    private Boolean batch;
+    private List<Long> sloMillis;
 
     public ApiSpec() {}
 
@@ -29,6 +63,24 @@ public class ApiSpec {
     public String getReturnType() { return returnType; }
     public void setReturnType(String returnType) { this.returnType = returnType; }
 
+    public List<Map<String,String>> getReturnFields() { return returnFields; }
+    public void setReturnFields(List<Map<String,String>> returnFields) { this.returnFields = returnFields; }
+
     public String getMethod() { return method; }
     public void setMethod(String method) { this.method = method; }
+
+    public String getGroup() { return group; }
+    public void setGroup(String group) { this.group = group; }
+
+    public Boolean getReactive() { return reactive; }
+    public void setReactive(Boolean reactive) { this.reactive = reactive; }
+
+    public CacheSpec getCache() { return cache; }
+    public void setCache(CacheSpec cache) { this.cache = cache; }
+
+    public Boolean getBatch() { return batch; }
+    public void setBatch(Boolean batch) { this.batch = batch; }
+
+    public List<Long> getSloMillis() { return sloMillis; }
+    public void setSloMillis(List<Long> sloMillis) { this.sloMillis = sloMillis; }
 }
@@ -0,0 +1,66 @@
+package com.boa.apigenerator.model;
+
+import java.util.List;
+
+/**
+ * Status of a submitted {@link BatchRequest}, returned when the job is submitted and when it is polled.
+ */
+public class BatchJob {
+
+    public enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final String submitter;
+    private final long submittedAt;
+    private final List<ProjectStatus> projects;
+
+    public BatchJob(String id, String submitter, long submittedAt, List<ProjectStatus> projects) {
+        this.id = id;
+        this.submitter = submitter;
+        this.submittedAt = submittedAt;
+        this.projects = projects;
+    }
+
+    public String getId() { return id; }
+    public String getSubmitter() { return submitter; }
+    public long getSubmittedAt() { return submittedAt; }
+    public List<ProjectStatus> getProjects() { return projects; }
+
+    /**
+     * True once every project is DONE or FAILED.
+     */
+    public boolean isFinished() {
+        for (ProjectStatus p : projects) {
+            if (p.getState() == State.QUEUED || p.getState() == State.RUNNING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Progress of one project of the job; result holds the generator's message once DONE and
+     * error the failure message once FAILED.
+     */
+    public static class ProjectStatus {
+        private final String parentName;
+        private volatile State state = State.QUEUED;
+        private volatile String result;
+        private volatile String error;
+
+        public ProjectStatus(String parentName) {
+            this.parentName = parentName;
+        }
+
+        public String getParentName() { return parentName; }
+
+        public State getState() { return state; }
+        public void setState(State state) { this.state = state; }
+
+        public String getResult() { return result; }
+        public void setResult(String result) { this.result = result; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
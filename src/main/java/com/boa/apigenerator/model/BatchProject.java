@@ -0,0 +1,28 @@
+package com.boa.apigenerator.model;
+
+import java.util.List;
+
+/**
+ * One named spec set inside a {@link BatchRequest}, optionally with its own generation options.
+ */
+public class BatchProject {
+    private String parentName;
+    private List<ApiSpec> specs;
+    private GenerationOptions options;
+
+    public BatchProject() {}
+
+    public BatchProject(String parentName, List<ApiSpec> specs) {
+        this.parentName = parentName;
+        this.specs = specs;
+    }
+
+    public String getParentName() { return parentName; }
+    public void setParentName(String parentName) { this.parentName = parentName; }
+
+    public List<ApiSpec> getSpecs() { return specs; }
+    public void setSpecs(List<ApiSpec> specs) { this.specs = specs; }
+
+    public GenerationOptions getOptions() { return options; }
+    public void setOptions(GenerationOptions options) { this.options = options; }
+}
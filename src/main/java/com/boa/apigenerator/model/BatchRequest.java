@@ -0,0 +1,43 @@
+package com.boa.apigenerator.model;
+
+import java.util.List;
+
+/**
+ * A batch of projects to generate asynchronously:
+ * {
+ *   "submitter": "payments-team",
+ *   "options": { "persistence": true },
+ *   "projects": [
+ *     { "parentName": "payments", "specs": [ ...ApiSpec... ] },
+ *     { "parentName": "ledger", "specs": [ ...ApiSpec... ], "options": { "reactive": true } }
+ *   ]
+ * }
+ * The submitter is optional and is used to share workers fairly between callers.
+ *
+ * options is optional and applies to every project that does not carry its own; an options object
+ * is complete, so the properties it leaves out are off. Without either the configured generator.*
+ * values apply.
+ */
+public class BatchRequest {
+    private String submitter;
+    private GenerationOptions options;
+    private List<BatchProject> projects;
+
+    public BatchRequest() {}
+
+    public String getSubmitter() { return submitter; }
+    public void setSubmitter(String submitter) { this.submitter = submitter; }
+
+    public GenerationOptions getOptions() { return options; }
+    public void setOptions(GenerationOptions options) { this.options = options; }
+
+    public List<BatchProject> getProjects() { return projects; }
+    public void setProjects(List<BatchProject> projects) { this.projects = projects; }
+
+    /**
+     * The options the project is generated with: its own, else the batch's, else the fallback.
+     */
+    public GenerationOptions optionsFor(BatchProject project, GenerationOptions fallback) {
+        return project.getOptions() != null ? project.getOptions() : options != null ? options : fallback;
+    }
+}
@@ -0,0 +1,25 @@
+package com.boa.apigenerator.model;
+
+/**
+ * Response caching for a GET endpoint, the "cache" field of an {@link ApiSpec}:
+ * { "ttlSeconds": 30, "maxSize": 1000 }
+ *
+ * Responses are kept for ttlSeconds, at most maxSize of them (least recently used evicted first).
+ */
+public class CacheSpec {
+    private long ttlSeconds = 60;
+    private int maxSize = 1000;
+
+    public CacheSpec() {}
+
+    public CacheSpec(long ttlSeconds, int maxSize) {
+        this.ttlSeconds = ttlSeconds;
+        this.maxSize = maxSize;
+    }
+
+    public long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+}
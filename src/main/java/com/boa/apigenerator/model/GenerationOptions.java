@@ -0,0 +1,85 @@
+package com.boa.apigenerator.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Options that change the generated code for the same specs.
+ *
+ * maxEndpointsPerClass: split the controller and business service into several class pairs of at
+ * most this many endpoints (0 = no limit).
+ * shardByGroup: give every spec group its own controller and business service.
+ * reactive: generate a WebFlux service on Netty instead of a Spring MVC one; endpoints return
+ * Mono unless their spec says reactive: false.
+ * fastStartup: build the service with Spring AOT and a class data sharing archive, initialize it
+ * lazily and include a script that measures time to first request.
+ * persistence: store the DTOs with plain JDBC repositories on a connection pool (an embedded H2
+ * database by default) and have business methods that match a repository call it.
+ * endpointMetrics: time every endpoint, in the controller and around its business call, and count
+ * its errors with Micrometer, published through Actuator in Prometheus format.
+ * loadTest: include a load driver that calls every endpoint with synthetic parameters and reports
+ * throughput and latency percentiles.
+ *
+ * With none set, all endpoints go into one Spring MVC GeneratedController and
+ * GeneratedBusinessService.
+ *
+ * A plain bean: REST requests bind query parameters of the same names onto the configured
+ * defaults (see GeneratorController) and batch requests carry it as JSON.
+ */
+public class GenerationOptions {
+    private int maxEndpointsPerClass;
+    private boolean shardByGroup;
+    private boolean reactive;
+    private boolean fastStartup;
+    private boolean persistence;
+    private boolean endpointMetrics;
+    private boolean loadTest;
+
+    public GenerationOptions() {}
+
+    public int getMaxEndpointsPerClass() { return maxEndpointsPerClass; }
+    public void setMaxEndpointsPerClass(int maxEndpointsPerClass) { this.maxEndpointsPerClass = maxEndpointsPerClass; }
+
+    public boolean isShardByGroup() { return shardByGroup; }
+    public void setShardByGroup(boolean shardByGroup) { this.shardByGroup = shardByGroup; }
+
+    public boolean isReactive() { return reactive; }
+    public void setReactive(boolean reactive) { this.reactive = reactive; }
+
+    public boolean isFastStartup() { return fastStartup; }
+    public void setFastStartup(boolean fastStartup) { this.fastStartup = fastStartup; }
+
+    public boolean isPersistence() { return persistence; }
+    public void setPersistence(boolean persistence) { this.persistence = persistence; }
+
+    public boolean isEndpointMetrics() { return endpointMetrics; }
+    public void setEndpointMetrics(boolean endpointMetrics) { this.endpointMetrics = endpointMetrics; }
+
+    public boolean isLoadTest() { return loadTest; }
+    public void setLoadTest(boolean loadTest) { this.loadTest = loadTest; }
+
+    @JsonIgnore
+    public boolean isSharded() {
+        return maxEndpointsPerClass > 0 || shardByGroup;
+    }
+
+    /**
+     * Identifies the options in cache keys; empty for the defaults so keys recorded before options
+     * existed stay valid.
+     */
+    public String key() {
+        String key = isSharded() ? "|shards:max=" + maxEndpointsPerClass + ",group=" + shardByGroup : "";
+        if (reactive) {
+            key += "|webflux";
+        }
+        if (fastStartup) {
+            key += "|fast-startup";
+        }
+        if (persistence) {
+            key += "|jdbc";
+        }
+        if (endpointMetrics) {
+            key += "|metrics";
+        }
+        return loadTest ? key + "|load-test" : key;
+    }
+}
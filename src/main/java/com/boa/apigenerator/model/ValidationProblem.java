@@ -0,0 +1,39 @@
+package com.boa.apigenerator.model;
+
+/**
+ * One compiler diagnostic on a generated source file. specIndex and apiName identify the spec
+ * whose code the diagnostic points at; they are null when it points at code shared by all specs
+ * (imports, class headers).
+ */
+public class ValidationProblem {
+    private String kind;
+    private String file;
+    private long line;
+    private long column;
+    private String message;
+    private Integer specIndex;
+    private String apiName;
+
+    public ValidationProblem() {}
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public long getLine() { return line; }
+    public void setLine(long line) { this.line = line; }
+
+    public long getColumn() { return column; }
+    public void setColumn(long column) { this.column = column; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Integer getSpecIndex() { return specIndex; }
+    public void setSpecIndex(Integer specIndex) { this.specIndex = specIndex; }
+
+    public String getApiName() { return apiName; }
+    public void setApiName(String apiName) { this.apiName = apiName; }
+}
@@ -0,0 +1,29 @@
+package com.boa.apigenerator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of compiling the sources generated for one spec set. valid is false when the compiler
+ * reported at least one error.
+ */
+public class ValidationReport {
+    private String parentName;
+    private boolean valid;
+    private long durationMillis;
+    private List<ValidationProblem> problems = new ArrayList<>();
+
+    public ValidationReport() {}
+
+    public String getParentName() { return parentName; }
+    public void setParentName(String parentName) { this.parentName = parentName; }
+
+    public boolean isValid() { return valid; }
+    public void setValid(boolean valid) { this.valid = valid; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public List<ValidationProblem> getProblems() { return problems; }
+    public void setProblems(List<ValidationProblem> problems) { this.problems = problems; }
+}
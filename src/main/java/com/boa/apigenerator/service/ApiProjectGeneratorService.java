@@ -1,30 +1,120 @@
 package com.boa.apigenerator.service;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipOutputStream;
 
 import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.service.GenerationMetrics.Stage;
 
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Generates a Spring Boot microservice project skeleton based on provided API specs.
  *
  * Improvements:
- * - Determines next available project serial by scanning the filesystem so generated
- *   projects are named: <parentBaseName>_<serial> (e.g. boa_hackathon_project_1).
+ * - Allocates the next available project serial per base name (see {@link ProjectSerialAllocator})
+ *   so generated projects are named: <parentBaseName>_<serial> (e.g. boa_hackathon_project_1).
  * - Avoids overwriting existing projects.
+ * - Returns the previously generated project when the same specs are submitted again
+ *   (see {@link GenerationCache}).
+ * - Can update an existing project in place, rewriting only changed files
+ *   (see {@link IncrementalUpdater}).
+ * - Records per-stage timings and output counters (see {@link GenerationMetrics}).
+ * - Can split the controller and business service into several classes for large specs
+ *   (see {@link ShardPlan}); defaults come from generator.sharding.*, requests may override them.
+ * - Can store the DTOs with generated JDBC repositories (generator.persistence, see
+ *   {@link RepositoryPlan}).
+ * - Can time every generated endpoint with Micrometer (generator.endpoint-metrics, see
+ *   {@link Templates}).
+ * - Can include a load driver for the generated endpoints (generator.load-test).
  */
 @Service
 public class ApiProjectGeneratorService {
 
     private static final Pattern TRAILING_DIGITS_UNDERSCORE = Pattern.compile("^(.*?)(?:_+\\d+)$");
-    private static final Pattern MATCH_UNDERSCORE_NUMBER = Pattern.compile("^%s_(\\d+)$"); // will be formatted
-    private static final Pattern MATCH_NO_UNDERSCORE_NUMBER = Pattern.compile("^%s(\\d+)$"); // legacy format
+    private static final Pattern PROJECT_SERIAL = Pattern.compile("(.+)_(\\d{1,18})");
+
+    @Autowired
+    private GenerationPipeline pipeline;
+
+    @Autowired
+    private GenerationCache cache;
+
+    @Autowired
+    private ProjectSerialAllocator serialAllocator;
+
+    @Autowired
+    private IncrementalUpdater updater;
+
+    @Autowired
+    private GenerationMetrics metrics;
+
+    @Value("${generator.output-dir:.}")
+    private String outputDir = ".";
+
+    @Value("${generator.sharding.max-endpoints-per-class:0}")
+    private int maxEndpointsPerClass;
+
+    @Value("${generator.sharding.by-group:false}")
+    private boolean shardByGroup;
+
+    @Value("${generator.reactive:false}")
+    private boolean reactive;
+
+    @Value("${generator.fast-startup:false}")
+    private boolean fastStartup;
+
+    @Value("${generator.persistence:false}")
+    private boolean persistence;
+
+    @Value("${generator.endpoint-metrics:false}")
+    private boolean endpointMetrics;
+
+    @Value("${generator.load-test:false}")
+    private boolean loadTest;
+
+    /** project folder -> monitor held while the project is updated */
+    private final Map<Path, Object> updateLocks = new ConcurrentHashMap<>();
+
+    /**
+     * A new instance holding the configured options, for the caller to adjust.
+     */
+    public GenerationOptions defaultOptions() {
+        GenerationOptions options = new GenerationOptions();
+        options.setMaxEndpointsPerClass(maxEndpointsPerClass);
+        options.setShardByGroup(shardByGroup);
+        options.setReactive(reactive);
+        options.setFastStartup(fastStartup);
+        options.setPersistence(persistence);
+        options.setEndpointMetrics(endpointMetrics);
+        options.setLoadTest(loadTest);
+        return options;
+    }
 
     /**
      * Generates projects under a parent directory. Returns the path of the created folder.
@@ -32,6 +122,18 @@ public class ApiProjectGeneratorService {
      * Example final path: boa_hackathon_project_1/generated-service
      */
     public String generateProjects(List<ApiSpec> specs, String parentBaseName) throws Exception {
+        return generateProjects(specs, parentBaseName, defaultOptions());
+    }
+
+    public String generateProjects(List<ApiSpec> specs, String parentBaseName, GenerationOptions options) throws Exception {
+        return "Generated project at: " + generateProject(specs, parentBaseName, options).getAbsolutePath();
+    }
+
+    /**
+     * Generates or, for specs and options generated before, looks up the project like
+     * {@link #generateProjects(List, String, GenerationOptions)} and returns its folder.
+     */
+    public File generateProject(List<ApiSpec> specs, String parentBaseName, GenerationOptions options) throws Exception {
         if (specs == null || specs.isEmpty()) {
             throw new IllegalArgumentException("No API specs provided");
         }
@@ -39,119 +141,363 @@ public class ApiProjectGeneratorService {
         // normalize base name (strip trailing underscores + digits if someone passed 'boa_hackathon_project_1')
         String normalizedBase = normalizeBaseName(parentBaseName);
 
-        // determine the next available project folder name by scanning current working directory
-        String parentName = determineNextParentName(normalizedBase);
+        long generation = metrics.started();
+        String outcome = "failed";
+        try {
+            // identical specs and options were generated before: hand back that project
+            long start = metrics.start();
+            String cacheKey = cache.key(specs, normalizedBase + options.key());
+            File cached = cache.lookup(cacheKey);
+            metrics.record(Stage.CACHE, start);
+            if (cached != null) {
+                outcome = "cached";
+                return cached.getAbsoluteFile();
+            }
 
-        // create directories: parentName/generated-service
-        File parentDir = new File(parentName);
-        if (!parentDir.exists()) {
-            boolean ok = parentDir.mkdirs();
-            if (!ok && !parentDir.exists()) {
-                throw new IllegalStateException("Failed to create parent directory: " + parentDir.getAbsolutePath());
+            checkInterrupted();
+            File serviceDir = createServiceDir(normalizedBase);
+            File parentDir = serviceDir.getParentFile();
+
+            // render and write all files concurrently; a failure leaves no partial project behind
+            try {
+                List<ProjectFile> files = ProjectLayout.files(specs, options);
+                Map<String, String> hashes = pipeline.emit(serviceDir, files);
+                start = metrics.start();
+                updater.writeManifest(serviceDir, specs, files, options, hashes);
+                metrics.record(Stage.MANIFEST, start);
+                checkInterrupted();
+            } catch (Exception e) {
+                FileUtils.deleteQuietly(parentDir);
+                throw e;
             }
+
+            cache.put(cacheKey, parentDir);
+            metrics.endpointsProcessed(specs.size());
+            outcome = "generated";
+            return parentDir.getAbsoluteFile();
+        } finally {
+            metrics.finished(generation, "files", outcome);
         }
+    }
 
-        File serviceDir = new File(parentDir, "generated-service");
-        if (!serviceDir.exists()) {
-            boolean ok = serviceDir.mkdirs();
-            if (!ok && !serviceDir.exists()) {
-                throw new IllegalStateException("Failed to create service directory: " + serviceDir.getAbsolutePath());
+    /**
+     * Streaming variant of {@link #generateProjects(List, String)}: specs are read one at a time
+     * from a JSON array and appended to the controller and service files as they arrive, so
+     * rendering starts before parsing finishes and memory use barely depends on input size; only
+     * one entry per distinct DTO and one hash per spec for the manifest are kept, and the DTO files
+     * and repositories are written at the end. The manifest matches the one the list variant
+     * writes, so the project can be updated in place later. The stream is not closed.
+     *
+     * The specs are only known once they have been read, so this mode never returns a cached
+     * project; it does record the result so later list-based requests for the same specs hit.
+     */
+    public String generateProjects(InputStream specStream, String parentBaseName) throws Exception {
+        return generateProjects(specStream, parentBaseName, defaultOptions());
+    }
+
+    public String generateProjects(InputStream specStream, String parentBaseName, GenerationOptions options) throws Exception {
+        String normalizedBase = normalizeBaseName(parentBaseName);
+        long generation = metrics.started();
+        String outcome = "failed";
+        try {
+            GenerationCache.KeyBuilder cacheKey = cache.isEnabled() ? cache.newKey() : null;
+            File serviceDir = createServiceDir(normalizedBase);
+            File parentDir = serviceDir.getParentFile();
+            // controller and business service writers per shard, opened on the shard's first endpoint
+            Map<ShardPlan.Shard, Writer[]> shardWriters = new LinkedHashMap<>();
+            // the files written here rather than by the pipeline, with the digest of their content
+            Map<String, MessageDigest> written = new LinkedHashMap<>();
+            IncrementalUpdater.ManifestBuilder manifest = updater.newManifest(options);
+            int count;
+            try {
+                Map<String, String> hashes = new TreeMap<>(pipeline.emitStatic(serviceDir, options));
+                // parsing and rendering interleave: time spent in the handler is rendering,
+                // the rest of the streaming loop is parsing
+                long[] rendering = new long[1];
+                boolean[] reactiveEndpoints = new boolean[1];
+                boolean[] cachedEndpoints = new boolean[1];
+                // kept until the stream ends for BatchRequests.java; usually a small share of the specs
+                List<CompiledEndpoint> batchEndpoints = new ArrayList<>();
+                // one entry per distinct DTO, written once the stream ends and all fields are known
+                DtoRegistry dtos = new DtoRegistry();
+                RepositoryPlan repositories = options.isPersistence() ? new RepositoryPlan(options) : null;
+                // load-test/endpoints.tsv grows with the controllers, one line per endpoint
+                Writer[] loadTestOut = new Writer[1];
+                long start = metrics.start();
+                try {
+                    if (options.isLoadTest()) {
+                        loadTestOut[0] = openWriter(serviceDir, ProjectLayout.LOAD_TEST_ENDPOINTS, written);
+                        Templates.writeLoadTestEndpointsHeader(loadTestOut[0]);
+                    }
+                    SpecCompiler compiler = new SpecCompiler(options.isReactive());
+                    ShardPlan plan = new ShardPlan(options);
+                    count = InputSpecParser.stream(specStream, s -> {
+                        checkInterrupted();
+                        long render = System.nanoTime();
+                        manifest.add(s);
+                        CompiledEndpoint compiled = compiler.compile(s);
+                        dtos.add(compiled);
+                        CompiledEndpoint endpoint = repositories != null ? repositories.bind(compiled, dtos) : compiled;
+                        reactiveEndpoints[0] |= endpoint.isReactive();
+                        cachedEndpoints[0] |= endpoint.isCached();
+                        if (endpoint.isBatch()) {
+                            batchEndpoints.add(endpoint);
+                            manifest.appended(endpoint, ProjectLayout.BATCH_REQUESTS);
+                        }
+                        ShardPlan.Shard shard = plan.assign(endpoint);
+                        manifest.appended(endpoint, shard.getControllerPath(), shard.getServicePath());
+                        Writer[] shardOut = shardWriters.get(shard);
+                        if (shardOut == null) {
+                            shardOut = openShard(serviceDir, shard, options, shardWriters, written);
+                        }
+                        Templates.writeControllerEndpoint(endpoint, options.isEndpointMetrics(), shardOut[0]);
+                        Templates.writeServiceMethod(endpoint, shardOut[1]);
+                        if (loadTestOut[0] != null) {
+                            Templates.writeLoadTestEndpoint(endpoint, loadTestOut[0]);
+                            manifest.appended(endpoint, ProjectLayout.LOAD_TEST_ENDPOINTS);
+                        }
+                        if (cacheKey != null) {
+                            cacheKey.add(s);
+                        }
+                        rendering[0] += System.nanoTime() - render;
+                    });
+                    for (Writer[] shardOut : shardWriters.values()) {
+                        Templates.writeControllerFooter(shardOut[0]);
+                        Templates.writeServiceFooter(shardOut[1]);
+                    }
+                } finally {
+                    List<Writer[]> open = new ArrayList<>(shardWriters.values());
+                    if (loadTestOut[0] != null) {
+                        open.add(loadTestOut);
+                    }
+                    closeAll(open);
+                }
+                metrics.recordNanos(Stage.PARSE, System.nanoTime() - start - rendering[0]);
+                metrics.recordNanos(Stage.RENDER, rendering[0]);
+                List<ProjectFile> trailing = new ArrayList<>();
+                trailing.add(ProjectLayout.pom(options, reactiveEndpoints[0]));
+                if (cachedEndpoints[0]) {
+                    trailing.addAll(ProjectLayout.responseCache());
+                }
+                if (!batchEndpoints.isEmpty()) {
+                    trailing.addAll(ProjectLayout.batchSupport(batchEndpoints));
+                }
+                trailing.addAll(ProjectLayout.dtos(dtos.types()));
+                if (repositories != null) {
+                    trailing.addAll(ProjectLayout.persistence(RepositoryPlan.repositories(dtos.types())));
+                }
+                if (options.isEndpointMetrics()) {
+                    trailing.add(ProjectLayout.endpointMetrics(options.isReactive() || reactiveEndpoints[0]));
+                }
+                hashes.putAll(pipeline.emit(serviceDir, trailing));
+                for (Map.Entry<String, MessageDigest> f : written.entrySet()) {
+                    hashes.put(f.getKey(), SpecDigest.hex(f.getValue().digest()));
+                }
+                start = metrics.start();
+                manifest.finish(serviceDir, hashes);
+                metrics.record(Stage.MANIFEST, start);
+                checkInterrupted();
+            } catch (Exception e) {
+                FileUtils.deleteQuietly(parentDir);
+                throw e;
+            }
+            if (count == 0) {
+                FileUtils.deleteQuietly(parentDir);
+                throw new IllegalArgumentException("No API specs provided");
+            }
+            for (String path : written.keySet()) {
+                metrics.fileWritten(new File(serviceDir, path).length());
+            }
+            if (cacheKey != null) {
+                cache.put(cacheKey.finish(normalizedBase + options.key()), parentDir);
             }
+            metrics.endpointsProcessed(count);
+            outcome = "generated";
+            return "Generated project at: " + parentDir.getAbsolutePath();
+        } finally {
+            metrics.finished(generation, "stream", outcome);
         }
+    }
 
-        // Create Maven pom.xml for generated service
-        writeFile(new File(serviceDir, "pom.xml"), Templates.generatedServicePom());
+    /**
+     * Updates an existing generated project in place (e.g. boa_hackathon_project_1) so that it
+     * matches the specs, rewriting only the files whose content changes. Returns a summary.
+     */
+    public String updateProject(List<ApiSpec> specs, String projectDir) throws Exception {
+        return updateProject(specs, projectDir, defaultOptions());
+    }
 
-        // Create src structure
-        File srcMain = new File(serviceDir, "src/main/java/com/boa/generated");
-        srcMain.mkdirs();
-        File res = new File(serviceDir, "src/main/resources");
-        res.mkdirs();
+    public String updateProject(List<ApiSpec> specs, String projectDir, GenerationOptions options) throws Exception {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("No API specs provided");
+        }
+        Path parentPath = projectPath(projectDir);
+        File parentDir = parentPath.toFile();
+        File serviceDir = new File(parentDir, "generated-service");
+        if (!serviceDir.isDirectory()) {
+            throw new IllegalArgumentException("Not a generated project: " + parentDir.getAbsolutePath());
+        }
+
+        // one update per project at a time, e.g. a REST update racing the spec watcher
+        synchronized (updateLocks.computeIfAbsent(parentPath, p -> new Object())) {
+            long generation = metrics.started();
+            String outcome = "failed";
+            try {
+                // may have waited for the lock past the request's timeout
+                checkInterrupted();
+                long start = metrics.start();
+                IncrementalUpdater.Result result = updater.update(serviceDir, specs, ProjectLayout.files(specs, options), options);
+                metrics.record(Stage.UPDATE, start);
+                for (String path : result.getWritten()) {
+                    metrics.fileWritten(new File(serviceDir, path).length());
+                }
+
+                // the folder now holds the output for the new specs
+                cache.reassign(cache.key(specs, normalizeBaseName(parentDir.getName()) + options.key()), parentDir);
+                metrics.endpointsProcessed(specs.size());
+                outcome = "updated";
+                return "Updated project at: " + parentDir.getAbsolutePath() + " (" + result + ")";
+            } finally {
+                metrics.finished(generation, "update", outcome);
+            }
+        }
+    }
 
-        // Write Application class
-        writeFile(new File(srcMain, "GeneratedServiceApplication.java"), Templates.generatedApplicationClass());
+    /**
+     * The project last generated for the base name: the folder <base>_N with the highest
+     * serial under generator.output-dir that holds a manifest, or null if there is none.
+     */
+    public File latestProject(String parentBaseName) {
+        String base = normalizeBaseName(parentBaseName);
+        File[] dirs = new File(outputDir).listFiles(File::isDirectory);
+        File latest = null;
+        long latestSerial = -1;
+        for (File dir : dirs != null ? dirs : new File[0]) {
+            Matcher m = PROJECT_SERIAL.matcher(dir.getName());
+            if (!m.matches() || !m.group(1).equals(base)
+                    || !new File(dir, "generated-service/" + ProjectLayout.MANIFEST).isFile()) {
+                continue;
+            }
+            long serial = Long.parseLong(m.group(2));
+            if (serial > latestSerial) {
+                latest = dir.getAbsoluteFile();
+                latestSerial = serial;
+            }
+        }
+        return latest;
+    }
 
-        // Write controller that exposes the APIs described
-        writeFile(new File(srcMain, "GeneratedController.java"), Templates.generatedController(specs));
+    /**
+     * Ends a generation whose request was cancelled, e.g. by the {@link GenerationExecutor}'s
+     * timeout, between two stages, so it neither keeps its output nor caches it.
+     */
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Generation cancelled");
+        }
+    }
 
-        // Write a simple service class
-        writeFile(new File(srcMain, "GeneratedBusinessService.java"), Templates.generatedServiceClass(specs));
+    /**
+     * Resolves the project folder a caller named against generator.output-dir, following links.
+     * Anything that does not end up below that folder is refused.
+     */
+    private Path projectPath(String projectDir) throws IOException {
+        Path root = Path.of(outputDir).toAbsolutePath().normalize();
+        if (Files.exists(root)) {
+            root = root.toRealPath();
+        }
+        Path dir = root.resolve(projectDir).normalize();
+        if (Files.exists(dir)) {
+            dir = dir.toRealPath();
+        }
+        if (dir.equals(root) || !dir.startsWith(root)) {
+            throw new IllegalArgumentException("Not a project under generator.output-dir: " + projectDir);
+        }
+        return dir;
+    }
 
-        // Write simple DTO and entity placeholders
-        writeFile(new File(srcMain, "models.java"), Templates.generatedModels(specs));
+    /**
+     * Streams the generated project as a ZIP archive to the given stream without writing
+     * anything to disk. Entries are rooted at <normalized base name>/generated-service/.
+     * The stream is finished but not closed.
+     */
+    public void generateZip(List<ApiSpec> specs, String parentBaseName, OutputStream out) throws IOException {
+        generateZip(specs, parentBaseName, defaultOptions(), out);
+    }
 
-        // application.properties
-        writeFile(new File(res, "application.properties"), "server.port=0\n");
+    public void generateZip(List<ApiSpec> specs, String parentBaseName, GenerationOptions options,
+                            OutputStream out) throws IOException {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("No API specs provided");
+        }
+        long generation = metrics.started();
+        String outcome = "failed";
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            pipeline.emit(new ZipProjectSink(zip, normalizeBaseName(parentBaseName) + "/generated-service/"),
+                    ProjectLayout.files(specs, options));
+            zip.finish();
+            metrics.endpointsProcessed(specs.size());
+            outcome = "generated";
+        } finally {
+            metrics.finished(generation, "zip", outcome);
+        }
+    }
 
-        return "Generated project at: " + parentDir.getAbsolutePath();
+    /**
+     * File name for the archive produced by {@link #generateZip}.
+     */
+    public String zipFileName(String parentBaseName) {
+        return normalizeBaseName(parentBaseName) + ".zip";
     }
 
     /**
-     * CLI handler for --inputFile and --parentName
+     * CLI handler for --inputFile, --inputDir and --parentName.
+     *
+     * --inputFile may be repeated and --inputDir adds every *.json file of a directory (in name
+     * order), so one JVM can generate many projects; each input gets its own project folder.
+     * A failing input is reported and the remaining inputs still run. Returns the number of
+     * inputs that failed.
      */
-    public void handleCommandLineArgs(String[] args) throws Exception {
-        String inputFile = null;
+    public int handleCommandLineArgs(String[] args) throws Exception {
+        List<File> inputs = new ArrayList<>();
         String parentName = "boa_hackathon_project";
 
         for (String a : args) {
             if (a.startsWith("--inputFile=")) {
-                inputFile = a.substring("--inputFile=".length());
+                inputs.add(new File(a.substring("--inputFile=".length())));
+            } else if (a.startsWith("--inputDir=")) {
+                File dir = new File(a.substring("--inputDir=".length()));
+                File[] specs = dir.listFiles((d, name) -> name.endsWith(".json"));
+                if (specs == null) {
+                    throw new IllegalArgumentException("Not a directory: " + dir);
+                }
+                Arrays.sort(specs);
+                inputs.addAll(Arrays.asList(specs));
             } else if (a.startsWith("--parentName=")) {
                 parentName = a.substring("--parentName=".length());
             }
         }
 
-        if (inputFile == null) {
-            throw new IllegalArgumentException("Please provide --inputFile=/path/to/spec.json");
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Please provide --inputFile=/path/to/spec.json or --inputDir=/path/to/specs");
         }
 
-        List<com.boa.apigenerator.model.ApiSpec> specs = InputSpecParser.parseFromFile(new File(inputFile));
-        System.out.println(generateProjects(specs, parentName));
-    }
-
-    /* ---------- Helper methods ---------- */
-
-    /**
-     * Determine the next parent folder name by scanning current directory for existing folders.
-     * The final name will be: <base>_<nextIndex>
-     */
-    private String determineNextParentName(String base) {
-        // Build regex patterns using the provided base
-        Pattern pUnderscore = Pattern.compile(String.format(MATCH_UNDERSCORE_NUMBER.pattern(), Pattern.quote(base)));
-        Pattern pNoUnderscore = Pattern.compile(String.format(MATCH_NO_UNDERSCORE_NUMBER.pattern(), Pattern.quote(base)));
-
-        int maxIndex = 0;
-        File cwd = new File(".");
-        File[] entries = cwd.listFiles(File::isDirectory);
-
-        if (entries != null) {
-            for (File f : entries) {
-                String name = f.getName();
-                Matcher m1 = pUnderscore.matcher(name);
-                Matcher m2 = pNoUnderscore.matcher(name);
-                if (m1.matches()) {
-                    try {
-                        int idx = Integer.parseInt(m1.group(1));
-                        if (idx > maxIndex) maxIndex = idx;
-                    } catch (NumberFormatException e) {
-                        // skip
-                    }
-                } else if (m2.matches()) {
-                    // legacy format baseNNN without underscore
-                    try {
-                        int idx = Integer.parseInt(m2.group(1));
-                        if (idx > maxIndex) maxIndex = idx;
-                    } catch (NumberFormatException e) {
-                        // skip
-                    }
-                }
+        int failed = 0;
+        for (File input : inputs) {
+            // stream the spec file so very large catalogs are rendered without loading them fully
+            try (InputStream in = Files.newInputStream(input.toPath())) {
+                System.out.println(input + ": " + generateProjects(in, parentName));
+            } catch (Exception e) {
+                failed++;
+                System.err.println(input + ": failed: " + e);
             }
         }
-
-        int next = maxIndex + 1;
-        return base + "_" + next;
+        return failed;
     }
 
+    /* ---------- Helper methods ---------- */
+
     /**
      * Normalize the parent base name by removing trailing underscores and digits.
      * Examples:
@@ -172,10 +518,75 @@ public class ApiProjectGeneratorService {
         return trimmed.replaceAll("_+$", "");
     }
 
-    private void writeFile(File f, String content) throws Exception {
-        Files.createDirectories(f.toPath().getParent());
-        try (FileWriter fw = new FileWriter(f, false)) {
-            fw.write(content);
+    /**
+     * Allocates the next project folder for the normalized base name and creates
+     * parentName/generated-service.
+     */
+    private File createServiceDir(String normalizedBase) throws Exception {
+        // atomically claim the next free parentName folder for this base
+        long start = metrics.start();
+        File parentDir = serialAllocator.allocate(normalizedBase);
+        metrics.record(Stage.ALLOCATE, start);
+
+        // create directories: parentName/generated-service
+        File serviceDir = new File(parentDir, "generated-service");
+        if (!serviceDir.mkdirs() && !serviceDir.isDirectory()) {
+            throw new IllegalStateException("Failed to create service directory: " + serviceDir.getAbsolutePath());
         }
+        return serviceDir;
+    }
+
+    /**
+     * Opens the controller and business service of a shard, registers them for closing and writes
+     * their headers.
+     */
+    private Writer[] openShard(File serviceDir, ShardPlan.Shard shard, GenerationOptions options,
+                               Map<ShardPlan.Shard, Writer[]> open, Map<String, MessageDigest> opened) throws Exception {
+        Writer controller = openWriter(serviceDir, shard.getControllerPath(), opened);
+        Writer service;
+        try {
+            service = openWriter(serviceDir, shard.getServicePath(), opened);
+        } catch (Exception e) {
+            controller.close();
+            throw e;
+        }
+        Writer[] shardOut = {controller, service};
+        open.put(shard, shardOut);
+        Templates.writeControllerHeader(shard, options.isReactive(), controller);
+        Templates.writeServiceHeader(shard, options.isReactive(), options.isPersistence(), service);
+        return shardOut;
+    }
+
+    private static void closeAll(Iterable<Writer[]> writers) throws IOException {
+        IOException failure = null;
+        for (Writer[] pair : writers) {
+            for (Writer w : pair) {
+                try {
+                    w.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Opens the file at the path for writing, registering the digest its written bytes feed.
+     */
+    private Writer openWriter(File serviceDir, String path, Map<String, MessageDigest> opened) throws Exception {
+        File f = new File(serviceDir, path);
+        Files.createDirectories(f.toPath().getParent());
+        MessageDigest digest = SpecDigest.sha256();
+        Writer w = new BufferedWriter(new OutputStreamWriter(
+                new DigestOutputStream(new FileOutputStream(f, false), digest), StandardCharsets.UTF_8));
+        opened.put(path, digest);
+        return w;
     }
 }
@@ -0,0 +1,449 @@
+package com.boa.apigenerator.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.BatchJob;
+import com.boa.apigenerator.model.BatchJob.ProjectStatus;
+import com.boa.apigenerator.model.BatchJob.State;
+import com.boa.apigenerator.model.BatchProject;
+import com.boa.apigenerator.model.BatchRequest;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs batches of project generations in the background.
+ *
+ * Every project of a submitted batch becomes one task on a bounded queue served by a fixed set of
+ * worker threads. The queue keeps one lane per submitter and serves the lanes round robin, so a
+ * large batch from one caller does not hold up everyone else. Submissions that would push the
+ * queue past generator.batch.max-queued are rejected with {@link RejectedExecutionException}.
+ *
+ * Each project is generated with its own options, else those of its batch, else the configured
+ * ones (see {@link BatchRequest}).
+ *
+ * When generator.batch.journal is set, submissions and project completions are appended to that
+ * file as JSON lines. On startup the journal is replayed and unfinished projects are queued
+ * again. The journal is compacted to the jobs still pending at startup and whenever
+ * generator.batch.journal-compact-after jobs have finished since the last compaction, so a
+ * long-running server does not grow it without bound.
+ */
+@Service
+public class BatchJobService {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${generator.batch.workers:2}")
+    private int workers = 2;
+
+    @Value("${generator.batch.max-queued:1000}")
+    private int maxQueued = 1000;
+
+    @Value("${generator.batch.retained-jobs:1000}")
+    private int retainedJobs = 1000;
+
+    @Value("${generator.batch.journal:}")
+    private String journal = "";
+
+    @Value("${generator.batch.journal-compact-after:1000}")
+    private int compactAfter = 1000;
+
+    @Autowired
+    private ApiProjectGeneratorService generatorService;
+
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> finishedJobs = new ArrayDeque<>();
+    private final FairQueue queue = new FairQueue();
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private Writer journalWriter;
+
+    /** journaled jobs with projects left to run and their requests, guarded by this */
+    private final Map<BatchJob, BatchRequest> unfinished = new LinkedHashMap<>();
+    private int finishedSinceCompaction;
+
+    /** moving average of a project's generation time, for Retry-After */
+    private final AtomicLong averageNanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!journal.isBlank()) {
+            replayJournal();
+        }
+        for (int i = 0; i < workers; i++) {
+            Thread t = new Thread(this::work, "apigen-batch-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            workerThreads.add(t);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        for (Thread t : workerThreads) {
+            t.interrupt();
+        }
+        synchronized (this) {
+            if (journalWriter != null) {
+                journalWriter.close();
+                journalWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Queues every project of the request and returns the new job right away.
+     *
+     * @throws RejectedExecutionException when the queue cannot take all of the projects
+     */
+    public BatchJob submit(BatchRequest request, String submitter) throws IOException {
+        if (request == null || request.getProjects() == null || request.getProjects().isEmpty()) {
+            throw new IllegalArgumentException("No projects provided");
+        }
+        for (BatchProject p : request.getProjects()) {
+            if (p.getSpecs() == null || p.getSpecs().isEmpty()) {
+                throw new IllegalArgumentException("No API specs provided for project " + p.getParentName());
+            }
+        }
+        String owner = submitter != null && !submitter.isBlank() ? submitter
+                : request.getSubmitter() != null && !request.getSubmitter().isBlank() ? request.getSubmitter()
+                : "anonymous";
+        BatchJob job = newJob(UUID.randomUUID().toString(), owner, System.currentTimeMillis(), request.getProjects());
+
+        List<Task> tasks = tasksFor(job, request);
+        synchronized (queue) {
+            if (!queue.hasRoomFor(tasks.size(), maxQueued)) {
+                throw new RejectedExecutionException("Batch queue is full (" + queue.size() + "/" + maxQueued
+                        + " projects queued), retry later");
+            }
+            // journaled first: a job that cannot be recorded is refused rather than left queued forever
+            journalSubmit(job, request);
+            jobs.put(job.getId(), job);
+            for (Task t : tasks) {
+                queue.add(owner, t);
+            }
+        }
+        return job;
+    }
+
+    public BatchJob get(String id) {
+        return jobs.get(id);
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Seconds until the queue is likely to have room again, estimated from the queued projects
+     * and the recent generation time of one. At least 1.
+     */
+    public long retryAfterSeconds() {
+        long nanos = queue.size() * averageNanos.get() / Math.max(1, workers);
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos) + 1);
+    }
+
+    /* ---------- Workers ---------- */
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            ProjectStatus status = task.job.getProjects().get(task.index);
+            status.setState(State.RUNNING);
+            long start = System.nanoTime();
+            try {
+                status.setResult(task.options != null
+                        ? generatorService.generateProjects(task.specs, task.parentName, task.options)
+                        : generatorService.generateProjects(task.specs, task.parentName));
+                status.setState(State.DONE);
+            } catch (Exception e) {
+                status.setError(e.getMessage() != null ? e.getMessage() : e.toString());
+                status.setState(State.FAILED);
+            }
+            long took = System.nanoTime() - start;
+            averageNanos.getAndUpdate(avg -> avg + (took - avg) / 8);
+            try {
+                journalDone(task.job, task.index);
+            } catch (IOException e) {
+                // the in-memory status is authoritative; a lost record only means a rerun after restart
+            }
+            if (task.job.isFinished()) {
+                retire(task.job);
+            }
+        }
+    }
+
+    private void retire(BatchJob job) {
+        synchronized (finishedJobs) {
+            if (finishedJobs.contains(job.getId())) {
+                // two workers finished its last projects at the same time
+                return;
+            }
+            finishedJobs.addLast(job.getId());
+            while (finishedJobs.size() > retainedJobs) {
+                jobs.remove(finishedJobs.removeFirst());
+            }
+        }
+    }
+
+    private static BatchJob newJob(String id, String submitter, long submittedAt, List<BatchProject> projects) {
+        List<ProjectStatus> statuses = new ArrayList<>();
+        for (BatchProject p : projects) {
+            statuses.add(new ProjectStatus(p.getParentName()));
+        }
+        return new BatchJob(id, submitter, submittedAt, statuses);
+    }
+
+    /**
+     * Tasks for the queued projects of the job; without options of their own or the batch's they
+     * are generated with the configured ones.
+     */
+    private static List<Task> tasksFor(BatchJob job, BatchRequest request) {
+        List<BatchProject> projects = request.getProjects();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < projects.size(); i++) {
+            if (job.getProjects().get(i).getState() == State.QUEUED) {
+                BatchProject p = projects.get(i);
+                tasks.add(new Task(job, i, p.getParentName(), p.getSpecs(), request.optionsFor(p, null)));
+            }
+        }
+        return tasks;
+    }
+
+    /* ---------- Journal ---------- */
+
+    private synchronized void journalSubmit(BatchJob job, BatchRequest request) throws IOException {
+        if (journalWriter == null) {
+            return;
+        }
+        appendRecord(journalWriter, submitRecord(job, request));
+        unfinished.put(job, request);
+    }
+
+    private synchronized void journalDone(BatchJob job, int index) throws IOException {
+        if (journalWriter == null) {
+            return;
+        }
+        appendRecord(journalWriter, doneRecord(job, index));
+        if (job.isFinished() && unfinished.remove(job) != null && ++finishedSinceCompaction >= compactAfter) {
+            compactJournal();
+        }
+    }
+
+    private static Map<String, Object> submitRecord(BatchJob job, BatchRequest request) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", "submit");
+        record.put("id", job.getId());
+        record.put("submitter", job.getSubmitter());
+        record.put("submittedAt", job.getSubmittedAt());
+        record.put("options", request.getOptions());
+        record.put("projects", request.getProjects());
+        return record;
+    }
+
+    private static Map<String, Object> doneRecord(BatchJob job, int index) {
+        ProjectStatus status = job.getProjects().get(index);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", "done");
+        record.put("id", job.getId());
+        record.put("index", index);
+        record.put("state", status.getState());
+        record.put("result", status.getResult());
+        record.put("error", status.getError());
+        return record;
+    }
+
+    private static void appendRecord(Writer out, Map<String, Object> record) throws IOException {
+        out.write(mapper.writeValueAsString(record));
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Rewrites the journal with only the jobs that still have work to do, then appends to the new
+     * file. A project still running is recorded as queued and its completion appended later.
+     */
+    private synchronized void compactJournal() throws IOException {
+        Path file = Path.of(journal).toAbsolutePath();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<BatchJob, BatchRequest> e : unfinished.entrySet()) {
+                BatchJob job = e.getKey();
+                appendRecord(out, submitRecord(job, e.getValue()));
+                for (int i = 0; i < job.getProjects().size(); i++) {
+                    State state = job.getProjects().get(i).getState();
+                    if (state != State.QUEUED && state != State.RUNNING) {
+                        appendRecord(out, doneRecord(job, i));
+                    }
+                }
+            }
+        }
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finishedSinceCompaction = 0;
+        } finally {
+            journalWriter = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        }
+    }
+
+    /**
+     * Rebuilds the jobs recorded in the journal, queues their unfinished projects and compacts the
+     * journal. Runs once at startup, before the workers start.
+     */
+    private void replayJournal() throws IOException {
+        Path file = Path.of(journal);
+        Map<String, BatchJob> replayed = new LinkedHashMap<>();
+        Map<String, BatchRequest> requestsById = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    JsonNode record;
+                    try {
+                        record = mapper.readTree(line);
+                    } catch (IOException e) {
+                        // a torn last line from a crash; everything before it is intact
+                        break;
+                    }
+                    String id = record.path("id").asText();
+                    if ("submit".equals(record.path("op").asText())) {
+                        BatchRequest request = new BatchRequest();
+                        request.setProjects(mapper.convertValue(record.get("projects"),
+                                new TypeReference<List<BatchProject>>() {}));
+                        if (record.hasNonNull("options")) {
+                            request.setOptions(mapper.convertValue(record.get("options"), GenerationOptions.class));
+                        }
+                        replayed.put(id, newJob(id, record.path("submitter").asText(),
+                                record.path("submittedAt").asLong(), request.getProjects()));
+                        requestsById.put(id, request);
+                    } else if (replayed.containsKey(id)) {
+                        ProjectStatus status = replayed.get(id).getProjects().get(record.path("index").asInt());
+                        status.setState(State.valueOf(record.path("state").asText()));
+                        status.setResult(record.path("result").isNull() ? null : record.path("result").asText());
+                        status.setError(record.path("error").isNull() ? null : record.path("error").asText());
+                    }
+                }
+            }
+        }
+
+        // keep only the jobs that still have work to do
+        for (Iterator<BatchJob> it = replayed.values().iterator(); it.hasNext(); ) {
+            BatchJob job = it.next();
+            if (job.isFinished()) {
+                it.remove();
+            } else {
+                unfinished.put(job, requestsById.get(job.getId()));
+            }
+        }
+        compactJournal();
+
+        for (BatchJob job : replayed.values()) {
+            for (ProjectStatus status : job.getProjects()) {
+                if (status.getState() == State.RUNNING) {
+                    // interrupted by the restart, run it again
+                    status.setState(State.QUEUED);
+                }
+            }
+            jobs.put(job.getId(), job);
+            for (Task t : tasksFor(job, requestsById.get(job.getId()))) {
+                queue.add(job.getSubmitter(), t);
+            }
+        }
+    }
+
+    /* ---------- Queue ---------- */
+
+    private static final class Task {
+        final BatchJob job;
+        final int index;
+        final String parentName;
+        final List<ApiSpec> specs;
+        /** null for the configured options */
+        final GenerationOptions options;
+
+        Task(BatchJob job, int index, String parentName, List<ApiSpec> specs, GenerationOptions options) {
+            this.job = job;
+            this.index = index;
+            this.parentName = parentName;
+            this.specs = specs;
+            this.options = options;
+        }
+    }
+
+    /**
+     * Blocking queue with one FIFO lane per submitter, served round robin.
+     */
+    private static final class FairQueue {
+        private final LinkedHashMap<String, ArrayDeque<Task>> lanes = new LinkedHashMap<>();
+        private int size;
+
+        synchronized boolean hasRoomFor(int tasks, int capacity) {
+            return size + tasks <= capacity;
+        }
+
+        synchronized void add(String submitter, Task task) {
+            lanes.computeIfAbsent(submitter, s -> new ArrayDeque<>()).addLast(task);
+            size++;
+            notifyAll();
+        }
+
+        synchronized Task take() throws InterruptedException {
+            while (size == 0) {
+                wait();
+            }
+            Iterator<Map.Entry<String, ArrayDeque<Task>>> it = lanes.entrySet().iterator();
+            Map.Entry<String, ArrayDeque<Task>> lane = it.next();
+            Task task = lane.getValue().pollFirst();
+            // move the lane to the back so the next take serves the next submitter
+            it.remove();
+            if (!lane.getValue().isEmpty()) {
+                lanes.put(lane.getKey(), lane.getValue());
+            }
+            size--;
+            return task;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
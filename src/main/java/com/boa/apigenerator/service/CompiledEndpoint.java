@@ -0,0 +1,223 @@
+package com.boa.apigenerator.service;
+
+import com.boa.apigenerator.model.ApiSpec;
+
+/**
+ * One endpoint resolved from its {@link ApiSpec}: defaults applied, names cleaned and every
+ * piece of code the templates need precomputed. Built by {@link SpecCompiler}, never modified
+ * afterwards, so it can be rendered from several threads.
+ */
+public final class CompiledEndpoint {
+
+    private final ApiSpec spec;
+    private final String httpMethod;
+    private final String apiName;
+    private final String returnType;
+    private final String mapping;
+    private final String signature;
+    private final String callArgs;
+    private final String plainSignature;
+    private final String returnValue;
+    private final boolean modelClass;
+    private final String group;
+    private final boolean reactive;
+    private final boolean offloaded;
+    private final String responseType;
+    private final String serviceType;
+    private final boolean cached;
+    private final long cacheTtlMillis;
+    private final int cacheMaxSize;
+    private final String cacheKey;
+    private final boolean batch;
+    private final String batchRequestClass;
+    private final String batchFields;
+    private final String batchItemCall;
+    private final String batchResponseType;
+    private final boolean batchOffloaded;
+    private final String repositoryCall;
+    private final String batchRow;
+    private final String batchWrite;
+    private final String sloMillis;
+    private final String loadParams;
+
+    CompiledEndpoint(ApiSpec spec, String httpMethod, String apiName, String returnType, String mapping,
+                     String signature, String callArgs, String plainSignature, String returnValue,
+                     boolean modelClass, String group, boolean reactive, boolean offloaded,
+                     String responseType, String serviceType, boolean cached, long cacheTtlMillis,
+                     int cacheMaxSize, String cacheKey, boolean batch, String batchRequestClass,
+                     String batchFields, String batchItemCall, String batchResponseType, boolean batchOffloaded,
+                     String sloMillis, String loadParams) {
+        this(spec, httpMethod, apiName, returnType, mapping, signature, callArgs, plainSignature, returnValue, modelClass,
+                group, reactive, offloaded, responseType, serviceType, cached, cacheTtlMillis, cacheMaxSize, cacheKey,
+                batch, batchRequestClass, batchFields, batchItemCall, batchResponseType, batchOffloaded, sloMillis,
+                loadParams, null, null, null);
+    }
+
+    private CompiledEndpoint(ApiSpec spec, String httpMethod, String apiName, String returnType, String mapping,
+                             String signature, String callArgs, String plainSignature, String returnValue,
+                             boolean modelClass, String group, boolean reactive, boolean offloaded,
+                             String responseType, String serviceType, boolean cached, long cacheTtlMillis,
+                             int cacheMaxSize, String cacheKey, boolean batch, String batchRequestClass,
+                             String batchFields, String batchItemCall, String batchResponseType, boolean batchOffloaded,
+                             String sloMillis, String loadParams, String repositoryCall, String batchRow, String batchWrite) {
+        this.spec = spec;
+        this.httpMethod = httpMethod;
+        this.apiName = apiName;
+        this.returnType = returnType;
+        this.mapping = mapping;
+        this.signature = signature;
+        this.callArgs = callArgs;
+        this.plainSignature = plainSignature;
+        this.returnValue = returnValue;
+        this.modelClass = modelClass;
+        this.group = group;
+        this.reactive = reactive;
+        this.offloaded = offloaded;
+        this.responseType = responseType;
+        this.serviceType = serviceType;
+        this.cached = cached;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.cacheMaxSize = cacheMaxSize;
+        this.cacheKey = cacheKey;
+        this.batch = batch;
+        this.batchRequestClass = batchRequestClass;
+        this.batchFields = batchFields;
+        this.batchItemCall = batchItemCall;
+        this.batchResponseType = batchResponseType;
+        this.batchOffloaded = batchOffloaded;
+        this.sloMillis = sloMillis;
+        this.loadParams = loadParams;
+        this.repositoryCall = repositoryCall;
+        this.batchRow = batchRow;
+        this.batchWrite = batchWrite;
+    }
+
+    /**
+     * This endpoint with a business method that calls a repository, see {@link RepositoryPlan}.
+     *
+     * @param batchWrite null to keep the batched variant's per-item calls
+     */
+    CompiledEndpoint persisted(String repositoryCall, String batchRow, String batchWrite) {
+        return new CompiledEndpoint(spec, httpMethod, apiName, returnType, mapping, signature, callArgs, plainSignature,
+                returnValue, modelClass, group, reactive, offloaded, responseType, serviceType, cached, cacheTtlMillis,
+                cacheMaxSize, cacheKey, batch, batchRequestClass, batchFields, batchItemCall, batchResponseType,
+                batchOffloaded, sloMillis, loadParams, repositoryCall, batchRow, batchWrite);
+    }
+
+    /**
+     * The spec this endpoint was compiled from (used for hashing, not for rendering).
+     */
+    public ApiSpec getSpec() { return spec; }
+
+    /** GET, POST, PUT or DELETE */
+    public String getHttpMethod() { return httpMethod; }
+
+    /** e.g. createUser */
+    public String getApiName() { return apiName; }
+
+    /** e.g. UserDto */
+    public String getReturnType() { return returnType; }
+
+    /** e.g. @PostMapping("/createUser") */
+    public String getMapping() { return mapping; }
+
+    /** e.g. (@RequestParam("id") Long id) */
+    public String getSignature() { return signature; }
+
+    /** e.g. (id) */
+    public String getCallArgs() { return callArgs; }
+
+    /** e.g. (Long id) */
+    public String getPlainSignature() { return plainSignature; }
+
+    /** What the business method returns, e.g. new UserDto() or Mono.just(new UserDto()) */
+    public String getReturnValue() { return returnValue; }
+
+    /**
+     * True when the return type is generated as a DTO, see {@link DtoRegistry}.
+     */
+    public boolean hasModelClass() { return modelClass; }
+
+    /**
+     * The spec group as a class name part (e.g. "user-accounts" becomes UserAccounts), empty when
+     * the spec has no group.
+     */
+    public String getGroup() { return group; }
+
+    /**
+     * True when the controller and the business method return Mono.
+     */
+    public boolean isReactive() { return reactive; }
+
+    /**
+     * True for a blocking business method in a WebFlux project: the controller calls it on a
+     * worker thread so it does not block the event loop.
+     */
+    public boolean isOffloaded() { return offloaded; }
+
+    /** Return type of the controller method, e.g. UserDto or Mono<UserDto> */
+    public String getResponseType() { return responseType; }
+
+    /** Return type of the business method, e.g. UserDto or Mono<UserDto> */
+    public String getServiceType() { return serviceType; }
+
+    /**
+     * True when responses are cached in front of the business method.
+     */
+    public boolean isCached() { return cached; }
+
+    public long getCacheTtlMillis() { return cacheTtlMillis; }
+
+    public int getCacheMaxSize() { return cacheMaxSize; }
+
+    /** The cache key built from the request parameters, e.g. Arrays.asList(id, name) */
+    public String getCacheKey() { return cacheKey; }
+
+    /**
+     * True when the endpoint also has a batched variant taking a list of parameter objects.
+     */
+    public boolean isBatch() { return batch; }
+
+    /** Simple name of the parameter class nested in BatchRequests, e.g. GetUser */
+    public String getBatchRequestClass() { return batchRequestClass; }
+
+    /** Field declarations of the parameter class, one line per parameter */
+    public String getBatchFields() { return batchFields; }
+
+    /** Single-item call on a parameter object named request, e.g. getUser(request.id) */
+    public String getBatchItemCall() { return batchItemCall; }
+
+    /** Return type of the batched controller method, e.g. List<BatchResult<UserDto>> */
+    public String getBatchResponseType() { return batchResponseType; }
+
+    /** True when the batched controller method runs the batch on a worker thread (WebFlux) */
+    public boolean isBatchOffloaded() { return batchOffloaded; }
+
+    /**
+     * The latency buckets of the spec as arguments following others, e.g. ", 50, 100, 250"; empty
+     * for the generated EndpointMetrics defaults.
+     */
+    public String getSloMillis() { return sloMillis; }
+
+    /** Name and type of each parameter, each preceded by a tab, for load-test/endpoints.tsv */
+    public String getLoadParams() { return loadParams; }
+
+    /**
+     * True when the business method calls a repository instead of returning a placeholder.
+     */
+    public boolean isPersisted() { return repositoryCall != null; }
+
+    /** What the persisted business method returns, e.g. repositories.userDtoRepository().findById(id) */
+    public String getRepositoryCall() { return repositoryCall; }
+
+    /**
+     * True when the batched variant writes all its rows in one JDBC batch.
+     */
+    public boolean isBatchPersisted() { return batchWrite != null; }
+
+    /** The row built from a parameter object named request, e.g. new UserDto(request.id, request.name) */
+    public String getBatchRow() { return batchRow; }
+
+    /** The batch write of a list named rows, e.g. repositories.userDtoRepository().insertAll(rows) */
+    public String getBatchWrite() { return batchWrite; }
+}
@@ -0,0 +1,140 @@
+package com.boa.apigenerator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A template parsed once into literal text and {{name}} placeholders that renders straight into
+ * a Writer without building intermediate Strings.
+ *
+ * Placeholder names must be declared when compiling; each is resolved to its index in the
+ * declared names, and rendering hands that slot index to a {@link Slots} writer which writes the
+ * value for the model directly. Unknown or unterminated placeholders fail at compile time.
+ *
+ * Sources come from a String or, for the larger ones, from a classpath resource under templates/
+ * (see {@link #load(String)}).
+ */
+public final class CompiledTemplate<T> {
+
+    /**
+     * Writes the value of one placeholder slot for a model.
+     */
+    @FunctionalInterface
+    public interface Slots<T> {
+        void write(int slot, T model, Writer out) throws IOException;
+    }
+
+    /** Classpath folder of the template sources kept as resources */
+    private static final String RESOURCES = "templates/";
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    /** literals[i] is written before slots[i]; the last literal trails the final slot. */
+    private final char[][] literals;
+    private final int[] slots;
+    private final Slots<T> slotWriter;
+
+    private CompiledTemplate(char[][] literals, int[] slots, Slots<T> slotWriter) {
+        this.literals = literals;
+        this.slots = slots;
+        this.slotWriter = slotWriter;
+    }
+
+    /**
+     * Reads the source of a template kept as the classpath resource templates/{@code name}.
+     *
+     * @throws IllegalStateException if there is no such resource
+     */
+    public static String source(String name) {
+        try (InputStream in = CompiledTemplate.class.getClassLoader().getResourceAsStream(RESOURCES + name)) {
+            if (in == null) {
+                throw new IllegalStateException("No template resource " + RESOURCES + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compiles the template resource templates/{@code name}, which has no placeholders.
+     */
+    public static <T> CompiledTemplate<T> load(String name) {
+        return compile(source(name));
+    }
+
+    /**
+     * Compiles the template resource templates/{@code name}, see {@link #compile(String, Slots, String...)}.
+     */
+    public static <T> CompiledTemplate<T> load(String name, Slots<T> slotWriter, String... names) {
+        return compile(source(name), slotWriter, names);
+    }
+
+    /**
+     * Compiles a template without placeholders.
+     */
+    public static <T> CompiledTemplate<T> compile(String source) {
+        return compile(source, (slot, model, out) -> {
+            throw new IllegalStateException("Template has no slots");
+        });
+    }
+
+    /**
+     * Compiles a template whose placeholders are drawn from {@code names}; a placeholder's slot is
+     * its index in {@code names}.
+     */
+    public static <T> CompiledTemplate<T> compile(String source, Slots<T> slotWriter, String... names) {
+        List<char[]> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int pos = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, pos)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder at offset " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            int slot = indexOf(names, name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown placeholder '" + name + "' at offset " + open);
+            }
+            literals.add(source.substring(pos, open).toCharArray());
+            slots.add(slot);
+            pos = close + CLOSE.length();
+        }
+        literals.add(source.substring(pos).toCharArray());
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new CompiledTemplate<>(literals.toArray(new char[0][]), slotArray, slotWriter);
+    }
+
+    public void render(Writer out) throws IOException {
+        render(out, null);
+    }
+
+    public void render(Writer out, T model) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.write(literals[i]);
+            slotWriter.write(slots[i], model, out);
+        }
+        out.write(literals[slots.length]);
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,379 @@
+package com.boa.apigenerator.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The DTOs of one generated project, one per name, in order of first use.
+ *
+ * A DTO is any return type, or type named in a DTO field, that is a plain identifier and not a
+ * well-known JDK type. Its fields come from the returnFields of the first spec that declares
+ * them; a type that is only named gets no fields until a spec declares them. Declaring different
+ * fields for the same type is an error.
+ *
+ * Endpoints are added one at a time, so the registry works for streamed generation as well; it
+ * holds one {@link DtoType} per distinct type, not the specs.
+ */
+public final class DtoRegistry {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    /** JDK types that can appear in specs without becoming a DTO -> package to import, "" for java.lang */
+    private static final Map<String, String> JDK_TYPES = new LinkedHashMap<>();
+
+    static {
+        for (String t : new String[]{"String", "Object", "Integer", "Long", "Short", "Byte", "Double", "Float",
+                "Boolean", "Character", "Number", "Void"}) {
+            JDK_TYPES.put(t, "");
+        }
+        for (String t : new String[]{"List", "Map", "Set", "Collection", "Optional", "UUID", "Date"}) {
+            JDK_TYPES.put(t, "java.util");
+        }
+        for (String t : new String[]{"BigDecimal", "BigInteger"}) {
+            JDK_TYPES.put(t, "java.math");
+        }
+        for (String t : new String[]{"Instant", "LocalDate", "LocalDateTime", "LocalTime", "OffsetDateTime",
+                "ZonedDateTime", "Duration"}) {
+            JDK_TYPES.put(t, "java.time");
+        }
+    }
+
+    private static final Set<String> PRIMITIVES = Set.of("int", "long", "short", "byte", "float", "double",
+            "boolean", "char");
+
+    /** Field types with a dedicated fast path -> suffix of the StdDeserializer _parse*Primitive method */
+    private static final Map<String, String> NUMERIC = Map.ofEntries(
+            Map.entry("int", "Int"), Map.entry("Integer", "Int"),
+            Map.entry("long", "Long"), Map.entry("Long", "Long"),
+            Map.entry("short", "Short"), Map.entry("Short", "Short"),
+            Map.entry("byte", "Byte"), Map.entry("Byte", "Byte"),
+            Map.entry("float", "Float"), Map.entry("Float", "Float"),
+            Map.entry("double", "Double"), Map.entry("Double", "Double"),
+            Map.entry("boolean", "Boolean"), Map.entry("Boolean", "Boolean"));
+
+    /** Names record components cannot have */
+    private static final Set<String> NOT_COMPONENTS = Set.of("clone", "finalize", "getClass", "hashCode", "notify",
+            "notifyAll", "toString", "wait");
+
+    /** Names used by the generated deserializer itself */
+    private static final Set<String> DESERIALIZER_NAMES = Set.of("p", "ctxt", "t", "field");
+
+    /** Classes every project or some option generates */
+    private static final Set<String> GENERATED_CLASSES = Set.of("GeneratedServiceApplication", "ResponseCache",
+            "CacheStatsController", "BatchRequests", "BatchResult", "BatchExecutor", "Repositories",
+            "RepositoryThroughputTest", "EndpointMetrics");
+    private static final Pattern GENERATED_SHARD = Pattern.compile("Generated\\w*(Controller|BusinessService)\\d*");
+
+    private final Map<String, DtoType> types = new LinkedHashMap<>();
+
+    /**
+     * The DTOs of the endpoints.
+     */
+    public static List<DtoType> of(List<CompiledEndpoint> endpoints) {
+        DtoRegistry registry = new DtoRegistry();
+        for (CompiledEndpoint e : endpoints) {
+            registry.add(e);
+        }
+        return registry.types();
+    }
+
+    /**
+     * True when the type is generated as a DTO.
+     */
+    public static boolean isDto(String type) {
+        return IDENTIFIER.matcher(type).matches() && !JDK_TYPES.containsKey(type) && !PRIMITIVES.contains(type);
+    }
+
+    /**
+     * Registers the endpoint's return type and the types its fields name.
+     *
+     * @throws IllegalArgumentException if the type clashes with a generated class or was declared
+     *                                  with different fields before
+     */
+    public void add(CompiledEndpoint e) {
+        if (!e.hasModelClass()) {
+            return;
+        }
+        String name = e.getReturnType();
+        List<Map<String, String>> fields = e.getSpec().getReturnFields();
+        DtoType existing = types.get(name);
+        if (existing != null && (fields == null || existing.isDeclared() && sameFields(existing, fields))) {
+            return;
+        }
+        if (existing != null && existing.isDeclared()) {
+            throw new IllegalArgumentException("API spec " + e.getApiName() + " declares other fields for " + name
+                    + " than an earlier spec: " + existing.getComponents());
+        }
+        if (existing == null && (GENERATED_CLASSES.contains(name) || GENERATED_SHARD.matcher(name).matches())) {
+            throw new IllegalArgumentException("API spec " + e.getApiName() + ": return type " + name
+                    + " clashes with a generated class");
+        }
+        types.put(name, compile(name, fields));
+        if (fields != null) {
+            for (Map<String, String> f : fields) {
+                for (String t : simpleNames(type(f))) {
+                    if (isDto(t) && !types.containsKey(t) && !GENERATED_CLASSES.contains(t)) {
+                        types.put(t, compile(t, null));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The DTO registered under the name, or null.
+     */
+    public DtoType get(String name) {
+        return types.get(name);
+    }
+
+    /**
+     * The DTOs registered so far, in order of first use.
+     */
+    public List<DtoType> types() {
+        return Collections.unmodifiableList(new ArrayList<>(types.values()));
+    }
+
+    /* ---------- Code ---------- */
+
+    private static DtoType compile(String name, List<Map<String, String>> fields) {
+        boolean record = true;
+        if (fields != null) {
+            for (Map<String, String> f : fields) {
+                record &= !NOT_COMPONENTS.contains(f.get("name"));
+            }
+        }
+        StringBuilder components = new StringBuilder();
+        StringBuilder defaults = new StringBuilder();
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        StringBuilder fieldNames = new StringBuilder();
+        Set<String> nameConstants = new HashSet<>();
+        StringBuilder writes = new StringBuilder();
+        StringBuilder deserializerFields = new StringBuilder();
+        StringBuilder resolves = new StringBuilder();
+        StringBuilder locals = new StringBuilder();
+        StringBuilder cases = new StringBuilder();
+        StringBuilder args = new StringBuilder();
+        Set<String> jdkImports = new TreeSet<>();
+        boolean genericFields = false;
+        if (fields != null) {
+            for (Map<String, String> f : fields) {
+                String field = f.get("name");
+                String type = type(f);
+                String local = DESERIALIZER_NAMES.contains(field) ? field + "Value" : field;
+                String value = record ? "value." + field + "()" : "value." + field;
+                String defaultValue = defaultValue(type);
+                if (components.length() > 0) {
+                    components.append(", ");
+                    defaults.append(", ");
+                    args.append(", ");
+                }
+                components.append(type).append(' ').append(field);
+                defaults.append(defaultValue);
+                args.append(local);
+                declarations.append("    public final ").append(type).append(' ').append(field).append(";\n");
+                assignments.append("        this.").append(field).append(" = ").append(field).append(";\n");
+                locals.append("            ").append(type).append(' ').append(local).append(" = ")
+                        .append(defaultValue).append(";\n");
+
+                // names are quoted and escaped once, like the properties of a bean serializer
+                String nameConstant = constantName(field);
+                while (!nameConstants.add(nameConstant)) {
+                    nameConstant += "_";
+                }
+                fieldNames.append("        private static final SerializedString ").append(nameConstant)
+                        .append(" = new SerializedString(\"").append(field).append("\");\n");
+                writes.append("            gen.writeFieldName(").append(nameConstant).append(");\n");
+
+                String read;
+                if (type.equals("String")) {
+                    writes.append("            gen.writeString(").append(value).append(");\n");
+                    read = "p.hasToken(JsonToken.VALUE_NULL) ? null : _parseString(p, ctxt)";
+                } else if (NUMERIC.containsKey(type)) {
+                    String write = type.equalsIgnoreCase("boolean") ? "writeBoolean" : "writeNumber";
+                    String parse = "_parse" + NUMERIC.get(type) + "Primitive(p, ctxt)";
+                    if (PRIMITIVES.contains(type)) {
+                        writes.append("            gen.").append(write).append('(').append(value).append(");\n");
+                        read = parse;
+                    } else {
+                        writes.append("            if (").append(value).append(" == null) {\n")
+                                .append("                gen.writeNull();\n")
+                                .append("            } else {\n")
+                                .append("                gen.").append(write).append('(').append(value).append(");\n")
+                                .append("            }\n");
+                        read = "p.hasToken(JsonToken.VALUE_NULL) ? null : " + parse;
+                    }
+                } else {
+                    writes.append("            provider.defaultSerializeValue(").append(value).append(", gen);\n");
+                    // resolved once, like the property deserializers of a bean deserializer
+                    String deserializer = field + "Deserializer";
+                    String javaType;
+                    if (type.indexOf('<') >= 0) {
+                        genericFields = true;
+                        javaType = "ctxt.getTypeFactory().constructType(new TypeReference<" + type + ">() {})";
+                    } else {
+                        javaType = "ctxt.constructType(" + type + ".class)";
+                    }
+                    deserializerFields.append("        private JsonDeserializer<Object> ").append(deserializer).append(";\n");
+                    resolves.append("            this.").append(deserializer).append(" = ctxt.findRootValueDeserializer(")
+                            .append(javaType).append(");\n");
+                    read = "p.hasToken(JsonToken.VALUE_NULL) ? " + defaultValue + " : (" + boxed(type) + ") this."
+                            + deserializer + ".deserialize(p, ctxt)";
+                }
+                cases.append("                    case \"").append(field).append("\":\n")
+                        .append("                        ").append(local).append(" = ").append(read).append(";\n")
+                        .append("                        break;\n");
+
+                jdkImports.addAll(jdkImports(type));
+            }
+        }
+
+        StringBuilder imports = new StringBuilder();
+        for (String i : jdkImports) {
+            imports.append("import ").append(i).append(";\n");
+        }
+        StringBuilder serdeImports = new StringBuilder("import java.io.IOException;\n").append(imports).append('\n')
+                .append("import com.fasterxml.jackson.core.JsonGenerator;\n")
+                .append("import com.fasterxml.jackson.core.JsonParser;\n")
+                .append("import com.fasterxml.jackson.core.JsonToken;\n")
+                .append("import com.fasterxml.jackson.core.io.SerializedString;\n");
+        if (genericFields) {
+            serdeImports.append("import com.fasterxml.jackson.core.type.TypeReference;\n");
+        }
+        serdeImports.append("import com.fasterxml.jackson.databind.DeserializationContext;\n");
+        if (resolves.length() > 0) {
+            serdeImports.append("import com.fasterxml.jackson.databind.JsonDeserializer;\n")
+                    .append("import com.fasterxml.jackson.databind.JsonMappingException;\n");
+        }
+        serdeImports.append("import com.fasterxml.jackson.databind.SerializerProvider;\n")
+                .append("import com.fasterxml.jackson.databind.annotation.JsonDeserialize;\n")
+                .append("import com.fasterxml.jackson.databind.annotation.JsonSerialize;\n");
+        if (resolves.length() > 0) {
+            serdeImports.append("import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;\n");
+        }
+        serdeImports
+                .append("import com.fasterxml.jackson.databind.deser.std.StdDeserializer;\n")
+                .append("import com.fasterxml.jackson.databind.ser.std.StdSerializer;\n");
+        if (imports.length() > 0) {
+            imports.append('\n');
+        }
+
+        String defaultConstructor;
+        if (fields == null) {
+            defaultConstructor = "\n    // Add components that match your returned object, or declare returnFields in the spec\n";
+        } else if (components.length() == 0) {
+            defaultConstructor = "";
+        } else {
+            defaultConstructor = "\n    public " + name + "() {\n"
+                    + "        this(" + defaults + ");\n"
+                    + "    }\n";
+        }
+        String resolveMethod = "";
+        if (resolves.length() > 0) {
+            deserializerFields.insert(0, '\n');
+            resolveMethod = "\n        @Override\n"
+                    + "        public void resolve(DeserializationContext ctxt) throws JsonMappingException {\n"
+                    + resolves
+                    + "        }\n";
+        }
+        String deserializeAnnotations = genericFields ? "        @SuppressWarnings(\"unchecked\")\n" : "";
+        List<Map<String, String>> declaredFields = fields != null
+                ? Collections.unmodifiableList(new ArrayList<>(fields)) : List.of();
+        return new DtoType(name, fields != null, record, declaredFields, components.toString(), imports.toString(),
+                serdeImports.toString(), defaultConstructor, declarations.toString(), assignments.toString(),
+                fieldNames.length() > 0 ? "\n" + fieldNames : "", writes.toString(), deserializerFields.toString(), resolveMethod, deserializeAnnotations, locals.toString(), cases.toString(),
+                args.toString());
+    }
+
+    private static boolean sameFields(DtoType type, List<Map<String, String>> fields) {
+        StringBuilder components = new StringBuilder();
+        for (Map<String, String> f : fields) {
+            if (components.length() > 0) {
+                components.append(", ");
+            }
+            components.append(type(f)).append(' ').append(f.get("name"));
+        }
+        return components.toString().equals(type.getComponents());
+    }
+
+    /**
+     * The JDK classes a field type needs imported, e.g. java.util.List and java.time.Instant for
+     * List<Instant>.
+     */
+    static Set<String> jdkImports(String type) {
+        Set<String> imports = new TreeSet<>();
+        for (String t : simpleNames(type)) {
+            String pkg = JDK_TYPES.get(t);
+            if (pkg != null && !pkg.isEmpty()) {
+                imports.add(pkg + "." + t);
+            }
+        }
+        return imports;
+    }
+
+    /**
+     * The unqualified type names in a field type, e.g. List and AddressDto in
+     * List<AddressDto>; qualified names such as java.util.UUID are skipped.
+     */
+    private static List<String> simpleNames(String type) {
+        List<String> names = new ArrayList<>();
+        Matcher m = IDENTIFIER.matcher(type);
+        while (m.find()) {
+            boolean qualified = m.start() > 0 && type.charAt(m.start() - 1) == '.'
+                    || m.end() < type.length() && type.charAt(m.end()) == '.';
+            if (!qualified) {
+                names.add(m.group());
+            }
+        }
+        return names;
+    }
+
+    static String type(Map<String, String> field) {
+        return String.valueOf(field.getOrDefault("type", "String"));
+    }
+
+    static String defaultValue(String type) {
+        switch (type) {
+            case "int": return "0";
+            case "long": return "0L";
+            case "short": return "(short) 0";
+            case "byte": return "(byte) 0";
+            case "float": return "0f";
+            case "double": return "0.0";
+            case "boolean": return "false";
+            case "char": return "'\\0'";
+            default: return "null";
+        }
+    }
+
+    /**
+     * The type to cast a deserialized Object to. char is the only primitive without a fast path.
+     */
+    private static String boxed(String type) {
+        return type.equals("char") ? "Character" : type;
+    }
+
+    /**
+     * userIds becomes USER_IDS.
+     */
+    static String constantName(String field) {
+        StringBuilder name = new StringBuilder(field.length() + 4);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                name.append('_');
+            }
+            name.append(Character.toUpperCase(c));
+        }
+        return name.toString();
+    }
+}
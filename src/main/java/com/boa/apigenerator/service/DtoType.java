@@ -0,0 +1,115 @@
+package com.boa.apigenerator.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One DTO of a generated project, resolved by {@link DtoRegistry}: every piece of code the DTO
+ * templates need is precomputed, so rendering only copies strings. Never modified once built.
+ */
+public final class DtoType {
+
+    private final String name;
+    private final boolean declared;
+    private final boolean record;
+    private final List<Map<String, String>> fields;
+    private final String components;
+    private final String imports;
+    private final String serdeImports;
+    private final String defaultConstructor;
+    private final String fieldDeclarations;
+    private final String fieldAssignments;
+    private final String fieldNames;
+    private final String writeFields;
+    private final String deserializerFields;
+    private final String resolveMethod;
+    private final String deserializeAnnotations;
+    private final String readLocals;
+    private final String readCases;
+    private final String constructorArgs;
+
+    DtoType(String name, boolean declared, boolean record, List<Map<String, String>> fields, String components,
+            String imports, String serdeImports,
+            String defaultConstructor, String fieldDeclarations, String fieldAssignments, String fieldNames,
+            String writeFields,
+            String deserializerFields, String resolveMethod, String deserializeAnnotations, String readLocals, String readCases, String constructorArgs) {
+        this.name = name;
+        this.declared = declared;
+        this.record = record;
+        this.fields = fields;
+        this.components = components;
+        this.imports = imports;
+        this.serdeImports = serdeImports;
+        this.defaultConstructor = defaultConstructor;
+        this.fieldDeclarations = fieldDeclarations;
+        this.fieldAssignments = fieldAssignments;
+        this.fieldNames = fieldNames;
+        this.writeFields = writeFields;
+        this.deserializerFields = deserializerFields;
+        this.resolveMethod = resolveMethod;
+        this.deserializeAnnotations = deserializeAnnotations;
+        this.readLocals = readLocals;
+        this.readCases = readCases;
+        this.constructorArgs = constructorArgs;
+    }
+
+    /** Simple class name, e.g. UserDto */
+    public String getName() { return name; }
+
+    /**
+     * True when a spec declared the fields; false for a type only named so far, which has none.
+     */
+    public boolean isDeclared() { return declared; }
+
+    /**
+     * True for a record; false for a final class with public fields, used when a field name is
+     * not allowed as a record component (e.g. hashCode).
+     */
+    public boolean isRecord() { return record; }
+
+    /** The declared fields (name and type), in order; empty for a type only named so far */
+    public List<Map<String, String>> getFields() { return fields; }
+
+    /** The fields as constructor parameters, e.g. Long id, String name */
+    public String getComponents() { return components; }
+
+    /** Import lines for the JDK types of the fields */
+    public String getImports() { return imports; }
+
+    /** Import lines for the fields and the JSON serializer and deserializer */
+    public String getSerdeImports() { return serdeImports; }
+
+    /** A constructor without arguments for the placeholder business methods, empty without fields */
+    public String getDefaultConstructor() { return defaultConstructor; }
+
+    public String getFieldDeclarations() { return fieldDeclarations; }
+
+    public String getFieldAssignments() { return fieldAssignments; }
+
+    /** Serializer constants holding the encoded field names */
+    public String getFieldNames() { return fieldNames; }
+
+    /** Serializer statements writing every field */
+    public String getWriteFields() { return writeFields; }
+
+    /** Deserializer fields holding the deserializers of the fields without a fast path */
+    public String getDeserializerFields() { return deserializerFields; }
+
+    /**
+     * The deserializer's resolve method, which looks up the deserializers of the fields without a
+     * fast path once; empty when every field has one.
+     */
+    public String getResolveMethod() { return resolveMethod; }
+
+    /** Annotations of the deserialize method: unchecked casts for generic field types */
+    public String getDeserializeAnnotations() { return deserializeAnnotations; }
+
+    /** Deserializer locals holding the fields read so far */
+    public String getReadLocals() { return readLocals; }
+
+    /** Deserializer switch cases reading one field each */
+    public String getReadCases() { return readCases; }
+
+    /** The deserializer locals as constructor arguments */
+    public String getConstructorArgs() { return constructorArgs; }
+}
@@ -0,0 +1,427 @@
+package com.boa.apigenerator.service;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.BatchProject;
+import com.boa.apigenerator.model.BatchRequest;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.model.ValidationProblem;
+import com.boa.apigenerator.model.ValidationReport;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks that a generated project compiles, without writing it anywhere or running Maven.
+ *
+ * The Java files of the project are rendered into memory and compiled with the JDK compiler
+ * through an in-memory file manager; class files are discarded. While rendering, the line at
+ * which each endpoint's code starts is recorded, so every diagnostic is reported against the
+ * spec that produced the offending line.
+ *
+ * The sources Maven would build (src/main/java and src/test/java) are compiled at the release
+ * level of the generated pom: maven.compiler.release, or the compiler plugin's default of 8 when
+ * the pom does not set it.
+ *
+ * When generator.validation.classpath names the libraries of a generated project (jars, or folders
+ * whose jars are all used), the code is compiled against them. Otherwise it is compiled against
+ * small source stubs of the Spring types it references, because the real libraries are not on a
+ * plain classpath inside the packaged application. The stubs are .java resources under
+ * validation-stubs/, listed in its stubs.txt. They catch errors in the generated Java itself, such
+ * as invalid names or duplicate classes, but not differences in the library APIs.
+ *
+ * Projects of a batch are validated in parallel on generator.validation.threads threads
+ * (0 = one per available core). Requires a JDK; on a JRE validation fails with
+ * IllegalStateException.
+ */
+@Component
+public class GeneratedSourceValidator {
+
+    /** What maven-compiler-plugin compiles at when the pom sets no release */
+    private static final String MAVEN_DEFAULT_RELEASE = "8";
+
+    private static final Pattern RELEASE_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+
+    /** Classpath folder of the stubs: one .java file per type, listed in stubs.txt */
+    private static final String STUBS = "validation-stubs/";
+
+    /** Spring, Reactor, Jackson, Micrometer and JUnit types used by the generated code -> compilable stub source */
+    private static final Map<String, String> API_STUBS = loadStubs();
+
+    @Value("${generator.validation.threads:0}")
+    private int threads;
+
+    @Value("${generator.validation.classpath:}")
+    private String classpath;
+
+    private ExecutorService pool;
+
+    /** The jars and class folders of generator.validation.classpath, empty to compile against the stubs */
+    private List<File> libraries = List.of();
+
+    @PostConstruct
+    public void start() {
+        libraries = libraries(classpath);
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "apigen-validate-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Compiles the sources generated for the specs and reports the diagnostics.
+     */
+    public ValidationReport validate(List<ApiSpec> specs, GenerationOptions options) throws IOException {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("No API specs provided");
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler available; run the generator on a JDK to validate");
+        }
+        long start = System.nanoTime();
+
+        Map<ApiSpec, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < specs.size(); i++) {
+            indexes.put(specs.get(i), i);
+        }
+        List<JavaFileObject> sources = new ArrayList<>();
+        String release = MAVEN_DEFAULT_RELEASE;
+        for (ProjectFile f : ProjectLayout.files(specs, options)) {
+            if (f.getPath().equals(ProjectLayout.POM)) {
+                StringWriter pom = new StringWriter();
+                f.render(pom);
+                release = release(pom.toString());
+            } else if (f.getPath().endsWith(".java") && isMavenSource(f.getPath())) {
+                sources.add(RenderedSource.render(f));
+            }
+        }
+        if (libraries.isEmpty()) {
+            for (Map.Entry<String, String> stub : API_STUBS.entrySet()) {
+                sources.add(new StubSource(stub.getKey(), stub.getValue()));
+            }
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, Locale.ROOT, null)) {
+            standard.setLocation(StandardLocation.CLASS_PATH, libraries);
+            List<String> compilerOptions = Arrays.asList("--release", release, "-proc:none", "-Xlint:none",
+                    "-nowarn", "-Xmaxerrs", "100000");
+            compiler.getTask(null, new DiscardingFileManager(standard), diagnostics, compilerOptions, null, sources).call();
+        }
+
+        ValidationReport report = new ValidationReport();
+        boolean valid = true;
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR) {
+                valid = false;
+            }
+            report.getProblems().add(problem(d, indexes));
+        }
+        report.setValid(valid);
+        report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return report;
+    }
+
+    /**
+     * Validates the projects in parallel, each with the options {@link BatchRequest#optionsFor}
+     * picks. Reports come back in the order of the projects.
+     */
+    public List<ValidationReport> validateAll(BatchRequest request, GenerationOptions options) throws Exception {
+        List<BatchProject> projects = request.getProjects();
+        if (projects == null || projects.isEmpty()) {
+            throw new IllegalArgumentException("No projects provided");
+        }
+        List<Future<ValidationReport>> futures = new ArrayList<>();
+        for (BatchProject p : projects) {
+            GenerationOptions projectOptions = request.optionsFor(p, options);
+            futures.add(pool.submit(() -> {
+                ValidationReport report = validate(p.getSpecs(), projectOptions);
+                report.setParentName(p.getParentName());
+                return report;
+            }));
+        }
+        List<ValidationReport> reports = new ArrayList<>();
+        try {
+            for (Future<ValidationReport> f : futures) {
+                reports.add(f.get());
+            }
+        } catch (Exception e) {
+            for (Future<ValidationReport> f : futures) {
+                f.cancel(true);
+            }
+            throw e;
+        }
+        return reports;
+    }
+
+    /**
+     * The types the stubs stand in for, by qualified name.
+     */
+    static Set<String> stubbedTypes() {
+        return API_STUBS.keySet();
+    }
+
+    private static Map<String, String> loadStubs() {
+        Map<String, String> stubs = new LinkedHashMap<>();
+        try {
+            for (String type : resource(STUBS + "stubs.txt").split("\n")) {
+                if (!type.isBlank()) {
+                    stubs.put(type.trim(), resource(STUBS + type.trim().replace('.', '/') + ".java"));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Collections.unmodifiableMap(stubs);
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = GeneratedSourceValidator.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new FileNotFoundException("Missing validation stub " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * The release the pom compiles at: maven.compiler.release, with a ${property} reference resolved
+     * against the pom's properties, or the compiler plugin's default when it is not set.
+     */
+    static String release(String pom) {
+        String release = property(pom, "maven.compiler.release");
+        Matcher reference = release == null ? null : RELEASE_REFERENCE.matcher(release);
+        if (reference != null && reference.matches()) {
+            release = property(pom, reference.group(1));
+        }
+        return release != null ? release : MAVEN_DEFAULT_RELEASE;
+    }
+
+    private static String property(String pom, String name) {
+        Matcher m = Pattern.compile("<" + Pattern.quote(name) + ">\\s*([^<]*?)\\s*</" + Pattern.quote(name) + ">")
+                .matcher(pom);
+        return m.find() ? m.group(1) : null;
+    }
+
+    private static boolean isMavenSource(String path) {
+        return path.startsWith("src/main/java/") || path.startsWith("src/test/java/");
+    }
+
+    /**
+     * The entries of a classpath setting; a folder stands for the jars in it (as written by
+     * mvn dependency:copy-dependencies) and for itself, in case it holds classes.
+     */
+    static List<File> libraries(String classpath) {
+        List<File> libraries = new ArrayList<>();
+        if (classpath == null || classpath.isBlank()) {
+            return libraries;
+        }
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            File f = new File(entry.trim());
+            if (!f.exists()) {
+                throw new IllegalStateException("generator.validation.classpath entry does not exist: " + f);
+            }
+            libraries.add(f);
+            File[] jars = f.isDirectory() ? f.listFiles((dir, name) -> name.endsWith(".jar")) : null;
+            if (jars != null) {
+                Arrays.sort(jars);
+                libraries.addAll(Arrays.asList(jars));
+            }
+        }
+        return libraries;
+    }
+
+    private static ValidationProblem problem(Diagnostic<? extends JavaFileObject> d, Map<ApiSpec, Integer> indexes) {
+        ValidationProblem p = new ValidationProblem();
+        p.setKind(d.getKind().name());
+        p.setLine(d.getLineNumber());
+        p.setColumn(d.getColumnNumber());
+        p.setMessage(d.getMessage(Locale.ROOT));
+        if (d.getSource() instanceof RenderedSource) {
+            RenderedSource source = (RenderedSource) d.getSource();
+            p.setFile(source.path);
+            CompiledEndpoint e = source.endpointAt(d.getLineNumber());
+            if (e != null) {
+                p.setSpecIndex(indexes.get(e.getSpec()));
+                p.setApiName(e.getApiName());
+            }
+        } else if (d.getSource() != null) {
+            p.setFile(d.getSource().getName());
+        }
+        return p;
+    }
+
+    /* ---------- In-memory sources and output ---------- */
+
+    /**
+     * A generated file rendered into memory, with the first line of each endpoint's code.
+     */
+    private static final class RenderedSource extends SimpleJavaFileObject {
+        final String path;
+        final String content;
+        final List<CompiledEndpoint> endpoints;
+        final long[] startLines;
+        final long footerLine;
+
+        private RenderedSource(String path, String content, List<CompiledEndpoint> endpoints, long[] startLines,
+                               long footerLine) {
+            super(URI.create("mem:///" + path), Kind.SOURCE);
+            this.path = path;
+            this.content = content;
+            this.endpoints = endpoints;
+            this.startLines = startLines;
+            this.footerLine = footerLine;
+        }
+
+        static RenderedSource render(ProjectFile f) throws IOException {
+            StringWriter out = new StringWriter();
+            LineCounter lines = new LineCounter(out.getBuffer());
+            List<CompiledEndpoint> endpoints = f.getEndpoints();
+            long[] startLines = new long[endpoints.size()];
+            f.getHeader().write(out);
+            for (int i = 0; i < endpoints.size(); i++) {
+                startLines[i] = lines.current();
+                f.getEntry().write(endpoints.get(i), out);
+            }
+            long footerLine = lines.current();
+            f.getFooter().write(out);
+            return new RenderedSource(f.getPath(), out.toString(), endpoints, startLines, footerLine);
+        }
+
+        /**
+         * The endpoint whose code covers the line, or null for lines before the first endpoint
+         * or after the last one.
+         */
+        CompiledEndpoint endpointAt(long line) {
+            if (line >= footerLine) {
+                return null;
+            }
+            // last endpoint starting at or before the line; endpoints that rendered nothing share
+            // their start line with the next one, which is the one that wrote the line
+            int lo = 0;
+            int hi = startLines.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (startLines[mid] <= line) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found >= 0 ? endpoints.get(found) : null;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * Counts lines of a growing buffer incrementally.
+     */
+    private static final class LineCounter {
+        private final StringBuffer buffer;
+        private int scanned;
+        private long line = 1;
+
+        LineCounter(StringBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long current() {
+            for (; scanned < buffer.length(); scanned++) {
+                if (buffer.charAt(scanned) == '\n') {
+                    line++;
+                }
+            }
+            return line;
+        }
+    }
+
+    private static final class StubSource extends SimpleJavaFileObject {
+        private final String content;
+
+        StubSource(String className, String content) {
+            super(URI.create("mem:///stubs/" + className.replace('.', '/') + ".java"), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * Keeps the compiler's reads on the standard manager but throws away every class file.
+     */
+    private static final class DiscardingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        DiscardingFileManager(StandardJavaFileManager standard) {
+            super(standard);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///out/" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return OutputStream.nullOutputStream();
+                }
+            };
+        }
+    }
+}
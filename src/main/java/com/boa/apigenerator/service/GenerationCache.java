@@ -0,0 +1,202 @@
+package com.boa.apigenerator.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed cache of generated projects.
+ *
+ * A project is keyed by a SHA-256 over the normalized specs (see {@link SpecDigest}), the
+ * template version and the generation options. A hit returns the directory generated earlier
+ * for the same key instead of rendering it again.
+ *
+ * The index is kept in LRU order, bounded by generator.cache.max-entries, and persisted as JSON
+ * under generator.cache.dir so it survives restarts. Evicting an entry only forgets it; the
+ * generated project itself is left alone. A hit only reorders the index in memory; the new order
+ * is written with the next change to the index or on shutdown, so hits never wait for disk I/O
+ * and a crash at most forgets how recently some entries were used.
+ */
+@Component
+public class GenerationCache {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String INDEX_FILE = "index.json";
+
+    @Value("${generator.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${generator.cache.max-entries:256}")
+    private int maxEntries = 256;
+
+    @Value("${generator.cache.dir:.apigen-cache}")
+    private String cacheDir = ".apigen-cache";
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /** key -> absolute project directory, in access order */
+    private LinkedHashMap<String, String> index;
+
+    /** hits reordered the index since it was last saved */
+    private boolean reordered;
+
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        index = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Path file = indexFile();
+        if (enabled && Files.exists(file)) {
+            // stored least recently used first, so re-inserting restores the order
+            index.putAll(mapper.readValue(file.toFile(), new TypeReference<LinkedHashMap<String, String>>() {}));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a key. Feed every spec in order, then call {@link KeyBuilder#finish(String)}.
+     */
+    public KeyBuilder newKey() {
+        return new KeyBuilder();
+    }
+
+    public String key(List<ApiSpec> specs, String options) throws IOException {
+        KeyBuilder key = newKey();
+        for (ApiSpec s : specs) {
+            key.add(s);
+        }
+        return key.finish(options);
+    }
+
+    /**
+     * Returns the project generated for the key, or null on a miss. Entries whose directory no
+     * longer exists are dropped and count as misses.
+     */
+    public synchronized File lookup(String key) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        String path = index.get(key);
+        if (path != null && new File(path).isDirectory()) {
+            hits.incrementAndGet();
+            reordered = true;
+            return new File(path);
+        }
+        if (path != null) {
+            index.remove(key);
+            save();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public synchronized void put(String key, File projectDir) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        index.put(key, projectDir.getAbsolutePath());
+        save();
+    }
+
+    /**
+     * Points the key at a project whose content was just replaced in place, forgetting any
+     * other key that pointed at the same folder.
+     */
+    public synchronized void reassign(String key, File projectDir) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        String path = projectDir.getAbsolutePath();
+        index.values().removeIf(path::equals);
+        index.put(key, path);
+        save();
+    }
+
+    /**
+     * Saves the order hits left in memory.
+     */
+    @PreDestroy
+    public synchronized void flush() throws IOException {
+        if (enabled && reordered) {
+            save();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (this) {
+            stats.put("entries", index.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private void save() throws IOException {
+        Path file = indexFile();
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(INDEX_FILE + ".tmp");
+        mapper.writeValue(tmp.toFile(), index);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        reordered = false;
+    }
+
+    private Path indexFile() {
+        return new File(cacheDir, INDEX_FILE).toPath().toAbsolutePath();
+    }
+
+    /**
+     * Incrementally hashes the normalized specs, so streamed input can be keyed as it is read.
+     */
+    public static class KeyBuilder {
+        private final MessageDigest digest = SpecDigest.sha256();
+        private final JsonGenerator json;
+
+        private KeyBuilder() {
+            try {
+                json = SpecDigest.generator(digest);
+                json.writeStartArray();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create cache key", e);
+            }
+        }
+
+        public void add(ApiSpec s) throws IOException {
+            SpecDigest.writeNormalized(s, json);
+        }
+
+        public String finish(String options) throws IOException {
+            json.writeEndArray();
+            json.flush();
+            digest.update(("|" + Templates.TEMPLATE_VERSION + "|" + options).getBytes(StandardCharsets.UTF_8));
+            return SpecDigest.hex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.boa.apigenerator.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs generation requests off the servlet threads, so a burst of large generations cannot
+ * exhaust the web server's pool and starve health checks and other light requests.
+ *
+ * Requests run on generator.async.threads threads (0 = one per available core). At most
+ * generator.async.max-queued requests wait for a thread; beyond that {@link #submit} fails with
+ * {@link RejectedExecutionException} and the caller should retry after {@link #retryAfterSeconds()}.
+ * A request that has not finished generator.async.timeout-millis after it was accepted completes
+ * with {@link TimeoutException} and its thread is interrupted; a generation stops at its next
+ * stage and removes its output rather than caching it, a request still queued never starts.
+ */
+@Component
+public class GenerationExecutor {
+
+    @Value("${generator.async.threads:0}")
+    private int threads;
+
+    @Value("${generator.async.max-queued:100}")
+    private int maxQueued = 100;
+
+    @Value("${generator.async.timeout-millis:60000}")
+    private long timeoutMillis = 60000;
+
+    @Autowired
+    private GenerationMetrics metrics;
+
+    private ThreadPoolExecutor executor;
+
+    /** moving average of request run time, for Retry-After */
+    private final AtomicLong averageNanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+
+    @PostConstruct
+    public void start() {
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued), r -> {
+            Thread t = new Thread(r, "apigen-request-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        metrics.requestQueue(executor.getQueue());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues the work and returns its future result.
+     *
+     * @throws RejectedExecutionException when generator.async.max-queued requests are already waiting
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (result.isDone()) {
+                    // timed out while queued
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    result.complete(work.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    long took = System.nanoTime() - start;
+                    averageNanos.getAndUpdate(avg -> avg + (took - avg) / 8);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.requestRejected("queue-full");
+            throw new RejectedExecutionException("Generation queue is full (" + executor.getQueue().size() + "/"
+                    + maxQueued + " requests waiting), retry later");
+        }
+        result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((value, e) -> {
+            if (e instanceof TimeoutException) {
+                metrics.requestRejected("timeout");
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Seconds until the queue is likely to have room again, estimated from the current backlog
+     * and the recent run time of a request. At least 1.
+     */
+    public long retryAfterSeconds() {
+        long backlog = (long) executor.getQueue().size() + executor.getActiveCount();
+        long nanos = backlog * averageNanos.get() / executor.getMaximumPoolSize();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos) + 1);
+    }
+}
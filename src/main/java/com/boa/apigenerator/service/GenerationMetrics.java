@@ -0,0 +1,165 @@
+package com.boa.apigenerator.service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generation metrics, published through Micrometer (see /actuator/metrics and
+ * /actuator/prometheus).
+ *
+ * Meters:
+ *  - apigen.generation.stage (timer, tag stage): time spent per stage, with a latency histogram
+ *  - apigen.generation (timer, tags mode and outcome): whole requests, with a latency histogram
+ *  - apigen.generations.in-flight (gauge): generations currently running
+ *  - apigen.files.written / apigen.bytes.written / apigen.endpoints.processed (counters)
+ *  - apigen.requests.queued (gauge): REST generation requests waiting for a thread
+ *  - apigen.requests.rejected (counter, tag reason): requests refused because the queue was full
+ *    or that timed out
+ *
+ * Stage timers are recorded per file or per render chunk, never per endpoint, so the overhead
+ * is a few clock reads per file. Outside a Spring Boot application (e.g. the benchmarks) the
+ * meters go to a private in-memory registry.
+ */
+@Component
+public class GenerationMetrics {
+
+    public enum Stage {
+        /** reading specs from JSON (streaming input only, excluding rendering) */
+        PARSE,
+        /** computing the cache key and looking it up */
+        CACHE,
+        /** claiming the project folder */
+        ALLOCATE,
+        /** rendering templates into memory */
+        RENDER,
+        /** writing rendered files to disk, excluding time spent waiting for renders */
+        WRITE,
+        /** writing the project manifest */
+        MANIFEST,
+        /** comparing and rewriting an existing project */
+        UPDATE;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Autowired(required = false)
+    private MeterRegistry registry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private Counter filesWritten;
+    private Counter bytesWritten;
+    private Counter endpointsProcessed;
+
+    @PostConstruct
+    public void register() {
+        if (registry == null) {
+            registry = new SimpleMeterRegistry();
+        }
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("apigen.generation.stage")
+                    .description("Time spent in one stage of project generation")
+                    .tag("stage", stage.tag())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        Gauge.builder("apigen.generations.in-flight", inFlight, AtomicInteger::get)
+                .description("Generations currently running")
+                .register(registry);
+        filesWritten = Counter.builder("apigen.files.written")
+                .description("Generated files written to disk")
+                .register(registry);
+        bytesWritten = Counter.builder("apigen.bytes.written")
+                .description("Bytes of generated files written to disk")
+                .baseUnit("bytes")
+                .register(registry);
+        endpointsProcessed = Counter.builder("apigen.endpoints.processed")
+                .description("Endpoint specs turned into code")
+                .register(registry);
+    }
+
+    /**
+     * Start of a timed section: pass the result to {@link #record(Stage, long)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(Stage stage, long start) {
+        recordNanos(stage, System.nanoTime() - start);
+    }
+
+    public void recordNanos(Stage stage, long nanos) {
+        stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks a generation as running. Pass the result to {@link #finished}.
+     */
+    public long started() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a finished generation.
+     *
+     * @param mode    files, stream, zip or update
+     * @param outcome generated, cached, updated or failed
+     */
+    public void finished(long start, String mode, String outcome) {
+        inFlight.decrementAndGet();
+        Timer.builder("apigen.generation")
+                .description("End-to-end generation requests")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void fileWritten(long bytes) {
+        filesWritten.increment();
+        bytesWritten.increment(bytes);
+    }
+
+    public void endpointsProcessed(int count) {
+        endpointsProcessed.increment(count);
+    }
+
+    /**
+     * Publishes the size of the REST request queue.
+     */
+    public void requestQueue(Collection<?> queue) {
+        Gauge.builder("apigen.requests.queued", queue, Collection::size)
+                .description("Generation requests waiting for a thread")
+                .register(registry);
+    }
+
+    /**
+     * @param reason queue-full or timeout
+     */
+    public void requestRejected(String reason) {
+        Counter.builder("apigen.requests.rejected")
+                .description("Generation requests refused or timed out")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,276 @@
+package com.boa.apigenerator.service;
+
+import java.io.BufferedWriter;
+import java.io.CharArrayWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.service.GenerationMetrics.Stage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders and writes the files of a generated project concurrently.
+ *
+ * The spec-driven files (controllers and business services) are rendered in chunks of
+ * endpoints into in-memory buffers on a bounded render pool, while one writer task per file
+ * copies finished chunks to disk in order on a separate I/O pool. The static files are rendered
+ * and written as independent tasks. Writers only ever wait on render tasks, so the two pools
+ * cannot deadlock.
+ *
+ * The first failure cancels the remaining work and is rethrown once all running tasks have
+ * stopped, so the caller can safely delete the partial output. Interrupting the calling thread
+ * does the same and ends in an {@link InterruptedException}.
+ *
+ * Configuration:
+ *  - generator.parallelism: render threads, 0 means one per available core
+ *  - generator.render-chunk-size: endpoints rendered per task
+ */
+@Component
+public class GenerationPipeline {
+
+    private static final int IO_THREADS = 4;
+
+    @Autowired
+    private GenerationMetrics metrics;
+
+    @Value("${generator.parallelism:0}")
+    private int parallelism;
+
+    @Value("${generator.render-chunk-size:500}")
+    private int chunkSize = 500;
+
+    private ExecutorService renderPool;
+    private ExecutorService ioPool;
+
+    @PostConstruct
+    public void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        renderPool = Executors.newFixedThreadPool(threads, daemonThreads("apigen-render-"));
+        ioPool = Executors.newFixedThreadPool(IO_THREADS, daemonThreads("apigen-io-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        renderPool.shutdownNow();
+        ioPool.shutdownNow();
+    }
+
+    /**
+     * Renders and writes the files into serviceDir. Returns the SHA-256 of each written file
+     * keyed by its path.
+     */
+    public Map<String, String> emit(File serviceDir, List<ProjectFile> files) throws Exception {
+        Run run = new Run();
+        for (ProjectFile f : files) {
+            if (f.isPerSpec()) {
+                run.chunked(serviceDir, f);
+            } else {
+                run.write(serviceDir, f);
+            }
+        }
+        run.await();
+        return new TreeMap<>(run.hashes);
+    }
+
+    /**
+     * Renders and writes only the files that do not depend on the specs (all fixed files except
+     * those of {@link ProjectLayout#dependsOnEndpoints}).
+     */
+    public Map<String, String> emitStatic(File serviceDir, GenerationOptions options) throws Exception {
+        List<ProjectFile> fixed = new ArrayList<>();
+        for (ProjectFile f : ProjectLayout.files(List.of(), options)) {
+            if (!f.isPerSpec() && !ProjectLayout.dependsOnEndpoints(f.getPath())) {
+                fixed.add(f);
+            }
+        }
+        return emit(serviceDir, fixed);
+    }
+
+    /**
+     * Renders the files on the calling thread, one after another, into a sink that takes files
+     * in sequence such as a ZIP stream. Nothing is buffered beyond the sink.
+     */
+    public void emit(ProjectSink sink, List<ProjectFile> files) throws IOException {
+        for (ProjectFile f : files) {
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException("Generation cancelled");
+            }
+            try (Writer w = sink.open(f.getPath())) {
+                f.render(w);
+            }
+        }
+    }
+
+    /**
+     * One generation: tracks its tasks so the first failure can cancel the rest.
+     */
+    private class Run {
+        private final List<CompletableFuture<?>> tasks = new ArrayList<>();
+        private final List<CompletableFuture<?>> renders = new ArrayList<>();
+        private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+        void write(File serviceDir, ProjectFile file) {
+            track(CompletableFuture.runAsync(() -> {
+                if (failed.get()) {
+                    return;
+                }
+                long start = metrics.start();
+                MessageDigest digest = SpecDigest.sha256();
+                File target = new File(serviceDir, file.getPath());
+                try (Writer w = open(target, digest)) {
+                    file.render(w);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+                hashes.put(file.getPath(), SpecDigest.hex(digest.digest()));
+                metrics.record(Stage.WRITE, start);
+                metrics.fileWritten(target.length());
+            }, ioPool));
+        }
+
+        void chunked(File serviceDir, ProjectFile file) {
+            List<CompiledEndpoint> endpoints = file.getEndpoints();
+            List<CompletableFuture<CharArrayWriter>> chunks = new ArrayList<>();
+            for (int from = 0; from < endpoints.size(); from += chunkSize) {
+                List<CompiledEndpoint> slice = endpoints.subList(from, Math.min(endpoints.size(), from + chunkSize));
+                CompletableFuture<CharArrayWriter> chunk = track(CompletableFuture.supplyAsync(() -> {
+                    long start = metrics.start();
+                    CharArrayWriter buffer = new CharArrayWriter();
+                    try {
+                        for (CompiledEndpoint e : slice) {
+                            file.getEntry().write(e, buffer);
+                        }
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                    metrics.record(Stage.RENDER, start);
+                    return buffer;
+                }, renderPool));
+                chunks.add(chunk);
+                renders.add(chunk);
+            }
+            track(CompletableFuture.runAsync(() -> {
+                if (failed.get()) {
+                    return;
+                }
+                long start = metrics.start();
+                long waited = 0;
+                MessageDigest digest = SpecDigest.sha256();
+                File target = new File(serviceDir, file.getPath());
+                try (Writer w = open(target, digest)) {
+                    file.getHeader().write(w);
+                    for (CompletableFuture<CharArrayWriter> chunk : chunks) {
+                        if (failed.get()) {
+                            return;
+                        }
+                        long wait = System.nanoTime();
+                        CharArrayWriter rendered = chunk.join();
+                        waited += System.nanoTime() - wait;
+                        rendered.writeTo(w);
+                    }
+                    file.getFooter().write(w);
+                } catch (CompletionException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+                hashes.put(file.getPath(), SpecDigest.hex(digest.digest()));
+                metrics.recordNanos(Stage.WRITE, System.nanoTime() - start - waited);
+                metrics.fileWritten(target.length());
+            }, ioPool));
+        }
+
+        <T> CompletableFuture<T> track(CompletableFuture<T> task) {
+            tasks.add(task);
+            task.whenComplete((r, e) -> {
+                if (e != null && failed.compareAndSet(false, true)) {
+                    firstFailure.completeExceptionally(e);
+                }
+            });
+            return task;
+        }
+
+        void await() throws Exception {
+            CompletableFuture<Void> all = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]));
+            try {
+                CompletableFuture.anyOf(all, firstFailure).get();
+            } catch (ExecutionException e) {
+                stop(all);
+                throw unwrap(e.getCause());
+            } catch (InterruptedException e) {
+                // the request was cancelled, e.g. it timed out
+                failed.set(true);
+                stop(all);
+                throw e;
+            }
+        }
+
+        /**
+         * Drops queued renders (writers stop on the failed flag) and waits for the writers still
+         * running, so nothing writes to the output any more once the failure is handed back.
+         */
+        private void stop(CompletableFuture<Void> all) {
+            for (CompletableFuture<?> r : renders) {
+                r.cancel(false);
+            }
+            all.handle((r, ignored) -> null).join();
+        }
+    }
+
+    /**
+     * Opens a writer for the file that also feeds the written bytes into the digest.
+     */
+    private static Writer open(File f, MessageDigest digest) throws IOException {
+        Files.createDirectories(f.toPath().getParent());
+        return new BufferedWriter(new OutputStreamWriter(
+                new DigestOutputStream(new FileOutputStream(f, false), digest), StandardCharsets.UTF_8));
+    }
+
+    private static Exception unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        throw (Error) t;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.boa.apigenerator.service;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+/**
+ * A minimal Spring context holding only the beans needed to generate projects: no component
+ * scanning, no auto-configuration and no web server. Used by the command line entry point and
+ * the benchmarks, where Spring Boot startup would dominate the run time.
+ *
+ * Properties are resolved, highest precedence first, from the overrides, --name=value command
+ * line arguments and application.properties on the classpath.
+ */
+public final class GeneratorContext {
+
+    private GeneratorContext() {}
+
+    public static AnnotationConfigApplicationContext create(String[] args, Map<String, Object> overrides) throws IOException {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        MutablePropertySources sources = context.getEnvironment().getPropertySources();
+        ClassPathResource defaults = new ClassPathResource("application.properties");
+        if (defaults.exists()) {
+            sources.addFirst(new ResourcePropertySource("application.properties", defaults));
+        }
+        if (args != null && args.length > 0) {
+            sources.addFirst(new SimpleCommandLinePropertySource(args));
+        }
+        if (overrides != null && !overrides.isEmpty()) {
+            sources.addFirst(new MapPropertySource("overrides", overrides));
+        }
+        context.register(ApiProjectGeneratorService.class, GenerationPipeline.class, GenerationCache.class,
+                GenerationMetrics.class, ProjectSerialAllocator.class, IncrementalUpdater.class, SpecWatcher.class);
+        context.refresh();
+        context.registerShutdownHook();
+        return context;
+    }
+}
@@ -0,0 +1,315 @@
+package com.boa.apigenerator.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Updates an existing generated project in place, rewriting only the files whose bytes change.
+ *
+ * Each project keeps a manifest (see {@link ProjectLayout#MANIFEST}) with the hash of every
+ * endpoint spec and, per file, the hash of its content, a fingerprint of the inputs it was
+ * rendered from and its size and modification time. The inputs are the template version, the
+ * generation options and, for a file with one entry per endpoint, those endpoints. Any other file
+ * (pom, DTOs, schema.sql, repositories, ...) may be derived from all specs together, so its inputs
+ * include every spec. On update a file is not even rendered when
+ * its inputs are unchanged and the file on disk still matches the manifest. Otherwise it is
+ * rendered in memory and only written when the bytes differ from what is on disk, so unchanged
+ * files keep their mtime and incremental builds and IDE indexes stay warm. Files that the new
+ * specs no longer produce are removed.
+ */
+@Component
+public class IncrementalUpdater {
+
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Outcome of an update: paths relative to the generated-service folder.
+     */
+    public static class Result {
+        private final List<String> written = new ArrayList<>();
+        private final List<String> unchanged = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+
+        public List<String> getWritten() { return written; }
+        public List<String> getUnchanged() { return unchanged; }
+        public List<String> getRemoved() { return removed; }
+
+        @Override
+        public String toString() {
+            return written.size() + " written, " + unchanged.size() + " unchanged, " + removed.size() + " removed";
+        }
+    }
+
+    /**
+     * Records the manifest of a freshly generated project from the hashes the pipeline computed.
+     */
+    public void writeManifest(File serviceDir, List<ApiSpec> specs, List<ProjectFile> files,
+                              GenerationOptions options, Map<String, String> hashes) throws IOException {
+        Map<ApiSpec, String> endpointHashes = endpointHashes(specs);
+        Manifest manifest = new Manifest(endpointHashes, specs);
+        String allSpecs = allSpecs(manifest.endpoints);
+        for (ProjectFile f : files) {
+            Path target = serviceDir.toPath().resolve(f.getPath());
+            manifest.files.put(f.getPath(), FileEntry.of(hashes.get(f.getPath()),
+                    inputs(f, options, endpointHashes, allSpecs), target));
+        }
+        save(serviceDir, manifest);
+    }
+
+    /**
+     * Starts the manifest of a project generated from a stream of specs. Feed every spec in order
+     * with {@link ManifestBuilder#add}, report each endpoint appended to a file built per spec, then
+     * call {@link ManifestBuilder#finish} once all files are written.
+     */
+    public ManifestBuilder newManifest(GenerationOptions options) {
+        return new ManifestBuilder(options);
+    }
+
+    public Result update(File serviceDir, List<ApiSpec> specs, List<ProjectFile> files,
+                         GenerationOptions options) throws IOException {
+        Manifest previous = load(serviceDir);
+        Map<ApiSpec, String> endpointHashes = endpointHashes(specs);
+        Manifest manifest = new Manifest(endpointHashes, specs);
+        String allSpecs = allSpecs(manifest.endpoints);
+        Result result = new Result();
+
+        for (ProjectFile f : files) {
+            Path target = resolve(serviceDir, f.getPath());
+            String inputs = inputs(f, options, endpointHashes, allSpecs);
+            FileEntry old = previous.files.get(f.getPath());
+            if (old != null && old.inputs.equals(inputs) && old.matches(target)) {
+                manifest.files.put(f.getPath(), old);
+                result.unchanged.add(f.getPath());
+                continue;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (Writer w = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+                f.render(w);
+            }
+            byte[] content = bytes.toByteArray();
+            String sha = sha256(content);
+            if (!Files.isRegularFile(target) || !sha.equals(sha256(Files.readAllBytes(target)))) {
+                Files.createDirectories(target.getParent());
+                Files.write(target, content);
+                result.written.add(f.getPath());
+            } else {
+                result.unchanged.add(f.getPath());
+            }
+            manifest.files.put(f.getPath(), FileEntry.of(sha, inputs, target));
+        }
+
+        for (String path : previous.files.keySet()) {
+            if (!manifest.files.containsKey(path) && Files.deleteIfExists(resolve(serviceDir, path))) {
+                result.removed.add(path);
+            }
+        }
+        save(serviceDir, manifest);
+        return result;
+    }
+
+    /* ---------- Fingerprints ---------- */
+
+    private static Map<ApiSpec, String> endpointHashes(List<ApiSpec> specs) throws IOException {
+        Map<ApiSpec, String> hashes = new IdentityHashMap<>();
+        for (ApiSpec s : specs) {
+            hashes.put(s, SpecDigest.hash(s));
+        }
+        return hashes;
+    }
+
+    /** Hash of all endpoint hashes in spec order */
+    private static String allSpecs(List<String> endpointHashes) {
+        MessageDigest digest = SpecDigest.sha256();
+        for (String hash : endpointHashes) {
+            digest.update(hash.getBytes(StandardCharsets.UTF_8));
+        }
+        return SpecDigest.hex(digest.digest());
+    }
+
+    /**
+     * What a file was rendered from: the template version and options, then the ordered endpoints
+     * of a file built per spec, or all specs for any other file. An endpoint is its spec hash plus
+     * the repository calls bound to it, which come from the DTO fields other specs may declare.
+     */
+    private static String inputs(ProjectFile f, GenerationOptions options, Map<ApiSpec, String> endpointHashes,
+                                 String allSpecs) {
+        MessageDigest digest = inputs(options);
+        if (!f.isPerSpec()) {
+            digest.update(allSpecs.getBytes(StandardCharsets.UTF_8));
+        }
+        for (CompiledEndpoint e : f.getEndpoints()) {
+            endpoint(digest, endpointHashes.get(e.getSpec()), e);
+        }
+        return SpecDigest.hex(digest.digest());
+    }
+
+    private static MessageDigest inputs(GenerationOptions options) {
+        MessageDigest digest = SpecDigest.sha256();
+        digest.update(Templates.TEMPLATE_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update(options.key().getBytes(StandardCharsets.UTF_8));
+        return digest;
+    }
+
+    private static void endpoint(MessageDigest digest, String specHash, CompiledEndpoint e) {
+        digest.update(specHash.getBytes(StandardCharsets.UTF_8));
+        if (e.getRepositoryCall() != null) {
+            digest.update((e.getRepositoryCall() + '\0' + e.getBatchRow() + '\0' + e.getBatchWrite())
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        return SpecDigest.hex(SpecDigest.sha256().digest(content));
+    }
+
+    /* ---------- Manifest ---------- */
+
+    /**
+     * Reads the project's manifest, refusing it before anything is written when one of its paths
+     * points outside the project, as the files it lists may be deleted.
+     */
+    private static Manifest load(File serviceDir) throws IOException {
+        File file = new File(serviceDir, ProjectLayout.MANIFEST);
+        if (!file.isFile()) {
+            // generated before manifests existed: every file is rendered and compared
+            return new Manifest();
+        }
+        Manifest manifest = mapper.readValue(file, Manifest.class);
+        for (String path : manifest.files.keySet()) {
+            resolve(serviceDir, path);
+        }
+        return manifest;
+    }
+
+    /**
+     * The file at the path relative to the generated-service folder, which it must stay inside.
+     */
+    private static Path resolve(File serviceDir, String path) throws IOException {
+        Path root = serviceDir.toPath().toAbsolutePath().normalize();
+        Path target = root.resolve(path).normalize();
+        if (target.equals(root) || !target.startsWith(root)) {
+            throw new IOException("Path outside the project: " + path);
+        }
+        return target;
+    }
+
+    private static void save(File serviceDir, Manifest manifest) throws IOException {
+        Path file = serviceDir.toPath().resolve(ProjectLayout.MANIFEST);
+        Path tmp = file.resolveSibling(ProjectLayout.MANIFEST + ".tmp");
+        mapper.writeValue(tmp.toFile(), manifest);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static class Manifest {
+        public String templateVersion = Templates.TEMPLATE_VERSION;
+        public List<String> endpoints = new ArrayList<>();
+        public Map<String, FileEntry> files = new TreeMap<>();
+
+        public Manifest() {}
+
+        Manifest(Map<ApiSpec, String> endpointHashes, List<ApiSpec> specs) {
+            for (ApiSpec s : specs) {
+                endpoints.add(endpointHashes.get(s));
+            }
+        }
+    }
+
+    /**
+     * Collects the manifest of a streamed project as the specs arrive, with the same fingerprints
+     * {@link #writeManifest} records for the list of specs. Keeps one hash per spec and one running
+     * digest per file built per spec.
+     */
+    public static class ManifestBuilder {
+        private final GenerationOptions options;
+        private final Manifest manifest = new Manifest();
+        private final Map<String, MessageDigest> perSpec = new HashMap<>();
+        private String current;
+
+        private ManifestBuilder(GenerationOptions options) {
+            this.options = options;
+        }
+
+        public void add(ApiSpec s) throws IOException {
+            current = SpecDigest.hash(s);
+            manifest.endpoints.add(current);
+        }
+
+        /**
+         * Records that the endpoint of the spec added last goes into the files at these paths.
+         */
+        public void appended(CompiledEndpoint e, String... paths) {
+            for (String path : paths) {
+                endpoint(perSpec.computeIfAbsent(path, p -> inputs(options)), current, e);
+            }
+        }
+
+        /**
+         * Writes the manifest for the files written, given by path with the hash of their content.
+         * A file no endpoint was appended to is one derived from all specs.
+         */
+        public void finish(File serviceDir, Map<String, String> hashes) throws IOException {
+            String allSpecs = allSpecs(manifest.endpoints);
+            for (Map.Entry<String, String> file : hashes.entrySet()) {
+                MessageDigest digest = perSpec.get(file.getKey());
+                if (digest == null) {
+                    digest = inputs(options);
+                    digest.update(allSpecs.getBytes(StandardCharsets.UTF_8));
+                }
+                manifest.files.put(file.getKey(), FileEntry.of(file.getValue(), SpecDigest.hex(digest.digest()),
+                        serviceDir.toPath().resolve(file.getKey())));
+            }
+            save(serviceDir, manifest);
+        }
+    }
+
+    public static class FileEntry {
+        public String sha256;
+        public String inputs;
+        public long size;
+        public long modified;
+
+        static FileEntry of(String sha256, String inputs, Path target) throws IOException {
+            BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class);
+            FileEntry e = new FileEntry();
+            e.sha256 = sha256;
+            e.inputs = inputs;
+            e.size = attrs.size();
+            e.modified = attrs.lastModifiedTime().toMillis();
+            return e;
+        }
+
+        /**
+         * True when the file on disk still looks like the one recorded (same size and mtime).
+         */
+        boolean matches(Path target) throws IOException {
+            if (!Files.isRegularFile(target)) {
+                return false;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class);
+            return attrs.size() == size && attrs.lastModifiedTime().toMillis() == modified;
+        }
+    }
+}
@@ -1,22 +1,101 @@
 package com.boa.apigenerator.service;
 
 import java.io.File;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.boa.apigenerator.model.ApiSpec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 /**
  * Utility to parse input file. The input must be a JSON array of ApiSpec objects.
+ *
+ * Besides the one-shot {@link #parseFromFile(File)} there is a streaming mode that walks the
+ * array with a Jackson {@link JsonParser} and hands each spec (or bounded chunk of specs) to a
+ * handler as soon as it has been read, so memory use does not grow with the size of the input.
  */
 public class InputSpecParser {
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /**
+     * Receives specs one at a time from the streaming parser.
+     */
+    @FunctionalInterface
+    public interface SpecHandler {
+        void accept(ApiSpec spec) throws Exception;
+    }
+
+    /**
+     * Receives bounded chunks of specs from the streaming parser.
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void accept(List<ApiSpec> chunk) throws Exception;
+    }
+
     public static List<ApiSpec> parseFromFile(File f) throws Exception {
         String content = Files.readString(f.toPath());
         return mapper.readValue(content, new TypeReference<List<ApiSpec>>() {});
     }
+
+    /**
+     * Streams the specs of the given file to the handler. Returns the number of specs read.
+     */
+    public static int streamFromFile(File f, SpecHandler handler) throws Exception {
+        try (InputStream in = Files.newInputStream(f.toPath())) {
+            return stream(in, handler);
+        }
+    }
+
+    /**
+     * Streams the specs of a JSON array to the handler one at a time. Only the spec currently
+     * being handled is held in memory. The stream is not closed. Returns the number of specs read.
+     */
+    public static int stream(InputStream in, SpecHandler handler) throws Exception {
+        int count = 0;
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Input must be a JSON array of API specs");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Expected an API spec object but found " + token
+                            + " at " + parser.getCurrentLocation());
+                }
+                handler.accept(mapper.readValue(parser, ApiSpec.class));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Streams the specs of a JSON array to the handler in chunks of at most {@code chunkSize}.
+     * The last chunk may be smaller. Returns the number of specs read.
+     */
+    public static int streamChunks(InputStream in, int chunkSize, ChunkHandler handler) throws Exception {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        List<ApiSpec> chunk = new ArrayList<>(chunkSize);
+        int count = stream(in, spec -> {
+            chunk.add(spec);
+            if (chunk.size() == chunkSize) {
+                handler.accept(new ArrayList<>(chunk));
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            handler.accept(new ArrayList<>(chunk));
+        }
+        return count;
+    }
 }
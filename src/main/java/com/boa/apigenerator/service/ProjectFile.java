@@ -0,0 +1,84 @@
+package com.boa.apigenerator.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * One file of a generated project: its path relative to the generated-service folder and how to
+ * render it. Files built from the specs render as header, one entry per endpoint and footer, so
+ * the entries can be rendered in chunks (see {@link GenerationPipeline}).
+ */
+public final class ProjectFile {
+
+    /**
+     * Renders a part of a file that does not depend on any spec.
+     */
+    @FunctionalInterface
+    public interface Part {
+        void write(Writer out) throws IOException;
+    }
+
+    /**
+     * Renders the part of a file that belongs to one endpoint.
+     */
+    @FunctionalInterface
+    public interface Entry {
+        void write(CompiledEndpoint endpoint, Writer out) throws IOException;
+    }
+
+    private static final Part NOTHING = out -> {};
+
+    private final String path;
+    private final Part header;
+    private final Entry entry;
+    private final Part footer;
+    private final List<CompiledEndpoint> endpoints;
+
+    private ProjectFile(String path, Part header, Entry entry, Part footer, List<CompiledEndpoint> endpoints) {
+        this.path = path;
+        this.header = header;
+        this.entry = entry;
+        this.footer = footer;
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * A file whose content does not depend on the specs.
+     */
+    public static ProjectFile fixed(String path, Part body) {
+        return new ProjectFile(path, body, null, NOTHING, List.of());
+    }
+
+    /**
+     * A file with one entry per endpoint between a header and a footer.
+     */
+    public static ProjectFile perSpec(String path, List<CompiledEndpoint> endpoints, Part header, Entry entry,
+                                      Part footer) {
+        return new ProjectFile(path, header, entry, footer, endpoints);
+    }
+
+    public String getPath() { return path; }
+    public Part getHeader() { return header; }
+    public Entry getEntry() { return entry; }
+    public Part getFooter() { return footer; }
+
+    /**
+     * The endpoints rendered into this file, empty for fixed files.
+     */
+    public List<CompiledEndpoint> getEndpoints() { return endpoints; }
+
+    public boolean isPerSpec() {
+        return entry != null;
+    }
+
+    public void render(Writer out) throws IOException {
+        header.write(out);
+        if (entry != null) {
+            for (CompiledEndpoint e : endpoints) {
+                entry.write(e, out);
+            }
+        }
+        footer.write(out);
+    }
+}
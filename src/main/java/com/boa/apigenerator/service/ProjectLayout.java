@@ -0,0 +1,214 @@
+package com.boa.apigenerator.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+
+/**
+ * The files that make up a generated project, relative to its generated-service folder.
+ * Every output mode (folder, ZIP, in-place update) renders this list.
+ */
+public final class ProjectLayout {
+
+    public static final String SRC_MAIN = "src/main/java/com/boa/generated";
+    public static final String RESOURCES = "src/main/resources";
+    public static final String SRC_TEST = "src/test/java/com/boa/generated";
+
+    public static final String POM = "pom.xml";
+    public static final String APPLICATION_CLASS = SRC_MAIN + "/GeneratedServiceApplication.java";
+    public static final String APPLICATION_PROPERTIES = RESOURCES + "/application.properties";
+    /** Controller and business service without sharding, see {@link ShardPlan} */
+    public static final String CONTROLLER = SRC_MAIN + "/GeneratedController.java";
+    public static final String BUSINESS_SERVICE = SRC_MAIN + "/GeneratedBusinessService.java";
+    /** Only when an endpoint is cached */
+    public static final String RESPONSE_CACHE = SRC_MAIN + "/ResponseCache.java";
+    public static final String CACHE_STATS_CONTROLLER = SRC_MAIN + "/CacheStatsController.java";
+    /** Only when an endpoint is batched */
+    public static final String BATCH_REQUESTS = SRC_MAIN + "/BatchRequests.java";
+    public static final String BATCH_RESULT = SRC_MAIN + "/BatchResult.java";
+    public static final String BATCH_EXECUTOR = SRC_MAIN + "/BatchExecutor.java";
+    /** Only with the fast-startup option */
+    public static final String MEASURE_STARTUP = "measure-startup.sh";
+    /** Only with the persistence option, together with one repository per DTO */
+    public static final String SCHEMA = RESOURCES + "/schema.sql";
+    public static final String REPOSITORIES = SRC_MAIN + "/Repositories.java";
+    public static final String THROUGHPUT_TEST = SRC_TEST + "/RepositoryThroughputTest.java";
+    /** Only with the endpointMetrics option */
+    public static final String ENDPOINT_METRICS = SRC_MAIN + "/EndpointMetrics.java";
+    /** Only with the loadTest option */
+    public static final String LOAD_TEST = "load-test/LoadTest.java";
+    public static final String LOAD_TEST_ENDPOINTS = "load-test/endpoints.tsv";
+
+    /** Content hashes of the generated files, see {@link IncrementalUpdater} */
+    public static final String MANIFEST = ".apigen-manifest.json";
+
+    private ProjectLayout() {}
+
+    /**
+     * The project files for the specs without sharding.
+     */
+    public static List<ProjectFile> files(List<ApiSpec> specs) {
+        return files(specs, new GenerationOptions());
+    }
+
+    /**
+     * The project files for the specs, which are compiled once and shared by all files. With
+     * sharding there is one controller and business service file per shard, see {@link ShardPlan}.
+     */
+    public static List<ProjectFile> files(List<ApiSpec> specs, GenerationOptions options) {
+        boolean webflux = options.isReactive();
+        boolean reactiveEndpoints = false;
+        boolean cachedEndpoints = false;
+        List<CompiledEndpoint> endpoints = new ArrayList<>(specs.size());
+        List<CompiledEndpoint> batchEndpoints = new ArrayList<>();
+        DtoRegistry dtos = new DtoRegistry();
+        RepositoryPlan repositories = options.isPersistence() ? new RepositoryPlan(options) : null;
+        for (CompiledEndpoint e : SpecCompiler.compile(specs, webflux)) {
+            dtos.add(e);
+            if (repositories != null) {
+                e = repositories.bind(e, dtos);
+            }
+            endpoints.add(e);
+            reactiveEndpoints |= e.isReactive();
+            cachedEndpoints |= e.isCached();
+            if (e.isBatch()) {
+                batchEndpoints.add(e);
+            }
+        }
+        List<ProjectFile> files = new ArrayList<>();
+        files.add(pom(options, reactiveEndpoints));
+        files.add(ProjectFile.fixed(APPLICATION_CLASS, out -> Templates.writeApplicationClass(options, out)));
+        files.add(ProjectFile.fixed(APPLICATION_PROPERTIES, out -> Templates.writeApplicationProperties(options, out)));
+        if (options.isFastStartup()) {
+            files.add(ProjectFile.fixed(MEASURE_STARTUP, Templates::writeMeasureStartupScript));
+        }
+        if (options.isLoadTest()) {
+            files.add(ProjectFile.fixed(LOAD_TEST, Templates::writeLoadTest));
+            files.add(ProjectFile.perSpec(LOAD_TEST_ENDPOINTS, endpoints, Templates::writeLoadTestEndpointsHeader,
+                    Templates::writeLoadTestEndpoint, out -> {}));
+        }
+        boolean metered = options.isEndpointMetrics();
+        for (Map.Entry<ShardPlan.Shard, List<CompiledEndpoint>> shard : shards(endpoints, options).entrySet()) {
+            ShardPlan.Shard names = shard.getKey();
+            files.add(ProjectFile.perSpec(names.getControllerPath(), shard.getValue(),
+                    out -> Templates.writeControllerHeader(names, webflux, out),
+                    (e, out) -> Templates.writeControllerEndpoint(e, metered, out), Templates::writeControllerFooter));
+            files.add(ProjectFile.perSpec(names.getServicePath(), shard.getValue(),
+                    out -> Templates.writeServiceHeader(names, webflux, options.isPersistence(), out),
+                    Templates::writeServiceMethod, Templates::writeServiceFooter));
+        }
+        files.addAll(dtos(dtos.types()));
+        if (cachedEndpoints) {
+            files.addAll(responseCache());
+        }
+        if (!batchEndpoints.isEmpty()) {
+            files.addAll(batchSupport(batchEndpoints));
+        }
+        if (repositories != null) {
+            files.addAll(persistence(RepositoryPlan.repositories(dtos.types())));
+        }
+        if (metered) {
+            files.add(endpointMetrics(webflux || reactiveEndpoints));
+        }
+        return files;
+    }
+
+    /**
+     * True for the files outside the per-spec ones whose content depends on the endpoints.
+     * Streamed generation writes them last, once all endpoints are known.
+     */
+    public static boolean dependsOnEndpoints(String path) {
+        return path.equals(POM) || path.equals(SCHEMA) || path.equals(REPOSITORIES) || path.equals(ENDPOINT_METRICS);
+    }
+
+    /**
+     * The pom, which depends on the flavor and, for Spring MVC, on whether any endpoint is
+     * reactive. Streamed generation writes it last, once all endpoints are known.
+     */
+    public static ProjectFile pom(GenerationOptions options, boolean reactiveEndpoints) {
+        return ProjectFile.fixed(POM, out -> Templates.writeServicePom(options, reactiveEndpoints, out));
+    }
+
+    /**
+     * One file per DTO, see {@link DtoRegistry}.
+     */
+    public static List<ProjectFile> dtos(List<DtoType> types) {
+        List<ProjectFile> files = new ArrayList<>(types.size());
+        for (DtoType type : types) {
+            files.add(ProjectFile.fixed(SRC_MAIN + "/" + type.getName() + ".java", out -> Templates.writeDto(type, out)));
+        }
+        return files;
+    }
+
+    /**
+     * The response cache and its statistics endpoint, needed once any endpoint is cached.
+     */
+    public static List<ProjectFile> responseCache() {
+        return List.of(ProjectFile.fixed(RESPONSE_CACHE, Templates::writeResponseCache),
+                ProjectFile.fixed(CACHE_STATS_CONTROLLER, Templates::writeCacheStatsController));
+    }
+
+    /**
+     * The parameter classes of the batched endpoints, their result type and executor.
+     */
+    public static List<ProjectFile> batchSupport(List<CompiledEndpoint> batchEndpoints) {
+        return List.of(ProjectFile.perSpec(BATCH_REQUESTS, batchEndpoints, Templates::writeBatchRequestsHeader,
+                        Templates::writeBatchRequestClass, Templates::writeBatchRequestsFooter),
+                ProjectFile.fixed(BATCH_RESULT, Templates::writeBatchResult),
+                ProjectFile.fixed(BATCH_EXECUTOR, Templates::writeBatchExecutor));
+    }
+
+    /**
+     * schema.sql, the repositories and the class holding them, and the throughput test of the
+     * first repository whose key can be counted (none if there is no such repository).
+     */
+    public static List<ProjectFile> persistence(List<RepositoryType> repositories) {
+        List<ProjectFile> files = new ArrayList<>(repositories.size() + 3);
+        files.add(ProjectFile.fixed(SCHEMA, out -> Templates.writeSchema(repositories, out)));
+        files.add(ProjectFile.fixed(REPOSITORIES, out -> Templates.writeRepositories(repositories, out)));
+        RepositoryType tested = null;
+        for (RepositoryType r : repositories) {
+            files.add(ProjectFile.fixed(SRC_MAIN + "/" + r.getDtoName() + "Repository.java",
+                    out -> Templates.writeRepository(r, out)));
+            if (tested == null && r.getTestRow() != null) {
+                tested = r;
+            }
+        }
+        if (tested != null) {
+            RepositoryType r = tested;
+            files.add(ProjectFile.fixed(THROUGHPUT_TEST, out -> Templates.writeThroughputTest(r, out)));
+        }
+        return files;
+    }
+
+    /**
+     * The meters the controllers declare per endpoint.
+     *
+     * @param reactor whether the project has reactor-core: WebFlux, or an endpoint is reactive
+     */
+    public static ProjectFile endpointMetrics(boolean reactor) {
+        return ProjectFile.fixed(ENDPOINT_METRICS, out -> Templates.writeEndpointMetrics(reactor, out));
+    }
+
+    /**
+     * Endpoints per shard, shards in order of first use. Without sharding the default shard is
+     * present even for no endpoints.
+     */
+    private static Map<ShardPlan.Shard, List<CompiledEndpoint>> shards(List<CompiledEndpoint> endpoints,
+                                                                      GenerationOptions options) {
+        Map<ShardPlan.Shard, List<CompiledEndpoint>> shards = new LinkedHashMap<>();
+        if (!options.isSharded()) {
+            shards.put(ShardPlan.DEFAULT, endpoints);
+            return shards;
+        }
+        ShardPlan plan = new ShardPlan(options);
+        for (CompiledEndpoint e : endpoints) {
+            shards.computeIfAbsent(plan.assign(e), k -> new ArrayList<>()).add(e);
+        }
+        return shards;
+    }
+}
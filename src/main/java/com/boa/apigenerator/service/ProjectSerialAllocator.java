@@ -0,0 +1,153 @@
+package com.boa.apigenerator.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out project folders named <base>_<serial> under generator.output-dir (the working
+ * directory by default).
+ *
+ * Each normalized base name has its own counter, so allocation is a single atomic increment
+ * instead of a directory scan. The folder is then created with an atomic create-or-fail; if
+ * something else created that name in the meantime the next serial is tried, so concurrent
+ * requests never share a folder.
+ *
+ * Counters are rebuilt once at startup from the existing folders (both base_N and the legacy
+ * baseN format) merged with the counters persisted in generator.serials.file, which keeps
+ * serials from being reused after a project folder is deleted. Allocation never touches that
+ * file; it is written on shutdown. Folders still on disk are found by the startup scan anyway,
+ * so a crash can only bring back the serials of projects deleted since the last shutdown.
+ */
+@Component
+public class ProjectSerialAllocator {
+
+    @Value("${generator.output-dir:.}")
+    private String outputDir = ".";
+
+    @Value("${generator.serials.file:.apigen-serials.properties}")
+    private String serialsFile = ".apigen-serials.properties";
+
+    private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    /** bases allocated through the generator; only these are persisted */
+    private final Set<String> owned = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void load() throws IOException {
+        Path file = Path.of(serialsFile);
+        if (Files.exists(file)) {
+            Properties persisted = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                persisted.load(in);
+            }
+            for (String base : persisted.stringPropertyNames()) {
+                try {
+                    record(base, Integer.parseInt(persisted.getProperty(base).trim()));
+                    owned.add(base);
+                } catch (NumberFormatException e) {
+                    // skip
+                }
+            }
+        }
+
+        File[] entries = new File(outputDir).listFiles(File::isDirectory);
+        if (entries != null) {
+            for (File f : entries) {
+                recordExisting(f.getName());
+            }
+        }
+    }
+
+    /**
+     * Creates and returns the next free project folder for an already normalized base name.
+     */
+    public File allocate(String base) throws IOException {
+        AtomicInteger counter = counters.computeIfAbsent(base, b -> new AtomicInteger());
+        while (true) {
+            File dir = Path.of(outputDir).resolve(base + "_" + counter.incrementAndGet()).normalize().toFile();
+            try {
+                Files.createDirectory(dir.toPath());
+            } catch (FileAlreadyExistsException e) {
+                // created outside the generator since startup, move on to the next serial
+                continue;
+            }
+            owned.add(base);
+            return dir;
+        }
+    }
+
+    /**
+     * Records every (base, serial) pair an existing folder name would have matched under the
+     * old scan: "base_N" and the legacy "baseN", where a legacy name may split at any digit
+     * (e.g. "p12" is serial 12 of "p" and serial 2 of "p1").
+     */
+    private void recordExisting(String name) {
+        int digits = name.length();
+        while (digits > 0 && Character.isDigit(name.charAt(digits - 1))) {
+            digits--;
+        }
+        if (digits == name.length() || digits == 0) {
+            return;
+        }
+        if (name.charAt(digits - 1) == '_') {
+            String base = name.substring(0, digits - 1);
+            if (!base.isEmpty() && !base.endsWith("_")) {
+                record(base, name.substring(digits));
+            }
+        }
+        for (int split = digits; split < name.length(); split++) {
+            if (name.charAt(split - 1) != '_') {
+                record(name.substring(0, split), name.substring(split));
+            }
+        }
+    }
+
+    private void record(String base, String serial) {
+        try {
+            record(base, Integer.parseInt(serial));
+        } catch (NumberFormatException e) {
+            // skip
+        }
+    }
+
+    private void record(String base, int serial) {
+        counters.computeIfAbsent(base, b -> new AtomicInteger()).accumulateAndGet(serial, Math::max);
+    }
+
+    /**
+     * Saves the counters of the bases allocated here, so the serials of projects deleted since
+     * startup are not handed out again after a restart.
+     */
+    @PreDestroy
+    public synchronized void flush() throws IOException {
+        if (owned.isEmpty()) {
+            return;
+        }
+        Properties snapshot = new Properties();
+        for (String base : owned) {
+            snapshot.setProperty(base, Integer.toString(counters.get(base).get()));
+        }
+        Path file = Path.of(serialsFile).toAbsolutePath();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            snapshot.store(out, "Last allocated project serial per base name");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.boa.apigenerator.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Destination for the files of a generated project, addressed by paths relative to the
+ * generated-service folder (e.g. "src/main/resources/application.properties").
+ *
+ * Sinks are written one file at a time: the writer returned by {@link #open(String)} is closed
+ * before the next file is opened.
+ */
+public interface ProjectSink {
+
+    Writer open(String path) throws IOException;
+}
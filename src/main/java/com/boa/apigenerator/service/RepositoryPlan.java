@@ -0,0 +1,437 @@
+package com.boa.apigenerator.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import com.boa.apigenerator.model.GenerationOptions;
+
+/**
+ * The JDBC persistence of a project generated with the persistence option: which business
+ * methods call a repository, and the repositories themselves (see {@link RepositoryType}).
+ *
+ * Every declared DTO with a field of a column type (strings, numbers, booleans, chars, UUID and
+ * java.time dates) gets a table and a repository. The key is the field named id, else the first
+ * field of a column type; callers supply it. Fields of other types, such as lists, maps or other
+ * DTOs, are stored as JSON text.
+ *
+ * An endpoint is bound to the repository of its DTO when the DTO was declared by its own spec or
+ * an earlier one, so binding only depends on the endpoints seen so far and works on streamed
+ * input:
+ * - GET returning the DTO, with a parameter named and typed like the key: findById
+ * - GET returning a List of the DTO, without parameters: findAll
+ * - POST or PUT returning the DTO, with a parameter named and typed like the key: insert or
+ *   update of a row built from the parameters that match a field (other fields get defaults);
+ *   their batched variants write all rows in one JDBC batch
+ * Other endpoints keep their placeholder. A plan is not thread-safe; use one per generation.
+ */
+public final class RepositoryPlan {
+
+    /** Field type -> column type; fields of other types are stored as JSON text */
+    private static final Map<String, String> COLUMN_TYPES = Map.ofEntries(
+            Map.entry("String", "VARCHAR(4000)"),
+            Map.entry("int", "INTEGER"), Map.entry("Integer", "INTEGER"),
+            Map.entry("long", "BIGINT"), Map.entry("Long", "BIGINT"),
+            Map.entry("short", "SMALLINT"), Map.entry("Short", "SMALLINT"),
+            Map.entry("byte", "TINYINT"), Map.entry("Byte", "TINYINT"),
+            Map.entry("float", "REAL"), Map.entry("Float", "REAL"),
+            Map.entry("double", "DOUBLE PRECISION"), Map.entry("Double", "DOUBLE PRECISION"),
+            Map.entry("boolean", "BOOLEAN"), Map.entry("Boolean", "BOOLEAN"),
+            Map.entry("char", "CHAR(1)"), Map.entry("Character", "CHAR(1)"),
+            Map.entry("UUID", "UUID"),
+            Map.entry("LocalDate", "DATE"),
+            Map.entry("LocalTime", "TIME"),
+            Map.entry("LocalDateTime", "TIMESTAMP"),
+            Map.entry("OffsetDateTime", "TIMESTAMP WITH TIME ZONE"),
+            Map.entry("Instant", "TIMESTAMP WITH TIME ZONE"));
+
+    private static final String JSON_COLUMN = "CLOB";
+
+    private static final Map<String, String> BOXES = Map.of("int", "Integer", "long", "Long", "short", "Short",
+            "byte", "Byte", "float", "Float", "double", "Double", "boolean", "Boolean", "char", "Character");
+
+    /** Key types RepositoryThroughputTest can count with -> key of row i */
+    private static final Map<String, String> COUNTER_KEYS = Map.of("int", "i", "Integer", "i", "long", "(long) i",
+            "Long", "(long) i", "String", "String.valueOf(i)");
+
+    /** Keywords of H2 and standard SQL that need quoting as table or column names */
+    private static final Set<String> RESERVED = Set.of("all", "and", "any", "array", "as", "asymmetric",
+            "authorization", "between", "both", "case", "cast", "check", "constraint", "cross", "current_catalog",
+            "current_date", "current_path", "current_role", "current_schema", "current_time", "current_timestamp",
+            "current_user", "day", "default", "distinct", "else", "end", "except", "exists", "false", "fetch", "for",
+            "foreign", "from", "full", "group", "groups", "having", "hour", "if", "ilike", "in", "inner", "intersect",
+            "interval", "is", "join", "key", "leading", "left", "like", "limit", "localtime", "localtimestamp",
+            "minus", "minute", "month", "natural", "not", "null", "offset", "on", "or", "order", "over", "partition",
+            "primary", "qualify", "range", "regexp", "right", "row", "rownum", "rows", "second", "select",
+            "session_user", "set", "some", "symmetric", "system_user", "table", "to", "top", "trailing", "true",
+            "uescape", "union", "unique", "unknown", "user", "using", "value", "values", "when", "where", "window",
+            "with", "year", "_rowid_");
+
+    private static final Pattern PLAIN_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    /** Names the repository template declares itself */
+    private static final Set<String> TEMPLATE_CONSTANTS = Set.of("INSERT", "UPDATE", "SELECT_ALL", "FIND_BY_ID",
+            "DELETE_BY_ID", "DELETE_ALL", "COUNT", "TRANSLATOR");
+
+    private final boolean webflux;
+
+    public RepositoryPlan(GenerationOptions options) {
+        this.webflux = options.isReactive();
+    }
+
+    /**
+     * The endpoint, with a business method calling the repository of its DTO where one matches.
+     * Call after the endpoint was added to the registry.
+     */
+    public CompiledEndpoint bind(CompiledEndpoint e, DtoRegistry dtos) {
+        String returnType = e.getReturnType();
+        boolean list = returnType.startsWith("List<") && returnType.endsWith(">");
+        DtoType type = dtos.get(list ? returnType.substring(5, returnType.length() - 1) : returnType);
+        Map<String, String> key = type != null ? key(type) : null;
+        if (key == null) {
+            return e;
+        }
+        Map<String, String> params = parameters(e);
+        if (params.containsKey("repositories")) {
+            // would hide the business service's field
+            return e;
+        }
+        String repository = "repositories." + accessor(type.getName()) + "()";
+        String keyName = key.get("name");
+        boolean keyParam = compatible(params.get(keyName), DtoRegistry.type(key));
+        String call = null;
+        String batchWrite = null;
+        switch (e.getHttpMethod()) {
+            case "GET":
+                if (list && params.isEmpty()) {
+                    call = repository + ".findAll()";
+                } else if (!list && keyParam) {
+                    call = repository + ".findById(" + keyName + ")";
+                }
+                break;
+            case "POST":
+            case "PUT":
+                if (!list && keyParam) {
+                    String write = e.getHttpMethod().equals("POST") ? "insert" : "update";
+                    call = repository + "." + write + "(" + row(type, params, "") + ")";
+                    batchWrite = e.isBatch() ? repository + "." + write + "All(rows)" : null;
+                }
+                break;
+            default:
+                break;
+        }
+        if (call == null) {
+            return e;
+        }
+        if (e.isReactive()) {
+            // JDBC blocks: run it on a worker thread, not the caller's
+            String mono = e.getServiceType().startsWith("Mono<") ? "Mono" : "reactor.core.publisher.Mono";
+            String schedulers = webflux ? "Schedulers" : "reactor.core.scheduler.Schedulers";
+            call = mono + ".fromCallable(() -> " + call + ").subscribeOn(" + schedulers + ".boundedElastic())";
+        }
+        return e.persisted(call, batchWrite != null ? row(type, params, "request.") : null, batchWrite);
+    }
+
+    /**
+     * The repositories of the DTOs, in the order of the DTOs.
+     *
+     * @throws IllegalArgumentException if a DTO clashes with a repository class, or two fields of a
+     *                                  DTO map to the same column
+     */
+    public static List<RepositoryType> repositories(List<DtoType> types) {
+        Set<String> names = new HashSet<>();
+        for (DtoType t : types) {
+            names.add(t.getName());
+        }
+        List<RepositoryType> repositories = new ArrayList<>();
+        for (DtoType t : types) {
+            Map<String, String> key = key(t);
+            if (key == null) {
+                continue;
+            }
+            if (names.contains(t.getName() + "Repository")) {
+                throw new IllegalArgumentException("DTO " + t.getName() + "Repository clashes with the repository of "
+                        + t.getName());
+            }
+            repositories.add(compile(t, key));
+        }
+        return repositories;
+    }
+
+    /* ---------- Code ---------- */
+
+    private static RepositoryType compile(DtoType t, Map<String, String> key) {
+        String name = t.getName();
+        String table = sqlName(snakeCase(name));
+        String keyName = key.get("name");
+        String keyType = DtoRegistry.type(key);
+        String keyColumn = sqlName(snakeCase(keyName));
+
+        Set<String> columns = new HashSet<>();
+        Set<String> constants = new HashSet<>(TEMPLATE_CONSTANTS);
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        StringBuilder createTable = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(table).append(" (\n");
+        StringBuilder bindInsert = new StringBuilder();
+        StringBuilder bindUpdate = new StringBuilder();
+        StringBuilder mapRow = new StringBuilder();
+        StringBuilder typeConstants = new StringBuilder();
+        StringBuilder testRow = new StringBuilder();
+        List<String> jsonFields = new ArrayList<>();
+        Set<String> jdkImports = new TreeSet<>(Set.of("java.sql.Connection", "java.sql.PreparedStatement",
+                "java.sql.ResultSet", "java.sql.SQLException", "java.util.ArrayList", "java.util.List",
+                "java.util.function.Consumer"));
+        boolean chars = false;
+        boolean characters = false;
+        int updateIndex = 0;
+        List<Map<String, String>> fields = t.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            Map<String, String> f = fields.get(i);
+            String field = f.get("name");
+            String type = DtoRegistry.type(f);
+            String column = sqlName(snakeCase(field));
+            if (!columns.add(column)) {
+                throw new IllegalArgumentException("DTO " + name + ": two fields map to column " + column);
+            }
+            String value = t.isRecord() ? "row." + field + "()" : "row." + field;
+            String columnType = COLUMN_TYPES.get(type);
+            String typeConstant = null;
+            if (columnType == null) {
+                columnType = JSON_COLUMN;
+                typeConstant = DtoRegistry.constantName(field) + "_TYPE";
+                while (!constants.add(typeConstant)) {
+                    typeConstant += "_";
+                }
+                typeConstants.append("    private static final TypeReference<").append(type).append("> ")
+                        .append(typeConstant).append(" = new TypeReference<").append(type).append(">() {};\n");
+                jsonFields.add(field);
+            }
+            chars |= type.equals("char");
+            characters |= type.equals("Character");
+
+            String separator = i == 0 ? "" : ", ";
+            columnList.append(separator).append(column);
+            placeholders.append(separator).append('?');
+            mapRow.append(fields.size() > 3 ? (i == 0 ? "" : ",") + "\n                " : separator)
+                    .append(read(type, i + 1, typeConstant));
+            testRow.append(separator).append(field.equals(keyName) ? COUNTER_KEYS.get(keyType)
+                    : DtoRegistry.defaultValue(type));
+            createTable.append(i == 0 ? "" : ",\n").append("    ").append(column).append(' ').append(columnType)
+                    .append(field.equals(keyName) ? " PRIMARY KEY" : "");
+            bindInsert.append("        ").append(write(type, i + 1, value, typeConstant)).append(";\n");
+            if (!field.equals(keyName)) {
+                assignments.append(assignments.length() == 0 ? "" : ", ").append(column).append(" = ?");
+                bindUpdate.append("        ").append(write(type, ++updateIndex, value, typeConstant)).append(";\n");
+            }
+            jdkImports.addAll(DtoRegistry.jdkImports(type));
+        }
+        String keyValue = t.isRecord() ? "row." + keyName + "()" : "row." + keyName;
+        if (assignments.length() == 0) {
+            // nothing but the key: a no-op update that still reports whether the row exists
+            assignments.append(keyColumn).append(" = ?");
+            bindUpdate.append("        ").append(write(keyType, ++updateIndex, keyValue, null)).append(";\n");
+        }
+        bindUpdate.append("        ").append(write(keyType, ++updateIndex, keyValue, null)).append(";\n");
+        createTable.append("\n);\n");
+        if (characters) {
+            jdkImports.add("java.util.Objects");
+        }
+
+        String statements = "    private static final String INSERT = \"" + javaString("INSERT INTO " + table + " ("
+                + columnList + ") VALUES (" + placeholders + ")") + "\";\n"
+                + "    private static final String UPDATE = \"" + javaString("UPDATE " + table + " SET " + assignments
+                + " WHERE " + keyColumn + " = ?") + "\";\n"
+                + "    private static final String SELECT_ALL = \"" + javaString("SELECT " + columnList + " FROM "
+                + table) + "\";\n"
+                + "    private static final String FIND_BY_ID = SELECT_ALL + \"" + javaString(" WHERE " + keyColumn
+                + " = ?") + "\";\n"
+                + "    private static final String DELETE_BY_ID = \"" + javaString("DELETE FROM " + table + " WHERE "
+                + keyColumn + " = ?") + "\";\n"
+                + "    private static final String DELETE_ALL = \"" + javaString("DELETE FROM " + table) + "\";\n"
+                + "    private static final String COUNT = \"" + javaString("SELECT COUNT(*) FROM " + table) + "\";\n"
+                + typeConstants;
+
+        StringBuilder imports = new StringBuilder();
+        for (String i : jdkImports) {
+            imports.append("import ").append(i).append(";\n");
+        }
+        imports.append("import javax.sql.DataSource;\n\n");
+        if (!jsonFields.isEmpty()) {
+            imports.append("import com.fasterxml.jackson.core.JsonProcessingException;\n")
+                    .append("import com.fasterxml.jackson.core.type.TypeReference;\n")
+                    .append("import com.fasterxml.jackson.databind.ObjectMapper;\n");
+        }
+        imports.append("import org.springframework.beans.factory.annotation.Autowired;\n")
+                .append("import org.springframework.beans.factory.annotation.Value;\n")
+                .append("import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;\n")
+                .append("import org.springframework.dao.DataAccessException;\n")
+                .append("import org.springframework.jdbc.UncategorizedSQLException;\n")
+                .append("import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;\n")
+                .append("import org.springframework.jdbc.support.SQLExceptionTranslator;\n")
+                .append("import org.springframework.stereotype.Repository;\n\n");
+
+        StringBuilder helpers = new StringBuilder();
+        if (!jsonFields.isEmpty()) {
+            helpers.append("\n    private String toJson(Object value) {\n")
+                    .append("        try {\n")
+                    .append("            return value == null ? null : json.writeValueAsString(value);\n")
+                    .append("        } catch (JsonProcessingException e) {\n")
+                    .append("            throw new IllegalArgumentException(\"Cannot store \" + value.getClass().getSimpleName() + \" as JSON\", e);\n")
+                    .append("        }\n")
+                    .append("    }\n")
+                    .append("\n    private <T> T fromJson(String value, TypeReference<T> type) {\n")
+                    .append("        try {\n")
+                    .append("            return value == null ? null : json.readValue(value, type);\n")
+                    .append("        } catch (JsonProcessingException e) {\n")
+                    .append("            throw new IllegalStateException(\"Stored JSON does not match \" + type.getType() + \": \" + value, e);\n")
+                    .append("        }\n")
+                    .append("    }\n");
+        }
+        if (chars) {
+            helpers.append("\n    private static char toChar(String value) {\n")
+                    .append("        return value == null || value.isEmpty() ? '\\0' : value.charAt(0);\n")
+                    .append("    }\n");
+        }
+        if (characters) {
+            helpers.append("\n    private static Character toCharacter(String value) {\n")
+                    .append("        return value == null || value.isEmpty() ? null : value.charAt(0);\n")
+                    .append("    }\n");
+        }
+
+        String jsonMapper = jsonFields.isEmpty() ? "" : "\n    @Autowired\n    private ObjectMapper json;\n";
+        String storageNote = jsonFields.isEmpty() ? "" : "\n * Stored as JSON text: " + String.join(", ", jsonFields) + ".";
+        return new RepositoryType(name, accessor(name), table, keyName, keyType, imports.toString(), statements,
+                jsonMapper, storageNote, write(keyType, 1, "key", null), bindInsert.toString(), bindUpdate.toString(),
+                mapRow.toString(), helpers.toString(), createTable.toString(),
+                COUNTER_KEYS.containsKey(keyType) ? "new " + name + "(" + testRow + ")" : null);
+    }
+
+    /**
+     * The field named id, else the first field of a column type; null when the DTO has no field
+     * of a column type or is not declared.
+     */
+    private static Map<String, String> key(DtoType type) {
+        Map<String, String> key = null;
+        for (Map<String, String> f : type.getFields()) {
+            if (COLUMN_TYPES.containsKey(DtoRegistry.type(f))) {
+                if ("id".equals(f.get("name"))) {
+                    return f;
+                }
+                if (key == null) {
+                    key = f;
+                }
+            }
+        }
+        return key;
+    }
+
+    /** Parameter name -> type, with the defaults SpecCompiler applies */
+    private static Map<String, String> parameters(CompiledEndpoint e) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (e.getSpec().getParameters() != null) {
+            for (Map<String, String> p : e.getSpec().getParameters()) {
+                params.put(String.valueOf(p.getOrDefault("name", "param")), String.valueOf(p.getOrDefault("type", "String")));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * A new DTO from the parameters that match a field by name and type; other fields get their
+     * default value.
+     */
+    private static String row(DtoType type, Map<String, String> params, String prefix) {
+        StringBuilder row = new StringBuilder("new ").append(type.getName()).append('(');
+        boolean first = true;
+        for (Map<String, String> f : type.getFields()) {
+            String field = f.get("name");
+            String fieldType = DtoRegistry.type(f);
+            if (!first) {
+                row.append(", ");
+            }
+            row.append(compatible(params.get(field), fieldType) ? prefix + field : DtoRegistry.defaultValue(fieldType));
+            first = false;
+        }
+        return row.append(')').toString();
+    }
+
+    private static boolean compatible(String paramType, String fieldType) {
+        return paramType != null && BOXES.getOrDefault(paramType, paramType).equals(BOXES.getOrDefault(fieldType, fieldType));
+    }
+
+    /** Statement binding the value to a placeholder of a PreparedStatement named ps */
+    private static String write(String type, int index, String value, String typeConstant) {
+        if (typeConstant != null) {
+            return "ps.setString(" + index + ", toJson(" + value + "))";
+        }
+        switch (type) {
+            case "String": return "ps.setString(" + index + ", " + value + ")";
+            case "char": return "ps.setString(" + index + ", String.valueOf(" + value + "))";
+            case "Character": return "ps.setString(" + index + ", Objects.toString(" + value + ", null))";
+            default:
+                return BOXES.containsKey(type)
+                        ? "ps.set" + capitalize(type) + "(" + index + ", " + value + ")"
+                        : "ps.setObject(" + index + ", " + value + ")";
+        }
+    }
+
+    /** Expression reading a column of the current row of a ResultSet named rs */
+    private static String read(String type, int index, String typeConstant) {
+        if (typeConstant != null) {
+            return "fromJson(rs.getString(" + index + "), " + typeConstant + ")";
+        }
+        switch (type) {
+            case "String": return "rs.getString(" + index + ")";
+            case "char": return "toChar(rs.getString(" + index + "))";
+            case "Character": return "toCharacter(rs.getString(" + index + "))";
+            default:
+                return BOXES.containsKey(type)
+                        ? "rs.get" + capitalize(type) + "(" + index + ")"
+                        : "rs.getObject(" + index + ", " + type + ".class)";
+        }
+    }
+
+    /** UserDto becomes userDtoRepository */
+    private static String accessor(String dto) {
+        return Character.toLowerCase(dto.charAt(0)) + dto.substring(1) + "Repository";
+    }
+
+    /**
+     * userIds becomes user_ids, UserDto becomes user_dto.
+     */
+    static String snakeCase(String name) {
+        StringBuilder snake = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0 && (Character.isLowerCase(name.charAt(i - 1)) || Character.isDigit(name.charAt(i - 1)))) {
+                    snake.append('_');
+                }
+                snake.append(Character.toLowerCase(c));
+            } else {
+                snake.append(c);
+            }
+        }
+        return snake.toString();
+    }
+
+    /** The name as written in SQL: quoted when it is a keyword or not a plain identifier */
+    private static String sqlName(String name) {
+        return RESERVED.contains(name) || !PLAIN_NAME.matcher(name).matches() ? "\"" + name + "\"" : name;
+    }
+
+    private static String javaString(String sql) {
+        return sql.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String capitalize(String type) {
+        return type.substring(0, 1).toUpperCase(Locale.ROOT) + type.substring(1);
+    }
+}
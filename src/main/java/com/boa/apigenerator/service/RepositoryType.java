@@ -0,0 +1,98 @@
+package com.boa.apigenerator.service;
+
+/**
+ * The JDBC repository of one DTO, resolved by {@link RepositoryPlan}: every piece of code the
+ * repository templates and schema.sql need is precomputed, so rendering only copies strings.
+ * Never modified once built.
+ */
+public final class RepositoryType {
+
+    private final String dtoName;
+    private final String accessor;
+    private final String table;
+    private final String keyField;
+    private final String keyType;
+    private final String imports;
+    private final String statements;
+    private final String jsonMapper;
+    private final String storageNote;
+    private final String bindKey;
+    private final String bindInsert;
+    private final String bindUpdate;
+    private final String mapRow;
+    private final String helpers;
+    private final String createTable;
+    private final String testRow;
+
+    RepositoryType(String dtoName, String accessor, String table, String keyField, String keyType, String imports,
+                   String statements, String jsonMapper, String storageNote, String bindKey, String bindInsert,
+                   String bindUpdate, String mapRow, String helpers, String createTable, String testRow) {
+        this.dtoName = dtoName;
+        this.accessor = accessor;
+        this.table = table;
+        this.keyField = keyField;
+        this.keyType = keyType;
+        this.imports = imports;
+        this.statements = statements;
+        this.jsonMapper = jsonMapper;
+        this.storageNote = storageNote;
+        this.bindKey = bindKey;
+        this.bindInsert = bindInsert;
+        this.bindUpdate = bindUpdate;
+        this.mapRow = mapRow;
+        this.helpers = helpers;
+        this.createTable = createTable;
+        this.testRow = testRow;
+    }
+
+    /** e.g. UserDto; the repository class is UserDtoRepository */
+    public String getDtoName() { return dtoName; }
+
+    /** Field and accessor of the repository in the Repositories class, e.g. userDtoRepository */
+    public String getAccessor() { return accessor; }
+
+    /** The table as written in SQL, e.g. user_dto */
+    public String getTable() { return table; }
+
+    /** The DTO field that is the primary key, e.g. id */
+    public String getKeyField() { return keyField; }
+
+    /** Java type of the key, e.g. Long */
+    public String getKeyType() { return keyType; }
+
+    /** Import lines of the repository class, ending with a blank line */
+    public String getImports() { return imports; }
+
+    /** The SQL constants and JSON type references, one declaration per line */
+    public String getStatements() { return statements; }
+
+    /** Declaration of the ObjectMapper field, empty when no column holds JSON */
+    public String getJsonMapper() { return jsonMapper; }
+
+    /** Doc comment line naming the fields stored as JSON, empty when there are none */
+    public String getStorageNote() { return storageNote; }
+
+    /** Statement binding the key parameter named key to the first placeholder */
+    public String getBindKey() { return bindKey; }
+
+    /** Statements binding a row named row to the placeholders of INSERT */
+    public String getBindInsert() { return bindInsert; }
+
+    /** Statements binding a row named row to the placeholders of UPDATE */
+    public String getBindUpdate() { return bindUpdate; }
+
+    /** Constructor arguments reading the current row of a ResultSet named rs */
+    public String getMapRow() { return mapRow; }
+
+    /** Conversion methods the columns need (JSON, char), empty when there are none */
+    public String getHelpers() { return helpers; }
+
+    /** The CREATE TABLE statement for schema.sql */
+    public String getCreateTable() { return createTable; }
+
+    /**
+     * A row whose key is built from an int named i and whose other fields have default values,
+     * or null when the key cannot be built from a counter (see RepositoryThroughputTest).
+     */
+    public String getTestRow() { return testRow; }
+}
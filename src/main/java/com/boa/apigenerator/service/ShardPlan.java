@@ -0,0 +1,70 @@
+package com.boa.apigenerator.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.boa.apigenerator.model.GenerationOptions;
+
+/**
+ * Assigns endpoints to controller / business service class pairs according to the
+ * {@link GenerationOptions}.
+ *
+ * Without sharding every endpoint goes to GeneratedController and GeneratedBusinessService. By
+ * group, endpoints go to Generated<Group>Controller and Generated<Group>BusinessService (specs
+ * without a group keep the default names). With a maximum per class, a shard that is full
+ * continues in a numbered class, e.g. GeneratedUsersController2.
+ *
+ * Assignment only depends on the endpoints seen so far, so it works on streamed input. A plan is
+ * not thread-safe; use one per generation.
+ */
+public final class ShardPlan {
+
+    /**
+     * The class pair of one shard.
+     */
+    public static final class Shard {
+        private final String controllerClass;
+        private final String serviceClass;
+
+        Shard(String controllerClass, String serviceClass) {
+            this.controllerClass = controllerClass;
+            this.serviceClass = serviceClass;
+        }
+
+        public String getControllerClass() { return controllerClass; }
+        public String getServiceClass() { return serviceClass; }
+
+        public String getControllerPath() {
+            return ProjectLayout.SRC_MAIN + "/" + controllerClass + ".java";
+        }
+
+        public String getServicePath() {
+            return ProjectLayout.SRC_MAIN + "/" + serviceClass + ".java";
+        }
+    }
+
+    public static final Shard DEFAULT = new Shard("GeneratedController", "GeneratedBusinessService");
+
+    private final GenerationOptions options;
+
+    /** group -> endpoints assigned so far */
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<String, Shard> shards = new HashMap<>();
+
+    public ShardPlan(GenerationOptions options) {
+        this.options = options;
+    }
+
+    public Shard assign(CompiledEndpoint e) {
+        if (!options.isSharded()) {
+            return DEFAULT;
+        }
+        String group = options.isShardByGroup() ? e.getGroup() : "";
+        int seen = counts.merge(group, 1, Integer::sum) - 1;
+        int part = options.getMaxEndpointsPerClass() > 0 ? seen / options.getMaxEndpointsPerClass() + 1 : 1;
+        String suffix = part > 1 ? Integer.toString(part) : "";
+        return shards.computeIfAbsent(group + "#" + part, k -> group.isEmpty() && part == 1
+                ? DEFAULT
+                : new Shard("Generated" + group + "Controller" + suffix, "Generated" + group + "BusinessService" + suffix));
+    }
+}
@@ -0,0 +1,295 @@
+package com.boa.apigenerator.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.CacheSpec;
+
+/**
+ * Compiles API specs into {@link CompiledEndpoint}s, once per generation, so the templates only
+ * copy precomputed strings: parameters are walked a single time per spec to build all three
+ * signatures, and names are cleaned without regular expressions.
+ *
+ * Type and parameter names repeat across endpoints, so they are interned per compiler; the
+ * interner is bounded so streaming a very large catalog does not grow it without limit.
+ *
+ * Whether an endpoint is reactive comes from its spec, defaulting to the project flavor. In a
+ * WebFlux project Mono is imported by the class headers; in a Spring MVC project reactive
+ * endpoints name it fully qualified, as the headers are written before the endpoints are known.
+ *
+ * A compiler instance is not thread-safe; use one per generation.
+ */
+public final class SpecCompiler {
+
+    private static final int MAX_INTERNED = 4096;
+
+    private final Map<String, String> interned = new HashMap<>();
+    private final boolean webflux;
+    private int compiled;
+
+    /**
+     * A compiler for a Spring MVC project.
+     */
+    public SpecCompiler() {
+        this(false);
+    }
+
+    /**
+     * @param webflux whether the project is a WebFlux service
+     */
+    public SpecCompiler(boolean webflux) {
+        this.webflux = webflux;
+    }
+
+    /**
+     * Compiles all specs for a Spring MVC project. Returns an unmodifiable list in the same order.
+     */
+    public static List<CompiledEndpoint> compile(List<ApiSpec> specs) {
+        return compile(specs, false);
+    }
+
+    /**
+     * Compiles all specs. Returns an unmodifiable list in the same order.
+     */
+    public static List<CompiledEndpoint> compile(List<ApiSpec> specs, boolean webflux) {
+        SpecCompiler compiler = new SpecCompiler(webflux);
+        List<CompiledEndpoint> endpoints = new ArrayList<>(specs.size());
+        for (ApiSpec s : specs) {
+            endpoints.add(compiler.compile(s));
+        }
+        return Collections.unmodifiableList(endpoints);
+    }
+
+    /**
+     * Compiles the next spec of a run.
+     *
+     * @throws IllegalArgumentException if the spec or one of its parameters is missing, it asks for
+     *                                  a cache the endpoint cannot have, or an SLO bucket is not
+     *                                  positive
+     */
+    public CompiledEndpoint compile(ApiSpec s) {
+        int index = compiled++;
+        if (s == null) {
+            throw new IllegalArgumentException("API spec #" + index + " is null");
+        }
+        String httpMethod = httpMethod(s.getMethod());
+        String apiName = apiName(s.getApiName());
+        String rawReturnType = s.getReturnType();
+        String returnType = rawReturnType == null ? "String" : intern(rawReturnType);
+
+        StringBuilder signature = new StringBuilder().append('(');
+        StringBuilder callArgs = new StringBuilder().append('(');
+        StringBuilder plainSignature = new StringBuilder().append('(');
+        StringBuilder cacheKey = new StringBuilder();
+        StringBuilder batchFields = new StringBuilder();
+        StringBuilder batchArgs = new StringBuilder().append('(');
+        StringBuilder loadParams = new StringBuilder();
+        if (s.getParameters() != null) {
+            boolean first = true;
+            for (Map<String, String> p : s.getParameters()) {
+                if (p == null) {
+                    throw new IllegalArgumentException("API spec #" + index + " (" + apiName + ") has a null parameter");
+                }
+                String name = intern(String.valueOf(p.getOrDefault("name", "param")));
+                String type = intern(String.valueOf(p.getOrDefault("type", "String")));
+                if (!first) {
+                    signature.append(", ");
+                    callArgs.append(", ");
+                    plainSignature.append(", ");
+                    cacheKey.append(", ");
+                    batchArgs.append(", ");
+                }
+                signature.append("@RequestParam(\"").append(name).append("\") ").append(type).append(' ').append(name);
+                callArgs.append(name);
+                plainSignature.append(type).append(' ').append(name);
+                cacheKey.append(name);
+                batchFields.append("        public ").append(type).append(' ').append(name).append(";\n");
+                batchArgs.append("request.").append(name);
+                loadParams.append('\t').append(name).append('\t').append(type);
+                first = false;
+            }
+        }
+        signature.append(')');
+        callArgs.append(')');
+        plainSignature.append(')');
+        batchArgs.append(')');
+
+        boolean modelClass = DtoRegistry.isDto(returnType);
+        String returnValue;
+        if (returnType.equals("String")) {
+            returnValue = "\"OK: " + apiName + "\"";
+        } else if (modelClass) {
+            returnValue = "new " + returnType + "()";
+        } else {
+            // JDK types such as Long or List<UserDto> have no useful constructor without arguments
+            returnValue = "null";
+        }
+        if (s.getReturnFields() != null) {
+            Set<String> fieldNames = new HashSet<>();
+            for (Map<String, String> f : s.getReturnFields()) {
+                if (f == null || f.get("name") == null) {
+                    throw new IllegalArgumentException("API spec #" + index + " (" + apiName + ") has a return field without a name");
+                }
+                if (!fieldNames.add(f.get("name"))) {
+                    throw new IllegalArgumentException("API spec #" + index + " (" + apiName + ") has two return fields named "
+                            + f.get("name"));
+                }
+            }
+        }
+
+        // a cached response is a plain value, so cached endpoints default to a blocking business method
+        boolean reactive = s.getReactive() != null ? s.getReactive() : webflux && s.getCache() == null;
+        boolean offloaded = webflux && !reactive;
+        String responseType = returnType;
+        String serviceType = returnType;
+        if (reactive || offloaded) {
+            String mono = webflux ? "Mono" : "reactor.core.publisher.Mono";
+            responseType = intern(mono + "<" + returnType + ">");
+            if (reactive) {
+                serviceType = responseType;
+                returnValue = returnValue.equals("null") ? mono + ".empty()" : mono + ".just(" + returnValue + ")";
+            }
+        }
+
+        CacheSpec cache = s.getCache();
+        if (cache != null) {
+            if (!httpMethod.equals("GET")) {
+                throw new IllegalArgumentException("API spec #" + index + " (" + apiName + "): only GET endpoints can be cached");
+            }
+            if (reactive) {
+                throw new IllegalArgumentException("API spec #" + index + " (" + apiName
+                        + "): a cached endpoint must be blocking (\"reactive\": false)");
+            }
+            if (cache.getTtlSeconds() <= 0 || cache.getMaxSize() <= 0) {
+                throw new IllegalArgumentException("API spec #" + index + " (" + apiName
+                        + "): cache ttlSeconds and maxSize must be positive");
+            }
+        }
+
+        boolean batch = Boolean.TRUE.equals(s.getBatch());
+        String batchResponseType = null;
+        if (batch) {
+            batchResponseType = "List<BatchResult<" + returnType + ">>";
+            if (webflux) {
+                batchResponseType = "Mono<" + batchResponseType + ">";
+            }
+        }
+
+        StringBuilder sloMillis = new StringBuilder();
+        if (s.getSloMillis() != null) {
+            for (Long bucket : s.getSloMillis()) {
+                if (bucket == null || bucket <= 0) {
+                    throw new IllegalArgumentException("API spec #" + index + " (" + apiName
+                            + "): sloMillis must be positive");
+                }
+                sloMillis.append(", ").append(bucket);
+            }
+        }
+
+        return new CompiledEndpoint(s, httpMethod, apiName, returnType, mapping(httpMethod, apiName),
+                signature.toString(), callArgs.toString(), plainSignature.toString(), returnValue, modelClass,
+                intern(groupName(s.getGroup())), reactive, offloaded, responseType, serviceType,
+                cache != null, cache != null ? TimeUnit.SECONDS.toMillis(cache.getTtlSeconds()) : 0,
+                cache != null ? cache.getMaxSize() : 0,
+                cacheKey.length() == 0 ? "List.of()" : "Arrays.asList(" + cacheKey + ")",
+                batch, batch ? groupName(apiName) : null, batch ? batchFields.toString() : null,
+                batch ? apiName + batchArgs + (reactive ? ".block()" : "") : null, batchResponseType, batch && webflux,
+                sloMillis.toString(), loadParams.toString());
+    }
+
+    /* ---------- Helpers ---------- */
+
+    /**
+     * Anything other than POST, PUT or DELETE is served as GET.
+     */
+    private static String httpMethod(String raw) {
+        if (raw == null) {
+            return "GET";
+        }
+        switch (raw.toUpperCase(Locale.ROOT)) {
+            case "POST": return "POST";
+            case "PUT": return "PUT";
+            case "DELETE": return "DELETE";
+            default: return "GET";
+        }
+    }
+
+    private static String mapping(String httpMethod, String apiName) {
+        switch (httpMethod) {
+            case "POST": return "@PostMapping(\"/" + apiName + "\")";
+            case "PUT": return "@PutMapping(\"/" + apiName + "\")";
+            case "DELETE": return "@DeleteMapping(\"/" + apiName + "\")";
+            default: return "@GetMapping(\"/" + apiName + "\")";
+        }
+    }
+
+    /**
+     * The api name with all whitespace removed (the characters of the regex class \s), or
+     * "unnamedApi" when missing.
+     */
+    static String apiName(String v) {
+        if (v == null || v.isEmpty()) {
+            return "unnamedApi";
+        }
+        int i = 0;
+        while (i < v.length() && !isWhitespace(v.charAt(i))) {
+            i++;
+        }
+        if (i == v.length()) {
+            return v;
+        }
+        StringBuilder cleaned = new StringBuilder(v.length()).append(v, 0, i);
+        for (; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (!isWhitespace(c)) {
+                cleaned.append(c);
+            }
+        }
+        return cleaned.toString();
+    }
+
+    /**
+     * The group as a Java identifier part: letters and digits kept, the letter after any other
+     * character upper-cased (e.g. "user-accounts" becomes UserAccounts).
+     */
+    static String groupName(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        StringBuilder name = new StringBuilder(raw.length());
+        boolean upper = true;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        return name.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private String intern(String value) {
+        String existing = interned.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (interned.size() < MAX_INTERNED) {
+            interned.put(value, value);
+        }
+        return value;
+    }
+}
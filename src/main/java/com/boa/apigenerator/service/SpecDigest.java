@@ -0,0 +1,114 @@
+package com.boa.apigenerator.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Canonical hashing of specs: a spec is written with a fixed field order and the defaults the
+ * templates apply, so specs that generate the same code hash the same.
+ */
+public final class SpecDigest {
+
+    private static final JsonFactory json = new JsonFactory();
+
+    private SpecDigest() {}
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Generator writing into the digest; close it (or flush it) before reading the digest.
+     */
+    public static JsonGenerator generator(MessageDigest digest) throws IOException {
+        return json.createGenerator(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+    }
+
+    public static void writeNormalized(ApiSpec s, JsonGenerator out) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("apiName", SpecCompiler.apiName(s.getApiName()));
+        out.writeStringField("method", s.getMethod() == null ? "GET" : s.getMethod().toUpperCase());
+        out.writeStringField("returnType", s.getReturnType() == null ? "String" : s.getReturnType());
+        out.writeArrayFieldStart("parameters");
+        if (s.getParameters() != null) {
+            for (Map<String, String> p : s.getParameters()) {
+                out.writeStartObject();
+                out.writeStringField("name", String.valueOf(p.getOrDefault("name", "param")));
+                out.writeStringField("type", String.valueOf(p.getOrDefault("type", "String")));
+                out.writeEndObject();
+            }
+        }
+        out.writeEndArray();
+        if (s.getReturnFields() != null) {
+            out.writeArrayFieldStart("returnFields");
+            for (Map<String, String> f : s.getReturnFields()) {
+                out.writeStartObject();
+                if (f != null) {
+                    out.writeStringField("name", String.valueOf(f.get("name")));
+                    out.writeStringField("type", String.valueOf(f.getOrDefault("type", "String")));
+                }
+                out.writeEndObject();
+            }
+            out.writeEndArray();
+        }
+        if (s.getGroup() != null) {
+            // only written when set, so hashes of specs without a group did not change
+            out.writeStringField("group", s.getGroup());
+        }
+        if (s.getReactive() != null) {
+            out.writeBooleanField("reactive", s.getReactive());
+        }
+        if (s.getBatch() != null) {
+            out.writeBooleanField("batch", s.getBatch());
+        }
+        if (s.getCache() != null) {
+            out.writeObjectFieldStart("cache");
+            out.writeNumberField("ttlSeconds", s.getCache().getTtlSeconds());
+            out.writeNumberField("maxSize", s.getCache().getMaxSize());
+            out.writeEndObject();
+        }
+        if (s.getSloMillis() != null) {
+            out.writeArrayFieldStart("sloMillis");
+            for (Long bucket : s.getSloMillis()) {
+                if (bucket == null) {
+                    out.writeNull();
+                } else {
+                    out.writeNumber(bucket);
+                }
+            }
+            out.writeEndArray();
+        }
+        out.writeEndObject();
+    }
+
+    /**
+     * Hex SHA-256 of one normalized spec.
+     */
+    public static String hash(ApiSpec s) throws IOException {
+        MessageDigest digest = sha256();
+        try (JsonGenerator out = generator(digest)) {
+            writeNormalized(s, out);
+        }
+        return hex(digest.digest());
+    }
+
+    public static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.boa.apigenerator.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.model.ApiSpec;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Watches a directory of spec files and regenerates the project of a file whenever it changes.
+ *
+ * Every *.json file in the directory is its own project, named after the file (orders.json
+ * becomes orders_1). The first time a file is seen its project is generated; later changes
+ * update that project in place through {@link ApiProjectGeneratorService#updateProject}, so only
+ * the files whose content changed are rewritten.
+ *
+ * Editors usually write a file several times per save, so changes are debounced: a file is
+ * regenerated once it has been quiet for generator.watch.debounce-millis. A save that leaves the
+ * file's specs unchanged is skipped. Deleting a spec file forgets it but keeps its project.
+ *
+ * Which project belongs to which file is tracked in memory. A file without a project yet, e.g.
+ * after a restart, takes over the latest project generated for its name (see
+ * {@link ApiProjectGeneratorService#latestProject}) and updates it, so restarting the watcher
+ * does not start a new <base>_N+1 project per file.
+ */
+@Service
+public class SpecWatcher {
+
+    @Value("${generator.watch.debounce-millis:200}")
+    private long debounceMillis = 200;
+
+    @Autowired
+    private ApiProjectGeneratorService generatorService;
+
+    @Autowired
+    private GenerationCache cache;
+
+    /** spec file -> project folder and the digest of the specs it was last generated from, if known */
+    private final Map<Path, Project> projects = new HashMap<>();
+
+    private volatile WatchService watchService;
+
+    private static final class Project {
+        final String dir;
+        final String digest;
+
+        Project(String dir, String digest) {
+            this.dir = dir;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Generates the projects of all spec files in the directory, then watches it until the
+     * thread is interrupted or {@link #stop()} is called.
+     */
+    public void watch(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new IllegalArgumentException("Not a directory: " + dir);
+        }
+        WatchService service = FileSystems.getDefault().newWatchService();
+        watchService = service;
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        // file -> time at which it has been quiet long enough to regenerate; sorted for stable output
+        Map<Path, Long> pending = new TreeMap<>();
+        scan(dir, pending, System.nanoTime());
+        System.out.println("Watching " + dir.toAbsolutePath() + " for spec changes");
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                regenerateDue(pending);
+                WatchKey key = pending.isEmpty()
+                        ? service.take()
+                        : service.poll(Math.max(0, nextDue(pending) - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (key == null) {
+                    continue;
+                }
+                long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // events were lost: look at every file again
+                        scan(dir, pending, due);
+                        continue;
+                    }
+                    Path file = dir.resolve((Path) event.context());
+                    // deletions are debounced too: editors that save by replacing the file delete
+                    // and recreate it, which must not lose the project
+                    if (isSpecFile(file)) {
+                        pending.put(file, due);
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("Watched directory is no longer accessible: " + dir);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        } finally {
+            service.close();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    /**
+     * Generates or updates the project of one spec file. Returns what was done.
+     */
+    String regenerate(Path file) throws Exception {
+        List<ApiSpec> specs = InputSpecParser.parseFromFile(file.toFile());
+        String digest = cache.key(specs, "");
+        Project project = projects.get(file);
+        if (project != null && project.digest.equals(digest)) {
+            return "unchanged";
+        }
+        String projectDir = project != null ? project.dir : null;
+        if (projectDir == null || !new File(projectDir).isDirectory()) {
+            File latest = generatorService.latestProject(baseName(file));
+            projectDir = latest != null ? latest.getPath() : null;
+        }
+        String result;
+        if (projectDir != null) {
+            result = generatorService.updateProject(specs, projectDir);
+        } else {
+            File generated = generatorService.generateProject(specs, baseName(file), generatorService.defaultOptions());
+            projectDir = generated.getPath();
+            result = "Generated project at: " + projectDir;
+        }
+        projects.put(file, new Project(projectDir, digest));
+        return result;
+    }
+
+    private void regenerateDue(Map<Path, Long> pending) {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> e = it.next();
+            if (e.getValue() - now > 0) {
+                continue;
+            }
+            it.remove();
+            Path file = e.getKey();
+            if (!Files.isRegularFile(file)) {
+                if (projects.remove(file) != null) {
+                    System.out.println(file.getFileName() + ": removed, project kept");
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                String result = regenerate(file);
+                System.out.println(file.getFileName() + ": " + result + " ("
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms)");
+            } catch (Exception ex) {
+                // keep the last good project; the next save tries again
+                System.err.println(file.getFileName() + ": failed: " + ex);
+            }
+        }
+    }
+
+    private static long nextDue(Map<Path, Long> pending) {
+        long next = Long.MAX_VALUE;
+        for (long due : pending.values()) {
+            if (next == Long.MAX_VALUE || due - next < 0) {
+                next = due;
+            }
+        }
+        return next;
+    }
+
+    private static void scan(Path dir, Map<Path, Long> pending, long due) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                pending.put(file, due);
+            }
+        }
+    }
+
+    private static boolean isSpecFile(Path file) {
+        return file.getFileName().toString().endsWith(".json");
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - ".json".length());
+    }
+}
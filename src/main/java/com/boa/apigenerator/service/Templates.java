@@ -1,189 +1,1102 @@
 package com.boa.apigenerator.service;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
 
 /**
- * Template helper producing strings for files.
+ * Templates for the files of a generated project.
  * Keep templates simple and human-readable. You may extend templates to produce more elaborate code.
+ *
+ * Templates are compiled once when the class is loaded (see {@link CompiledTemplate}) and the
+ * write* methods render them straight into a Writer. Short templates are inline; whole classes,
+ * scripts and the pom are .tmpl resources under templates/ on the classpath, and this class wires
+ * their slots. Per-endpoint templates take
+ * {@link CompiledEndpoint}s, so rendering only copies strings resolved once by
+ * {@link SpecCompiler}. The generated* methods are convenience wrappers that return the same
+ * output as a String.
+ *
+ * Projects come in two flavors: Spring MVC (the default) and WebFlux on Netty. They differ in the
+ * pom's starter, the class headers' imports and, per endpoint, whether Mono is returned (see
+ * {@link CompiledEndpoint#isReactive()} and {@link CompiledEndpoint#isOffloaded()}).
+ *
+ * GET endpoints with a cache spec answer repeated requests from a bounded in-memory
+ * ResponseCache, which the project then includes together with a /api/cache-stats endpoint.
+ *
+ * Endpoints with the batch flag also get POST /{apiName}/batch, backed by a list method in the
+ * business service; the project then includes BatchRequests, BatchResult and BatchExecutor.
+ *
+ * With the fast-startup option the pom also runs Spring AOT and builds a class data sharing
+ * archive, the application starts lazily, and the project includes measure-startup.sh.
+ *
+ * With the persistence option the project includes schema.sql, a JDBC repository per DTO, the
+ * Repositories holder the business services call them through, and RepositoryThroughputTest;
+ * the pom adds JDBC, H2 and the test starter (see {@link RepositoryPlan}).
+ *
+ * With the endpointMetrics option every controller method and the business call it makes are
+ * timed by EndpointMetrics fields declared next to it, tagged with the api name and HTTP method;
+ * the pom adds Actuator and the Prometheus registry.
+ *
+ * With the loadTest option the project includes load-test/LoadTest.java, a load driver that reads
+ * the endpoints and their parameter types from load-test/endpoints.tsv.
  */
 public class Templates {
 
+    /**
+     * Bumped whenever the generated output changes for the same input.
+     */
+    public static final String TEMPLATE_VERSION = "5";
+
+    /* ---------- Template sources ---------- */
+
+    private static final String POM_SOURCE = CompiledTemplate.source("pom.xml.tmpl");
+
+    private static final String DEFAULT_PLUGINS = CompiledTemplate.source("pom-default-plugins.xml.tmpl");
+
+    /*
+     * Fast startup: Spring AOT generates the bean definitions at build time; the plain jar keeps
+     * its dependencies in target/lib (class data sharing only archives classes loaded from
+     * ordinary jars) and a training run that exits once the context is refreshed dumps the loaded
+     * classes into target/application.jsa. The executable jar gets the "exec" classifier.
+     */
+    private static final String FAST_STARTUP_PLUGINS = CompiledTemplate.source(
+            "pom-fast-startup-plugins.xml.tmpl");
+
+    private static final String WEB_STARTER = dependency("org.springframework.boot", "spring-boot-starter-web");
+    private static final String REACTOR = dependency("io.projectreactor", "reactor-core");
+    private static final String WEBFLUX_STARTER = dependency("org.springframework.boot", "spring-boot-starter-webflux");
+
+
+    /* With the persistence option: JDBC with the Hikari pool, the embedded H2 database and the test starter */
+    private static final String PERSISTENCE_DEPENDENCIES = dependency("org.springframework.boot", "spring-boot-starter-jdbc")
+            + dependency("com.h2database", "h2", "runtime")
+            + dependency("org.springframework.boot", "spring-boot-starter-test", "test");
+
+    /* With the endpointMetrics option: Actuator and the Prometheus registry for EndpointMetrics */
+    private static final String METRICS_DEPENDENCIES = dependency("org.springframework.boot", "spring-boot-starter-actuator")
+            + dependency("io.micrometer", "micrometer-registry-prometheus");
+
+    /**
+     * Starters by flavor: Spring MVC, Spring MVC with some reactive endpoints (which MVC serves
+     * asynchronously) and WebFlux on Netty.
+     */
+    private static final String[] STARTERS = {WEB_STARTER, WEB_STARTER + REACTOR, WEBFLUX_STARTER};
+
+    /** Every combination of starters, fast startup, persistence and endpoint metrics, see writeServicePom */
+    private static final List<CompiledTemplate<Void>> SERVICE_POMS = new ArrayList<>();
+
+    static {
+        for (String starters : STARTERS) {
+            for (boolean fastStartup : new boolean[]{false, true}) {
+                for (String persistence : new String[]{"", PERSISTENCE_DEPENDENCIES}) {
+                    SERVICE_POMS.add(pom(starters + persistence, fastStartup));
+                    SERVICE_POMS.add(pom(starters + persistence + METRICS_DEPENDENCIES, fastStartup));
+                }
+            }
+        }
+    }
+
+    private static final CompiledTemplate<Void> APPLICATION_CLASS = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.boot.SpringApplication;
+            import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+            @SpringBootApplication
+            public class GeneratedServiceApplication {
+                public static void main(String[] args) {
+                    SpringApplication.run(GeneratedServiceApplication.class, args);
+                }
+            }
+            """);
+
+    /* No CGLIB proxies for the @Configuration class: fewer classes generated and loaded at startup */
+    private static final CompiledTemplate<Void> FAST_APPLICATION_CLASS = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.boot.SpringApplication;
+            import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+            @SpringBootApplication(proxyBeanMethods = false)
+            public class GeneratedServiceApplication {
+                public static void main(String[] args) {
+                    SpringApplication.run(GeneratedServiceApplication.class, args);
+                }
+            }
+            """);
+
+    private static final CompiledTemplate<Void> APPLICATION_PROPERTIES = CompiledTemplate.compile("""
+            server.port=0
+            """);
+
+    private static final CompiledTemplate<Void> FAST_APPLICATION_PROPERTIES = CompiledTemplate.compile("""
+            server.port=0
+            # Create beans when first used rather than all at startup
+            spring.main.lazy-initialization=true
+            spring.main.banner-mode=off
+            """);
+
+    /* Appended to the application properties with the persistence option */
+    private static final CompiledTemplate<Void> PERSISTENCE_PROPERTIES = CompiledTemplate.compile("""
+            # Embedded H2 database, created from schema.sql before the repositories are used. For another
+            # database set the URL, username and password, and create the tables from schema.sql
+            spring.datasource.url=jdbc:h2:mem:generated;DB_CLOSE_DELAY=-1
+            spring.datasource.hikari.maximum-pool-size=10
+            # Rows per JDBC batch of insertAll and updateAll, and per round trip of findAll and forEach
+            repository.batch-size=500
+            repository.fetch-size=500
+            """);
+
+    /* Appended to the application properties with the endpointMetrics option */
+    private static final CompiledTemplate<Void> METRICS_PROPERTIES = CompiledTemplate.compile("""
+            # Endpoint latency and error meters (generated.endpoint*, see EndpointMetrics) at /actuator/prometheus.
+            # EndpointMetrics registers them globally; Spring Boot binds its registries to the global one
+            management.endpoints.web.exposure.include=health,prometheus
+            management.metrics.use-global-registry=true
+            """);
+
+    private static final CompiledTemplate<Void> MEASURE_STARTUP = CompiledTemplate.load("measure-startup.sh.tmpl");
+
+    /*
+     * Only in projects with cached endpoints. A LinkedHashMap in access order evicts the least
+     * recently used response; concurrent misses for one key share a single business call.
+     */
+    private static final CompiledTemplate<Void> RESPONSE_CACHE = CompiledTemplate.load("ResponseCache.java.tmpl");
+
+    private static final CompiledTemplate<Void> CACHE_STATS_CONTROLLER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.web.bind.annotation.*;
+            import java.util.*;
+
+            @RestController
+            @RequestMapping("/api")
+            public class CacheStatsController {
+
+                /** Hits, misses and evictions of every response cache */
+                @GetMapping("/cache-stats")
+                public List<Map<String, Object>> cacheStats() {
+                    return ResponseCache.allStats();
+                }
+            }
+            """);
+
+    /* Only in projects with batched endpoints */
+    private static final CompiledTemplate<Void> BATCH_RESULT = CompiledTemplate.load("BatchResult.java.tmpl");
+
+    private static final CompiledTemplate<Void> BATCH_EXECUTOR = CompiledTemplate.load("BatchExecutor.java.tmpl");
+
+    /*
+     * With the endpointMetrics option. The reactor parts are only present when the project has
+     * reactor-core, i.e. in WebFlux projects and Spring MVC projects with reactive endpoints.
+     */
+    private static final String ENDPOINT_METRICS_SOURCE = CompiledTemplate.source("EndpointMetrics.java.tmpl");
+
+    private static final String REACTOR_IMPORT = "import reactor.core.publisher.Mono;\n";
+
+    private static final String RECORD_MONO = """
+
+                /**
+                 * Times a Mono from subscription until it completes, fails or is cancelled; an error,
+                 * also one thrown while building the Mono, is counted.
+                 */
+                public <T> Mono<T> recordMono(Supplier<Mono<T>> call) {
+                    return Mono.defer(() -> {
+                        long start = System.nanoTime();
+                        return Mono.defer(call)
+                                .doOnError(e -> errors.increment())
+                                .doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                    });
+                }
+            """;
+
+    private static final CompiledTemplate<Void> ENDPOINT_METRICS = CompiledTemplate.compile(
+            ENDPOINT_METRICS_SOURCE.formatted("", ""));
+
+    private static final CompiledTemplate<Void> REACTIVE_ENDPOINT_METRICS = CompiledTemplate.compile(
+            ENDPOINT_METRICS_SOURCE.formatted(REACTOR_IMPORT, RECORD_MONO));
+
+    private static final CompiledTemplate<Void> BATCH_REQUESTS_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            /**
+             * Parameters of the batched endpoints, one class per endpoint.
+             */
+            public final class BatchRequests {
+
+                private BatchRequests() {}
+
+            """);
+
+    /* Slots of the class headers, see writeShardSlot */
+    private static final int CONTROLLER_CLASS = 0;
+    private static final int SERVICE_CLASS = 1;
+    private static final String[] SHARD_SLOTS = {"controllerClass", "serviceClass"};
+
+    private static final CompiledTemplate<ShardPlan.Shard> CONTROLLER_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.web.bind.annotation.*;
+            import org.springframework.beans.factory.annotation.Autowired;
+            import java.util.*;
+
+            @RestController
+            @RequestMapping("/api")
+            public class {{controllerClass}} {
+
+                @Autowired
+                private {{serviceClass}} business;
+
+            """, Templates::writeShardSlot, SHARD_SLOTS);
+
+    private static final CompiledTemplate<ShardPlan.Shard> WEBFLUX_CONTROLLER_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.web.bind.annotation.*;
+            import org.springframework.beans.factory.annotation.Autowired;
+            import reactor.core.publisher.Mono;
+            import reactor.core.scheduler.Schedulers;
+            import java.util.*;
+
+            @RestController
+            @RequestMapping("/api")
+            public class {{controllerClass}} {
+
+                @Autowired
+                private {{serviceClass}} business;
+
+            """, Templates::writeShardSlot, SHARD_SLOTS);
+
+    private static final CompiledTemplate<ShardPlan.Shard> SERVICE_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.stereotype.Service;
+            import java.util.*;
+
+            @Service
+            public class {{serviceClass}} {
+
+            """, Templates::writeShardSlot, SHARD_SLOTS);
+
+    private static final CompiledTemplate<ShardPlan.Shard> WEBFLUX_SERVICE_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.stereotype.Service;
+            import reactor.core.publisher.Mono;
+            import java.util.*;
+
+            @Service
+            public class {{serviceClass}} {
+
+            """, Templates::writeShardSlot, SHARD_SLOTS);
+
+    /* With the persistence option: business methods call the repositories */
+    private static final CompiledTemplate<ShardPlan.Shard> JDBC_SERVICE_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.beans.factory.annotation.Autowired;
+            import org.springframework.stereotype.Service;
+            import java.util.*;
+
+            @Service
+            public class {{serviceClass}} {
+
+                @Autowired
+                private Repositories repositories;
+
+            """, Templates::writeShardSlot, SHARD_SLOTS);
+
+    private static final CompiledTemplate<ShardPlan.Shard> JDBC_WEBFLUX_SERVICE_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.beans.factory.annotation.Autowired;
+            import org.springframework.stereotype.Service;
+            import reactor.core.publisher.Mono;
+            import reactor.core.scheduler.Schedulers;
+            import java.util.*;
+
+            @Service
+            public class {{serviceClass}} {
+
+                @Autowired
+                private Repositories repositories;
+
+            """, Templates::writeShardSlot, SHARD_SLOTS);
+
+    private static final CompiledTemplate<Void> CLASS_FOOTER = CompiledTemplate.compile("""
+            }
+            """);
+
+    /* Slots available to the per-endpoint templates, see writeEndpointSlot */
+    private static final int MAPPING = 0;
+    private static final int RETURN_TYPE = 1;
+    private static final int API_NAME = 2;
+    private static final int SIGNATURE = 3;
+    private static final int CALL_ARGS = 4;
+    private static final int PLAIN_SIGNATURE = 5;
+    private static final int RETURN_VALUE = 6;
+    private static final int RESPONSE_TYPE = 7;
+    private static final int SERVICE_TYPE = 8;
+    private static final int CACHE_TTL_MILLIS = 9;
+    private static final int CACHE_MAX_SIZE = 10;
+    private static final int CACHE_KEY = 11;
+    private static final int BATCH_REQUEST_CLASS = 12;
+    private static final int BATCH_FIELDS = 13;
+    private static final int BATCH_ITEM_CALL = 14;
+    private static final int BATCH_RESPONSE_TYPE = 15;
+    private static final int REPOSITORY_CALL = 16;
+    private static final int BATCH_ROW = 17;
+    private static final int BATCH_WRITE = 18;
+    private static final int HTTP_METHOD = 19;
+    private static final int SLO_MILLIS = 20;
+    private static final int LOAD_PARAMS = 21;
+    private static final String[] ENDPOINT_SLOTS = {
+            "mapping", "returnType", "apiName", "signature", "callArgs", "plainSignature", "returnValue",
+            "responseType", "serviceType", "cacheTtlMillis", "cacheMaxSize", "cacheKey",
+            "batchRequestClass", "batchFields", "batchItemCall", "batchResponseType",
+            "repositoryCall", "batchRow", "batchWrite", "httpMethod", "sloMillis",
+            "loadParams"
+    };
+
+    private static final CompiledTemplate<CompiledEndpoint> CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    return business.{{apiName}}{{callArgs}};
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> OFFLOADED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    // blocking business method: run it on a worker thread, not the event loop
+                    return Mono.fromCallable(() -> business.{{apiName}}{{callArgs}}).subscribeOn(Schedulers.boundedElastic());
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> CACHED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                private final ResponseCache<{{returnType}}> {{apiName}}Cache = new ResponseCache<>("{{apiName}}", {{cacheTtlMillis}}L, {{cacheMaxSize}});
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    return {{apiName}}Cache.get({{cacheKey}}, () -> business.{{apiName}}{{callArgs}});
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> CACHED_OFFLOADED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                private final ResponseCache<{{returnType}}> {{apiName}}Cache = new ResponseCache<>("{{apiName}}", {{cacheTtlMillis}}L, {{cacheMaxSize}});
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    // blocking business method: run it on a worker thread, not the event loop
+                    return Mono.fromCallable(() -> {{apiName}}Cache.get({{cacheKey}}, () -> business.{{apiName}}{{callArgs}}))
+                            .subscribeOn(Schedulers.boundedElastic());
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> BATCH_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                @PostMapping("/{{apiName}}/batch")
+                public {{batchResponseType}} {{apiName}}Batch(@RequestBody List<BatchRequests.{{batchRequestClass}}> requests) {
+                    return business.{{apiName}}Batch(requests);
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> OFFLOADED_BATCH_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                @PostMapping("/{{apiName}}/batch")
+                public {{batchResponseType}} {{apiName}}Batch(@RequestBody List<BatchRequests.{{batchRequestClass}}> requests) {
+                    // waits for the batch executor: run it on a worker thread, not the event loop
+                    return Mono.fromCallable(() -> business.{{apiName}}Batch(requests)).subscribeOn(Schedulers.boundedElastic());
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    /*
+     * With the endpointMetrics option: the controller method and the business call inside it are
+     * timed separately, see EndpointMetrics. The meters are declared in front of each endpoint.
+     */
+    private static final CompiledTemplate<CompiledEndpoint> ENDPOINT_METERS = CompiledTemplate.compile("""
+                private final EndpointMetrics {{apiName}}Controller = new EndpointMetrics("{{apiName}}", "{{httpMethod}}", "controller"{{sloMillis}});
+                private final EndpointMetrics {{apiName}}Service = new EndpointMetrics("{{apiName}}", "{{httpMethod}}", "service"{{sloMillis}});
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> BATCH_ENDPOINT_METERS = CompiledTemplate.compile("""
+                private final EndpointMetrics {{apiName}}BatchController = new EndpointMetrics("{{apiName}}Batch", "POST", "controller"{{sloMillis}});
+                private final EndpointMetrics {{apiName}}BatchService = new EndpointMetrics("{{apiName}}Batch", "POST", "service"{{sloMillis}});
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    return {{apiName}}Controller.record(() -> {{apiName}}Service.record(() -> business.{{apiName}}{{callArgs}}));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_REACTIVE_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    return {{apiName}}Controller.recordMono(() -> {{apiName}}Service.recordMono(() -> business.{{apiName}}{{callArgs}}));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_OFFLOADED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    // blocking business method: run it on a worker thread, not the event loop
+                    return {{apiName}}Controller.recordMono(() -> Mono.fromCallable(() -> {{apiName}}Service.record(() -> business.{{apiName}}{{callArgs}}))
+                            .subscribeOn(Schedulers.boundedElastic()));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_CACHED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                private final ResponseCache<{{returnType}}> {{apiName}}Cache = new ResponseCache<>("{{apiName}}", {{cacheTtlMillis}}L, {{cacheMaxSize}});
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    // the business call is only timed on a cache miss
+                    return {{apiName}}Controller.record(() -> {{apiName}}Cache.get({{cacheKey}},
+                            () -> {{apiName}}Service.record(() -> business.{{apiName}}{{callArgs}})));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_CACHED_OFFLOADED_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                private final ResponseCache<{{returnType}}> {{apiName}}Cache = new ResponseCache<>("{{apiName}}", {{cacheTtlMillis}}L, {{cacheMaxSize}});
+
+                {{mapping}}
+                public {{responseType}} {{apiName}}{{signature}} {
+                    // blocking business method: run it on a worker thread, not the event loop;
+                    // the business call is only timed on a cache miss
+                    return {{apiName}}Controller.recordMono(() -> Mono.fromCallable(() -> {{apiName}}Cache.get({{cacheKey}},
+                            () -> {{apiName}}Service.record(() -> business.{{apiName}}{{callArgs}})))
+                            .subscribeOn(Schedulers.boundedElastic()));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_BATCH_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                @PostMapping("/{{apiName}}/batch")
+                public {{batchResponseType}} {{apiName}}Batch(@RequestBody List<BatchRequests.{{batchRequestClass}}> requests) {
+                    return {{apiName}}BatchController.record(() -> {{apiName}}BatchService.record(() -> business.{{apiName}}Batch(requests)));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> METERED_OFFLOADED_BATCH_CONTROLLER_ENDPOINT = CompiledTemplate.compile("""
+                @PostMapping("/{{apiName}}/batch")
+                public {{batchResponseType}} {{apiName}}Batch(@RequestBody List<BatchRequests.{{batchRequestClass}}> requests) {
+                    // waits for the batch executor: run it on a worker thread, not the event loop
+                    return {{apiName}}BatchController.recordMono(() -> Mono.fromCallable(() -> {{apiName}}BatchService.record(
+                            () -> business.{{apiName}}Batch(requests))).subscribeOn(Schedulers.boundedElastic()));
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> BATCH_SERVICE_METHOD = CompiledTemplate.compile("""
+                public java.util.List<BatchResult<{{returnType}}>> {{apiName}}Batch(java.util.List<BatchRequests.{{batchRequestClass}}> requests) {
+                    // TODO: replace with a bulk implementation. calls {{apiName}} for each request, in parallel.
+                    return BatchExecutor.run(requests, request -> {{batchItemCall}});
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> BATCH_REQUEST = CompiledTemplate.compile("""
+                public static class {{batchRequestClass}} {
+            {{batchFields}}    }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> SERVICE_METHOD = CompiledTemplate.compile("""
+                public {{serviceType}} {{apiName}}{{plainSignature}} {
+                    // TODO: replace with real business logic. returning placeholder.
+                    return {{returnValue}};
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> PERSISTED_SERVICE_METHOD = CompiledTemplate.compile("""
+                public {{serviceType}} {{apiName}}{{plainSignature}} {
+                    return {{repositoryCall}};
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> PERSISTED_BATCH_SERVICE_METHOD = CompiledTemplate.compile("""
+                public java.util.List<BatchResult<{{returnType}}>> {{apiName}}Batch(java.util.List<BatchRequests.{{batchRequestClass}}> requests) {
+                    // one JDBC batch in one transaction: all rows are written, or none
+                    BatchExecutor.checkSize(requests);
+                    java.util.List<{{returnType}}> rows = new java.util.ArrayList<>(requests.size());
+                    for (BatchRequests.{{batchRequestClass}} request : requests) {
+                        rows.add({{batchRow}});
+                    }
+                    int[] counts = {{batchWrite}};
+                    java.util.List<BatchResult<{{returnType}}>> results = new java.util.ArrayList<>(counts.length);
+                    for (int i = 0; i < counts.length; i++) {
+                        results.add(counts[i] == 0 ? BatchResult.failed("not found") : BatchResult.ok(rows.get(i)));
+                    }
+                    return results;
+                }
+
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    /*
+     * With the loadTest option: a load driver run with the java launcher, outside the Maven build,
+     * reading the endpoints from endpoints.tsv so it does not grow with the number of endpoints.
+     */
+    private static final CompiledTemplate<Void> LOAD_TEST = CompiledTemplate.load("LoadTest.java.tmpl");
+
+    private static final CompiledTemplate<Void> LOAD_TEST_ENDPOINTS_HEADER = CompiledTemplate.compile("""
+            # Endpoints called by LoadTest.java: HTTP method, path, name, single or batch, then the name and
+            # type of every parameter, all separated by tabs
+            """);
+
+    private static final CompiledTemplate<CompiledEndpoint> LOAD_TEST_ENDPOINT = CompiledTemplate.compile("""
+            {{httpMethod}}\t/api/{{apiName}}\t{{apiName}}\tsingle{{loadParams}}
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    private static final CompiledTemplate<CompiledEndpoint> LOAD_TEST_BATCH_ENDPOINT = CompiledTemplate.compile("""
+            POST\t/api/{{apiName}}/batch\t{{apiName}}Batch\tbatch{{loadParams}}
+            """, Templates::writeEndpointSlot, ENDPOINT_SLOTS);
+
+    /* Slots of the DTO templates, see writeDtoSlot */
+    private static final int DTO_NAME = 0;
+    private static final int COMPONENTS = 1;
+    private static final int IMPORTS = 2;
+    private static final int SERDE_IMPORTS = 3;
+    private static final int DEFAULT_CONSTRUCTOR = 4;
+    private static final int FIELD_DECLARATIONS = 5;
+    private static final int FIELD_ASSIGNMENTS = 6;
+    private static final int FIELD_NAMES = 7;
+    private static final int WRITE_FIELDS = 8;
+    private static final int DESERIALIZER_FIELDS = 9;
+    private static final int RESOLVE_METHOD = 10;
+    private static final int DESERIALIZER_INTERFACES = 11;
+    private static final int DESERIALIZE_ANNOTATIONS = 12;
+    private static final int READ_LOCALS = 13;
+    private static final int READ_CASES = 14;
+    private static final int CONSTRUCTOR_ARGS = 15;
+    private static final String[] DTO_SLOTS = {
+            "dtoName", "components", "imports", "serdeImports", "defaultConstructor", "fieldDeclarations",
+            "fieldAssignments", "fieldNames", "writeFields", "deserializerFields", "resolveMethod",
+            "deserializerInterfaces", "deserializeAnnotations", "readLocals", "readCases", "constructorArgs"
+    };
+
+    private static final CompiledTemplate<DtoType> DTO_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            {{imports}}""", Templates::writeDtoSlot, DTO_SLOTS);
+
+    private static final CompiledTemplate<DtoType> SERDE_DTO_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            {{serdeImports}}
+            /**
+             * Converted to and from JSON by the nested Serializer and Deserializer, without bean introspection.
+             */
+            @JsonSerialize(using = {{dtoName}}.Serializer.class)
+            @JsonDeserialize(using = {{dtoName}}.Deserializer.class)
+            """, Templates::writeDtoSlot, DTO_SLOTS);
+
+    private static final CompiledTemplate<DtoType> DTO_RECORD = CompiledTemplate.compile("""
+            public record {{dtoName}}({{components}}) {
+            {{defaultConstructor}}""", Templates::writeDtoSlot, DTO_SLOTS);
+
+    private static final CompiledTemplate<DtoType> DTO_CLASS = CompiledTemplate.compile("""
+            public final class {{dtoName}} {
+
+            {{fieldDeclarations}}
+                public {{dtoName}}({{components}}) {
+            {{fieldAssignments}}    }
+            {{defaultConstructor}}""", Templates::writeDtoSlot, DTO_SLOTS);
+
+    private static final CompiledTemplate<DtoType> DTO_SERDE = CompiledTemplate.load(
+            "DtoSerde.java.tmpl", Templates::writeDtoSlot, DTO_SLOTS);
+
+    /* Slots of the persistence templates, see writeRepositorySlot */
+    private static final int REPOSITORY_DTO = 0;
+    private static final int ACCESSOR = 1;
+    private static final int TABLE = 2;
+    private static final int KEY_FIELD = 3;
+    private static final int KEY_TYPE = 4;
+    private static final int REPOSITORY_IMPORTS = 5;
+    private static final int STATEMENTS = 6;
+    private static final int JSON_MAPPER = 7;
+    private static final int STORAGE_NOTE = 8;
+    private static final int BIND_KEY = 9;
+    private static final int BIND_INSERT = 10;
+    private static final int BIND_UPDATE = 11;
+    private static final int MAP_ROW = 12;
+    private static final int HELPERS = 13;
+    private static final int CREATE_TABLE = 14;
+    private static final int TEST_ROW = 15;
+    private static final String[] REPOSITORY_SLOTS = {
+            "dtoName", "accessor", "table", "keyField", "keyType", "imports", "statements", "jsonMapper",
+            "storageNote", "bindKey", "bindInsert", "bindUpdate", "mapRow", "helpers", "createTable", "testRow"
+    };
+
+    private static final CompiledTemplate<RepositoryType> REPOSITORY = CompiledTemplate.load(
+            "Repository.java.tmpl", Templates::writeRepositorySlot, REPOSITORY_SLOTS);
+
+    private static final CompiledTemplate<Void> REPOSITORIES_HEADER = CompiledTemplate.compile("""
+            package com.boa.generated;
+
+            import org.springframework.beans.factory.annotation.Autowired;
+            import org.springframework.stereotype.Component;
+
+            /**
+             * The repositories of the DTOs, one per table of schema.sql.
+             */
+            @Component
+            public class Repositories {
+
+            """);
+
+    private static final CompiledTemplate<RepositoryType> REPOSITORIES_ENTRY = CompiledTemplate.compile("""
+                @Autowired
+                private {{dtoName}}Repository {{accessor}};
+
+                public {{dtoName}}Repository {{accessor}}() { return {{accessor}}; }
+
+            """, Templates::writeRepositorySlot, REPOSITORY_SLOTS);
+
+    private static final CompiledTemplate<Void> SCHEMA_HEADER = CompiledTemplate.compile("""
+            -- Tables of the generated repositories. Spring Boot runs this script at startup for embedded
+            -- databases such as the default H2 (spring.sql.init.mode). Column types are H2's; fields
+            -- without a column type are stored as JSON text.
+
+            """);
+
+    private static final CompiledTemplate<RepositoryType> SCHEMA_TABLE = CompiledTemplate.compile("""
+            {{createTable}}
+            """, Templates::writeRepositorySlot, REPOSITORY_SLOTS);
+
+    private static final CompiledTemplate<RepositoryType> THROUGHPUT_TEST = CompiledTemplate.load(
+            "RepositoryThroughputTest.java.tmpl", Templates::writeRepositorySlot, REPOSITORY_SLOTS);
+
+    /* ---------- Whole files ---------- */
+
+    public static void writeServicePom(Writer out) throws IOException {
+        writeServicePom(new GenerationOptions(), false, out);
+    }
+
+    /**
+     * @param reactiveEndpoints whether any endpoint returns Mono (only matters for Spring MVC)
+     */
+    public static void writeServicePom(GenerationOptions options, boolean reactiveEndpoints, Writer out) throws IOException {
+        int starters = options.isReactive() ? 2 : reactiveEndpoints ? 1 : 0;
+        SERVICE_POMS.get(starters * 8 + (options.isFastStartup() ? 4 : 0) + (options.isPersistence() ? 2 : 0)
+                + (options.isEndpointMetrics() ? 1 : 0)).render(out);
+    }
+
+    public static void writeApplicationClass(Writer out) throws IOException {
+        APPLICATION_CLASS.render(out);
+    }
+
+    public static void writeApplicationClass(GenerationOptions options, Writer out) throws IOException {
+        (options.isFastStartup() ? FAST_APPLICATION_CLASS : APPLICATION_CLASS).render(out);
+    }
+
+    public static void writeApplicationProperties(Writer out) throws IOException {
+        APPLICATION_PROPERTIES.render(out);
+    }
+
+    public static void writeApplicationProperties(GenerationOptions options, Writer out) throws IOException {
+        (options.isFastStartup() ? FAST_APPLICATION_PROPERTIES : APPLICATION_PROPERTIES).render(out);
+        if (options.isPersistence()) {
+            PERSISTENCE_PROPERTIES.render(out);
+        }
+        if (options.isEndpointMetrics()) {
+            METRICS_PROPERTIES.render(out);
+        }
+    }
+
+    public static void writeMeasureStartupScript(Writer out) throws IOException {
+        MEASURE_STARTUP.render(out);
+    }
+
+    public static void writeResponseCache(Writer out) throws IOException {
+        RESPONSE_CACHE.render(out);
+    }
+
+    public static void writeCacheStatsController(Writer out) throws IOException {
+        CACHE_STATS_CONTROLLER.render(out);
+    }
+
+    public static void writeBatchResult(Writer out) throws IOException {
+        BATCH_RESULT.render(out);
+    }
+
+    public static void writeBatchExecutor(Writer out) throws IOException {
+        BATCH_EXECUTOR.render(out);
+    }
+
+    /**
+     * @param reactor whether the project has reactor-core, so EndpointMetrics can time Mono results
+     */
+    public static void writeEndpointMetrics(boolean reactor, Writer out) throws IOException {
+        (reactor ? REACTIVE_ENDPOINT_METRICS : ENDPOINT_METRICS).render(out);
+    }
+
+    public static void writeLoadTest(Writer out) throws IOException {
+        LOAD_TEST.render(out);
+    }
+
+    public static void writeLoadTestEndpointsHeader(Writer out) throws IOException {
+        LOAD_TEST_ENDPOINTS_HEADER.render(out);
+    }
+
+    /**
+     * The line of the endpoint in endpoints.tsv, and one for its batched variant.
+     */
+    public static void writeLoadTestEndpoint(CompiledEndpoint e, Writer out) throws IOException {
+        LOAD_TEST_ENDPOINT.render(out, e);
+        if (e.isBatch()) {
+            LOAD_TEST_BATCH_ENDPOINT.render(out, e);
+        }
+    }
+
+    public static void writeRepository(RepositoryType repository, Writer out) throws IOException {
+        REPOSITORY.render(out, repository);
+    }
+
+    public static void writeRepositories(List<RepositoryType> repositories, Writer out) throws IOException {
+        REPOSITORIES_HEADER.render(out);
+        for (RepositoryType r : repositories) {
+            REPOSITORIES_ENTRY.render(out, r);
+        }
+        CLASS_FOOTER.render(out);
+    }
+
+    public static void writeSchema(List<RepositoryType> repositories, Writer out) throws IOException {
+        SCHEMA_HEADER.render(out);
+        for (RepositoryType r : repositories) {
+            SCHEMA_TABLE.render(out, r);
+        }
+    }
+
+    /**
+     * The throughput test of a repository whose key can be built from a counter, see
+     * {@link RepositoryType#getTestRow()}.
+     */
+    public static void writeThroughputTest(RepositoryType repository, Writer out) throws IOException {
+        THROUGHPUT_TEST.render(out, repository);
+    }
+
+    public static void writeController(List<ApiSpec> specs, Writer out) throws IOException {
+        writeControllerHeader(out);
+        for (CompiledEndpoint e : SpecCompiler.compile(specs)) {
+            writeControllerEndpoint(e, out);
+        }
+        writeControllerFooter(out);
+    }
+
+    public static void writeServiceClass(List<ApiSpec> specs, Writer out) throws IOException {
+        writeServiceHeader(out);
+        for (CompiledEndpoint e : SpecCompiler.compile(specs)) {
+            writeServiceMethod(e, out);
+        }
+        writeServiceFooter(out);
+    }
+
+    /**
+     * The DTO files of the specs, one after the other.
+     */
+    public static void writeModels(List<ApiSpec> specs, Writer out) throws IOException {
+        for (DtoType type : DtoRegistry.of(SpecCompiler.compile(specs))) {
+            writeDto(type, out);
+        }
+    }
+
+    /**
+     * A DTO file, with its JSON serializer and deserializer when its fields are declared. A type
+     * without declared fields is left to Jackson's default binding, so that components added to it
+     * by hand are converted too.
+     */
+    public static void writeDto(DtoType type, Writer out) throws IOException {
+        writeDto(type, type.isDeclared(), out);
+    }
+
+    /**
+     * @param serializers false leaves JSON conversion to Jackson's default bean binding (for comparison)
+     */
+    public static void writeDto(DtoType type, boolean serializers, Writer out) throws IOException {
+        (serializers ? SERDE_DTO_HEADER : DTO_HEADER).render(out, type);
+        (type.isRecord() ? DTO_RECORD : DTO_CLASS).render(out, type);
+        if (serializers) {
+            DTO_SERDE.render(out, type);
+        }
+        CLASS_FOOTER.render(out);
+    }
+
+    /*
+     * The per-file pieces below let callers emit a file incrementally, one endpoint at a time,
+     * without holding the whole spec list (see ApiProjectGeneratorService streaming mode).
+     */
+
+    public static void writeControllerHeader(Writer out) throws IOException {
+        writeControllerHeader(ShardPlan.DEFAULT, out);
+    }
+
+    public static void writeControllerHeader(ShardPlan.Shard shard, Writer out) throws IOException {
+        writeControllerHeader(shard, false, out);
+    }
+
+    public static void writeControllerHeader(ShardPlan.Shard shard, boolean webflux, Writer out) throws IOException {
+        (webflux ? WEBFLUX_CONTROLLER_HEADER : CONTROLLER_HEADER).render(out, shard);
+    }
+
+    public static void writeControllerEndpoint(CompiledEndpoint e, Writer out) throws IOException {
+        writeControllerEndpoint(e, false, out);
+    }
+
+    /**
+     * @param metered whether the endpoint is timed, see the endpointMetrics option
+     */
+    public static void writeControllerEndpoint(CompiledEndpoint e, boolean metered, Writer out) throws IOException {
+        if (metered) {
+            writeMeteredControllerEndpoint(e, out);
+            return;
+        }
+        if (e.isCached()) {
+            (e.isOffloaded() ? CACHED_OFFLOADED_CONTROLLER_ENDPOINT : CACHED_CONTROLLER_ENDPOINT).render(out, e);
+        } else {
+            (e.isOffloaded() ? OFFLOADED_CONTROLLER_ENDPOINT : CONTROLLER_ENDPOINT).render(out, e);
+        }
+        if (e.isBatch()) {
+            (e.isBatchOffloaded() ? OFFLOADED_BATCH_CONTROLLER_ENDPOINT : BATCH_CONTROLLER_ENDPOINT).render(out, e);
+        }
+    }
+
+    private static void writeMeteredControllerEndpoint(CompiledEndpoint e, Writer out) throws IOException {
+        ENDPOINT_METERS.render(out, e);
+        if (e.isCached()) {
+            (e.isOffloaded() ? METERED_CACHED_OFFLOADED_CONTROLLER_ENDPOINT : METERED_CACHED_CONTROLLER_ENDPOINT).render(out, e);
+        } else if (e.isOffloaded()) {
+            METERED_OFFLOADED_CONTROLLER_ENDPOINT.render(out, e);
+        } else {
+            (e.isReactive() ? METERED_REACTIVE_CONTROLLER_ENDPOINT : METERED_CONTROLLER_ENDPOINT).render(out, e);
+        }
+        if (e.isBatch()) {
+            BATCH_ENDPOINT_METERS.render(out, e);
+            (e.isBatchOffloaded() ? METERED_OFFLOADED_BATCH_CONTROLLER_ENDPOINT : METERED_BATCH_CONTROLLER_ENDPOINT).render(out, e);
+        }
+    }
+
+    public static void writeControllerFooter(Writer out) throws IOException {
+        CLASS_FOOTER.render(out);
+    }
+
+    public static void writeServiceHeader(Writer out) throws IOException {
+        writeServiceHeader(ShardPlan.DEFAULT, out);
+    }
+
+    public static void writeServiceHeader(ShardPlan.Shard shard, Writer out) throws IOException {
+        writeServiceHeader(shard, false, out);
+    }
+
+    public static void writeServiceHeader(ShardPlan.Shard shard, boolean webflux, Writer out) throws IOException {
+        (webflux ? WEBFLUX_SERVICE_HEADER : SERVICE_HEADER).render(out, shard);
+    }
+
+    /**
+     * @param persistence whether the service calls repositories, see {@link RepositoryPlan}
+     */
+    public static void writeServiceHeader(ShardPlan.Shard shard, boolean webflux, boolean persistence, Writer out)
+            throws IOException {
+        if (persistence) {
+            (webflux ? JDBC_WEBFLUX_SERVICE_HEADER : JDBC_SERVICE_HEADER).render(out, shard);
+        } else {
+            writeServiceHeader(shard, webflux, out);
+        }
+    }
+
+    public static void writeServiceMethod(CompiledEndpoint e, Writer out) throws IOException {
+        (e.isPersisted() ? PERSISTED_SERVICE_METHOD : SERVICE_METHOD).render(out, e);
+        if (e.isBatch()) {
+            (e.isBatchPersisted() ? PERSISTED_BATCH_SERVICE_METHOD : BATCH_SERVICE_METHOD).render(out, e);
+        }
+    }
+
+    public static void writeServiceFooter(Writer out) throws IOException {
+        CLASS_FOOTER.render(out);
+    }
+
+    public static void writeBatchRequestsHeader(Writer out) throws IOException {
+        BATCH_REQUESTS_HEADER.render(out);
+    }
+
+    /**
+     * Parameter class of the endpoint's batched variant; writes nothing without the batch flag.
+     */
+    public static void writeBatchRequestClass(CompiledEndpoint e, Writer out) throws IOException {
+        if (e.isBatch()) {
+            BATCH_REQUEST.render(out, e);
+        }
+    }
+
+    public static void writeBatchRequestsFooter(Writer out) throws IOException {
+        CLASS_FOOTER.render(out);
+    }
+
+    /* ---------- String convenience wrappers ---------- */
+
     public static String generatedServicePom() {
-        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n" +
-               "  <modelVersion>4.0.0</modelVersion>\n" +
-               "  <groupId>com.boa</groupId>\n" +
-               "  <artifactId>generated-service</artifactId>\n" +
-               "  <version>0.0.1-SNAPSHOT</version>\n" +
-               "  <properties>\n" +
-               "    <java.version>17</java.version>\n" +
-               "    <spring.boot.version>3.2.0</spring.boot.version>\n" +
-               "  </properties>\n" +
-               "  <dependencyManagement>\n" +
-               "    <dependencies>\n" +
-               "      <dependency>\n" +
-               "        <groupId>org.springframework.boot</groupId>\n" +
-               "        <artifactId>spring-boot-dependencies</artifactId>\n" +
-               "        <version>${spring.boot.version}</version>\n" +
-               "        <type>pom</type>\n" +
-               "        <scope>import</scope>\n" +
-               "      </dependency>\n" +
-               "    </dependencies>\n" +
-               "  </dependencyManagement>\n" +
-               "  <dependencies>\n" +
-               "    <dependency>\n" +
-               "      <groupId>org.springframework.boot</groupId>\n" +
-               "      <artifactId>spring-boot-starter-web</artifactId>\n" +
-               "    </dependency>\n" +
-               "  </dependencies>\n" +
-               "  <build>\n" +
-               "    <plugins>\n" +
-               "      <plugin>\n" +
-               "        <groupId>org.springframework.boot</groupId>\n" +
-               "        <artifactId>spring-boot-maven-plugin</artifactId>\n" +
-               "      </plugin>\n" +
-               "    </plugins>\n" +
-               "  </build>\n" +
-               "</project>\n";
+        return render(Templates::writeServicePom);
     }
 
     public static String generatedApplicationClass() {
-        return "package com.boa.generated;\n\n" +
-               "import org.springframework.boot.SpringApplication;\n" +
-               "import org.springframework.boot.autoconfigure.SpringBootApplication;\n\n" +
-               "@SpringBootApplication\n" +
-               "public class GeneratedServiceApplication {\n" +
-               "    public static void main(String[] args) {\n" +
-               "        SpringApplication.run(GeneratedServiceApplication.class, args);\n" +
-               "    }\n" +
-               "}\n";
+        return render(Templates::writeApplicationClass);
     }
 
     public static String generatedController(List<ApiSpec> specs) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("package com.boa.generated;\n\n");
-        sb.append("import org.springframework.web.bind.annotation.*;\n");
-        sb.append("import org.springframework.beans.factory.annotation.Autowired;\n");
-        sb.append("import java.util.*;\n\n");
-        sb.append("@RestController\n");
-        sb.append("@RequestMapping(\"/api\")\n");
-        sb.append("public class GeneratedController {\n\n");
-        sb.append("    @Autowired\n    private GeneratedBusinessService business;\n\n");
-        for (ApiSpec s : specs) {
-            String method = s.getMethod() == null ? "GET" : s.getMethod().toUpperCase();
-            String apiName = StringUtilsSafe(s.getApiName());
-            String returnType = s.getReturnType() == null ? "String" : s.getReturnType();
-            String mapping = mappingAnnotation(method, apiName);
-            sb.append("    " + mapping + "\n");
-            sb.append("    public " + returnType + " " + apiName + generateMethodSignature(s) + " {\n");
-            sb.append("        return business." + apiName + generateBusinessCallSignature(s) + ";\n");
-            sb.append("    }\n\n");
-        }
-        sb.append("}\n");
-        return sb.toString();
-    }
-
-    private static String mappingAnnotation(String method, String apiName) {
-        switch (method) {
-            case "POST": return "@PostMapping(\"/" + apiName + "\")";
-            case "PUT": return "@PutMapping(\"/" + apiName + "\")";
-            case "DELETE": return "@DeleteMapping(\"/" + apiName + "\")";
-            default: return "@GetMapping(\"/" + apiName + "\")";
-        }
-    }
-
-    private static String StringUtilsSafe(String v) {
-        if (v == null || v.isEmpty()) return "unnamedApi";
-        return v.replaceAll("\\s+", "");
-    }
-
-    private static String generateMethodSignature(ApiSpec s) {
-        StringBuilder sig = new StringBuilder();
-        sig.append("(");
-        if (s.getParameters() != null) {
-            boolean first = true;
-            for (Map<String,String> p : s.getParameters()) {
-                if (!first) sig.append(", ");
-                String pname = p.getOrDefault("name", "param");
-                String ptype = p.getOrDefault("type", "String");
-                sig.append("@RequestParam(" + "\"" + pname + "\"" + ") " + ptype + " " + pname);
-                first = false;
-            }
+        return render(out -> writeController(specs, out));
+    }
+
+    public static String generatedServiceClass(List<ApiSpec> specs) {
+        return render(out -> writeServiceClass(specs, out));
+    }
+
+    public static String generatedModels(List<ApiSpec> specs) {
+        return render(out -> writeModels(specs, out));
+    }
+
+    private static CompiledTemplate<Void> pom(String dependencies, boolean fastStartup) {
+        return CompiledTemplate.compile(POM_SOURCE.formatted(dependencies, fastStartup ? FAST_STARTUP_PLUGINS : DEFAULT_PLUGINS));
+    }
+
+    private static String dependency(String groupId, String artifactId) {
+        return "    <dependency>\n"
+                + "      <groupId>" + groupId + "</groupId>\n"
+                + "      <artifactId>" + artifactId + "</artifactId>\n"
+                + "    </dependency>\n";
+    }
+
+    private static String dependency(String groupId, String artifactId, String scope) {
+        return "    <dependency>\n"
+                + "      <groupId>" + groupId + "</groupId>\n"
+                + "      <artifactId>" + artifactId + "</artifactId>\n"
+                + "      <scope>" + scope + "</scope>\n"
+                + "    </dependency>\n";
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(Writer out) throws IOException;
+    }
+
+    private static String render(Body body) {
+        StringWriter out = new StringWriter();
+        try {
+            body.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        sig.append(")");
-        return sig.toString();
+        return out.toString();
     }
 
-    private static String generateBusinessCallSignature(ApiSpec s) {
-        StringBuilder call = new StringBuilder();
-        call.append("(");
-        if (s.getParameters() != null) {
-            boolean first = true;
-            for (Map<String,String> p : s.getParameters()) {
-                if (!first) call.append(", ");
-                call.append(p.getOrDefault("name", "param"));
-                first = false;
-            }
+    /* ---------- Slots ---------- */
+
+    private static void writeShardSlot(int slot, ShardPlan.Shard shard, Writer out) throws IOException {
+        switch (slot) {
+            case CONTROLLER_CLASS: out.write(shard.getControllerClass()); break;
+            case SERVICE_CLASS: out.write(shard.getServiceClass()); break;
+            default:
+                throw new IllegalStateException("Unknown shard slot " + slot);
         }
-        call.append(")");
-        return call.toString();
     }
 
-    public static String generatedServiceClass(List<ApiSpec> specs) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("package com.boa.generated;\n\n");
-        sb.append("import org.springframework.stereotype.Service;\n\n");
-        sb.append("@Service\n");
-        sb.append("public class GeneratedBusinessService {\n\n");
-        for (ApiSpec s : specs) {
-            String apiName = StringUtilsSafe(s.getApiName());
-            String returnType = s.getReturnType() == null ? "String" : s.getReturnType();
-            sb.append("    public " + returnType + " " + apiName + generatePlainSignature(s) + " {\n");
-            sb.append("        // TODO: replace with real business logic. returning placeholder.\n");
-            if (returnType.equals("String")) {
-                sb.append("        return \"OK: " + apiName + "\";\n");
-            } else {
-                sb.append("        return new " + returnType + "();\n");
-            }
-            sb.append("    }\n\n");
-        }
-        sb.append("}\n");
-        return sb.toString();
-    }
-
-    private static String generatePlainSignature(ApiSpec s) {
-        StringBuilder sig = new StringBuilder();
-        sig.append("(");
-        if (s.getParameters() != null) {
-            boolean first = true;
-            for (Map<String,String> p : s.getParameters()) {
-                if (!first) sig.append(", ");
-                String pname = p.getOrDefault("name", "param");
-                String ptype = p.getOrDefault("type", "String");
-                sig.append(ptype + " " + pname);
-                first = false;
-            }
+    private static void writeDtoSlot(int slot, DtoType t, Writer out) throws IOException {
+        switch (slot) {
+            case DTO_NAME: out.write(t.getName()); break;
+            case COMPONENTS: out.write(t.getComponents()); break;
+            case IMPORTS: out.write(t.getImports()); break;
+            case SERDE_IMPORTS: out.write(t.getSerdeImports()); break;
+            case DEFAULT_CONSTRUCTOR: out.write(t.getDefaultConstructor()); break;
+            case FIELD_DECLARATIONS: out.write(t.getFieldDeclarations()); break;
+            case FIELD_ASSIGNMENTS: out.write(t.getFieldAssignments()); break;
+            case FIELD_NAMES: out.write(t.getFieldNames()); break;
+            case WRITE_FIELDS: out.write(t.getWriteFields()); break;
+            case DESERIALIZER_FIELDS: out.write(t.getDeserializerFields()); break;
+            case RESOLVE_METHOD: out.write(t.getResolveMethod()); break;
+            case DESERIALIZER_INTERFACES:
+                if (!t.getResolveMethod().isEmpty()) {
+                    out.write(" implements ResolvableDeserializer");
+                }
+                break;
+            case DESERIALIZE_ANNOTATIONS: out.write(t.getDeserializeAnnotations()); break;
+            case READ_LOCALS: out.write(t.getReadLocals()); break;
+            case READ_CASES: out.write(t.getReadCases()); break;
+            case CONSTRUCTOR_ARGS: out.write(t.getConstructorArgs()); break;
+            default:
+                throw new IllegalStateException("Unknown DTO slot " + slot);
         }
-        sig.append(")");
-        return sig.toString();
     }
 
-    public static String generatedModels(List<ApiSpec> specs) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("package com.boa.generated;\n\n");
-        sb.append("// Simple container for DTO/entity placeholder classes\n\n");
-        for (ApiSpec s : specs) {
-            String rt = s.getReturnType();
-            if (rt != null && !rt.isBlank() && !rt.equals("String")) {
-                sb.append("public class " + rt + " {\n");
-                sb.append("    // Add fields that match your returned object\n");
-                sb.append("    public " + rt + "() {}\n");
-                sb.append("}\n\n");
-            }
+    private static void writeRepositorySlot(int slot, RepositoryType r, Writer out) throws IOException {
+        switch (slot) {
+            case REPOSITORY_DTO: out.write(r.getDtoName()); break;
+            case ACCESSOR: out.write(r.getAccessor()); break;
+            case TABLE: out.write(r.getTable()); break;
+            case KEY_FIELD: out.write(r.getKeyField()); break;
+            case KEY_TYPE: out.write(r.getKeyType()); break;
+            case REPOSITORY_IMPORTS: out.write(r.getImports()); break;
+            case STATEMENTS: out.write(r.getStatements()); break;
+            case JSON_MAPPER: out.write(r.getJsonMapper()); break;
+            case STORAGE_NOTE: out.write(r.getStorageNote()); break;
+            case BIND_KEY: out.write(r.getBindKey()); break;
+            case BIND_INSERT: out.write(r.getBindInsert()); break;
+            case BIND_UPDATE: out.write(r.getBindUpdate()); break;
+            case MAP_ROW: out.write(r.getMapRow()); break;
+            case HELPERS: out.write(r.getHelpers()); break;
+            case CREATE_TABLE: out.write(r.getCreateTable()); break;
+            case TEST_ROW: out.write(r.getTestRow()); break;
+            default:
+                throw new IllegalStateException("Unknown repository slot " + slot);
+        }
+    }
+
+    private static void writeEndpointSlot(int slot, CompiledEndpoint e, Writer out) throws IOException {
+        switch (slot) {
+            case MAPPING: out.write(e.getMapping()); break;
+            case RETURN_TYPE: out.write(e.getReturnType()); break;
+            case API_NAME: out.write(e.getApiName()); break;
+            case SIGNATURE: out.write(e.getSignature()); break;
+            case CALL_ARGS: out.write(e.getCallArgs()); break;
+            case PLAIN_SIGNATURE: out.write(e.getPlainSignature()); break;
+            case RETURN_VALUE: out.write(e.getReturnValue()); break;
+            case RESPONSE_TYPE: out.write(e.getResponseType()); break;
+            case SERVICE_TYPE: out.write(e.getServiceType()); break;
+            case CACHE_TTL_MILLIS: out.write(Long.toString(e.getCacheTtlMillis())); break;
+            case CACHE_MAX_SIZE: out.write(Integer.toString(e.getCacheMaxSize())); break;
+            case CACHE_KEY: out.write(e.getCacheKey()); break;
+            case BATCH_REQUEST_CLASS: out.write(e.getBatchRequestClass()); break;
+            case BATCH_FIELDS: out.write(e.getBatchFields()); break;
+            case BATCH_ITEM_CALL: out.write(e.getBatchItemCall()); break;
+            case BATCH_RESPONSE_TYPE: out.write(e.getBatchResponseType()); break;
+            case REPOSITORY_CALL: out.write(e.getRepositoryCall()); break;
+            case BATCH_ROW: out.write(e.getBatchRow()); break;
+            case BATCH_WRITE: out.write(e.getBatchWrite()); break;
+            case HTTP_METHOD: out.write(e.getHttpMethod()); break;
+            case SLO_MILLIS: out.write(e.getSloMillis()); break;
+            case LOAD_PARAMS: out.write(e.getLoadParams()); break;
+            default:
+                throw new IllegalStateException("Unknown endpoint slot " + slot);
         }
-        if (sb.toString().endsWith("\n\n")) return sb.toString();
-        return sb.toString();
     }
 }
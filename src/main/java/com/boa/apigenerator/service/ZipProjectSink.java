@@ -0,0 +1,47 @@
+package com.boa.apigenerator.service;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes each project file as an entry of a ZIP stream under a root folder, so a project can be
+ * streamed to a client without touching the disk. Memory use is bounded by the deflater and
+ * writer buffers, whatever the size of the project.
+ */
+public class ZipProjectSink implements ProjectSink {
+
+    private final ZipOutputStream zip;
+    private final String root;
+
+    /**
+     * @param root folder prefix for every entry, e.g. "boa_hackathon_project/generated-service/"
+     */
+    public ZipProjectSink(ZipOutputStream zip, String root) {
+        this.zip = zip;
+        this.root = root;
+    }
+
+    @Override
+    public Writer open(String path) throws IOException {
+        zip.putNextEntry(new ZipEntry(root + path));
+        // closing the writer ends the entry but leaves the archive open for the next file
+        return new BufferedWriter(new OutputStreamWriter(new FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+                zip.closeEntry();
+            }
+        }, StandardCharsets.UTF_8));
+    }
+}
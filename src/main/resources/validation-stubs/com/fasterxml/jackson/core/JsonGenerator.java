@@ -0,0 +1,17 @@
+package com.fasterxml.jackson.core;
+
+import java.io.IOException;
+
+public abstract class JsonGenerator {
+    public void writeStartObject(Object v) throws IOException {}
+    public void writeEndObject() throws IOException {}
+    public void writeFieldName(SerializableString n) throws IOException {}
+    public void writeString(String v) throws IOException {}
+    public void writeNull() throws IOException {}
+    public void writeBoolean(boolean v) throws IOException {}
+    public void writeNumber(short v) throws IOException {}
+    public void writeNumber(int v) throws IOException {}
+    public void writeNumber(long v) throws IOException {}
+    public void writeNumber(float v) throws IOException {}
+    public void writeNumber(double v) throws IOException {}
+}
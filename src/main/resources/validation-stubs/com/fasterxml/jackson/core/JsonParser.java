@@ -0,0 +1,10 @@
+package com.fasterxml.jackson.core;
+
+import java.io.IOException;
+
+public abstract class JsonParser {
+    public JsonToken currentToken() { return null; }
+    public JsonToken nextToken() throws IOException { return null; }
+    public String currentName() throws IOException { return null; }
+    public boolean hasToken(JsonToken t) { return false; }
+}
@@ -0,0 +1,5 @@
+package com.fasterxml.jackson.core;
+
+public enum JsonToken {
+    START_OBJECT, END_OBJECT, FIELD_NAME, VALUE_NULL
+}
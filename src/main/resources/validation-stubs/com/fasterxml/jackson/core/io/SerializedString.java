@@ -0,0 +1,5 @@
+package com.fasterxml.jackson.core.io;
+
+public class SerializedString implements com.fasterxml.jackson.core.SerializableString {
+    public SerializedString(String v) {}
+}
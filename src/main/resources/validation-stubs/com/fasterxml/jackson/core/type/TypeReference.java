@@ -0,0 +1,6 @@
+package com.fasterxml.jackson.core.type;
+
+public abstract class TypeReference<T> {
+    protected TypeReference() {}
+    public java.lang.reflect.Type getType() { return null; }
+}
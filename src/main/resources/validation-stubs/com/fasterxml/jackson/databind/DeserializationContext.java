@@ -0,0 +1,12 @@
+package com.fasterxml.jackson.databind;
+
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonParser;
+
+public abstract class DeserializationContext {
+    public JsonDeserializer<Object> findRootValueDeserializer(JavaType t) throws JsonMappingException { return null; }
+    public JavaType constructType(Class<?> t) { return null; }
+    public com.fasterxml.jackson.databind.type.TypeFactory getTypeFactory() { return null; }
+    public Object handleUnexpectedToken(Class<?> type, JsonParser p) throws IOException { return null; }
+    public boolean handleUnknownProperty(JsonParser p, JsonDeserializer<?> d, Object c, String n) throws IOException { return false; }
+}
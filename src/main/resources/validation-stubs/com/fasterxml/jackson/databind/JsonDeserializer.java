@@ -0,0 +1,8 @@
+package com.fasterxml.jackson.databind;
+
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonParser;
+
+public abstract class JsonDeserializer<T> {
+    public abstract T deserialize(JsonParser p, DeserializationContext c) throws IOException;
+}
@@ -0,0 +1,4 @@
+package com.fasterxml.jackson.databind;
+
+public class JsonMappingException extends com.fasterxml.jackson.core.JsonProcessingException {
+}
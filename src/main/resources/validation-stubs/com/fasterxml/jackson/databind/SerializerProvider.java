@@ -0,0 +1,8 @@
+package com.fasterxml.jackson.databind;
+
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+public abstract class SerializerProvider {
+    public void defaultSerializeValue(Object v, JsonGenerator g) throws IOException {}
+}
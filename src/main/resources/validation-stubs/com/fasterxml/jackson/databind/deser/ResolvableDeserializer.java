@@ -0,0 +1,7 @@
+package com.fasterxml.jackson.databind.deser;
+
+import com.fasterxml.jackson.databind.*;
+
+public interface ResolvableDeserializer {
+    void resolve(DeserializationContext c) throws JsonMappingException;
+}
@@ -0,0 +1,17 @@
+package com.fasterxml.jackson.databind.deser.std;
+
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.*;
+
+public abstract class StdDeserializer<T> extends JsonDeserializer<T> {
+    protected StdDeserializer(Class<?> t) {}
+    protected final String _parseString(JsonParser p, DeserializationContext c) throws IOException { return null; }
+    protected final int _parseIntPrimitive(JsonParser p, DeserializationContext c) throws IOException { return 0; }
+    protected final long _parseLongPrimitive(JsonParser p, DeserializationContext c) throws IOException { return 0; }
+    protected final short _parseShortPrimitive(JsonParser p, DeserializationContext c) throws IOException { return 0; }
+    protected final byte _parseBytePrimitive(JsonParser p, DeserializationContext c) throws IOException { return 0; }
+    protected final float _parseFloatPrimitive(JsonParser p, DeserializationContext c) throws IOException { return 0; }
+    protected final double _parseDoublePrimitive(JsonParser p, DeserializationContext c) throws IOException { return 0; }
+    protected final boolean _parseBooleanPrimitive(JsonParser p, DeserializationContext c) throws IOException { return false; }
+}
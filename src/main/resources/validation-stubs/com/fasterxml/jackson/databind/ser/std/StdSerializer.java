@@ -0,0 +1,10 @@
+package com.fasterxml.jackson.databind.ser.std;
+
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+public abstract class StdSerializer<T> {
+    protected StdSerializer(Class<T> t) {}
+    public abstract void serialize(T v, JsonGenerator g, SerializerProvider p) throws IOException;
+}
@@ -0,0 +1,5 @@
+package com.fasterxml.jackson.databind.type;
+
+public class TypeFactory {
+    public com.fasterxml.jackson.databind.JavaType constructType(com.fasterxml.jackson.core.type.TypeReference<?> t) { return null; }
+}
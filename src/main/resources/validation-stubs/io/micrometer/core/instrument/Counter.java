@@ -0,0 +1,11 @@
+package io.micrometer.core.instrument;
+
+public interface Counter {
+    void increment();
+    static Builder builder(String name) { return null; }
+    interface Builder {
+        Builder description(String d);
+        Builder tags(String... tags);
+        Counter register(MeterRegistry r);
+    }
+}
@@ -0,0 +1,4 @@
+package io.micrometer.core.instrument;
+
+public abstract class MeterRegistry {
+}
@@ -0,0 +1,5 @@
+package io.micrometer.core.instrument;
+
+public final class Metrics {
+    public static final MeterRegistry globalRegistry = null;
+}
@@ -0,0 +1,12 @@
+package io.micrometer.core.instrument;
+
+public interface Timer {
+    void record(long amount, java.util.concurrent.TimeUnit unit);
+    static Builder builder(String name) { return null; }
+    interface Builder {
+        Builder description(String d);
+        Builder tags(String... tags);
+        Builder serviceLevelObjectives(java.time.Duration... slos);
+        Timer register(MeterRegistry r);
+    }
+}
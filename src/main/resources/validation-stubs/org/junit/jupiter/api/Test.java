@@ -0,0 +1,6 @@
+package org.junit.jupiter.api;
+
+public @interface Test {
+    String[] value() default {};
+    String name() default "";
+}
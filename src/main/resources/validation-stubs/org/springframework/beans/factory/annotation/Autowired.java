@@ -0,0 +1,6 @@
+package org.springframework.beans.factory.annotation;
+
+public @interface Autowired {
+    String[] value() default {};
+    String name() default "";
+}
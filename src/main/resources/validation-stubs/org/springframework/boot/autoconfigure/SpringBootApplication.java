@@ -0,0 +1,5 @@
+package org.springframework.boot.autoconfigure;
+
+public @interface SpringBootApplication {
+    boolean proxyBeanMethods() default true;
+}
@@ -0,0 +1,6 @@
+package org.springframework.boot.sql.init.dependency;
+
+public @interface DependsOnDatabaseInitialization {
+    String[] value() default {};
+    String name() default "";
+}
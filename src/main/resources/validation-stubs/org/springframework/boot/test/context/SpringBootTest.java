@@ -0,0 +1,9 @@
+package org.springframework.boot.test.context;
+
+public @interface SpringBootTest {
+    WebEnvironment webEnvironment() default WebEnvironment.MOCK;
+    String[] properties() default {};
+    enum WebEnvironment {
+        MOCK, NONE
+    }
+}
@@ -0,0 +1,4 @@
+package org.springframework.dao;
+
+public abstract class DataAccessException extends RuntimeException {
+}
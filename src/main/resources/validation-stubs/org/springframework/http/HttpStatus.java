@@ -0,0 +1,5 @@
+package org.springframework.http;
+
+public enum HttpStatus {
+    PAYLOAD_TOO_LARGE
+}
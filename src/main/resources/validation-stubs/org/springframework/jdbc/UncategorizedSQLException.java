@@ -0,0 +1,5 @@
+package org.springframework.jdbc;
+
+public class UncategorizedSQLException extends org.springframework.dao.DataAccessException {
+    public UncategorizedSQLException(String task, String sql, java.sql.SQLException e) {}
+}
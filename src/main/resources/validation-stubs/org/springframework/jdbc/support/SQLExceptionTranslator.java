@@ -0,0 +1,5 @@
+package org.springframework.jdbc.support;
+
+public interface SQLExceptionTranslator {
+    org.springframework.dao.DataAccessException translate(String task, String sql, java.sql.SQLException e);
+}
@@ -0,0 +1,6 @@
+package org.springframework.stereotype;
+
+public @interface Component {
+    String[] value() default {};
+    String name() default "";
+}
@@ -0,0 +1,6 @@
+package org.springframework.stereotype;
+
+public @interface Repository {
+    String[] value() default {};
+    String name() default "";
+}
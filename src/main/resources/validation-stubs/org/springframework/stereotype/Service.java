@@ -0,0 +1,6 @@
+package org.springframework.stereotype;
+
+public @interface Service {
+    String[] value() default {};
+    String name() default "";
+}
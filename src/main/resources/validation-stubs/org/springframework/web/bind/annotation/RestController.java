@@ -0,0 +1,6 @@
+package org.springframework.web.bind.annotation;
+
+public @interface RestController {
+    String[] value() default {};
+    String name() default "";
+}
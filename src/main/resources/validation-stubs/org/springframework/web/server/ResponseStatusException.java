@@ -0,0 +1,5 @@
+package org.springframework.web.server;
+
+public class ResponseStatusException extends RuntimeException {
+    public ResponseStatusException(org.springframework.http.HttpStatus s, String reason) {}
+}
@@ -0,0 +1,12 @@
+package reactor.core.publisher;
+
+public abstract class Mono<T> {
+    public static <T> Mono<T> just(T v) { return null; }
+    public static <T> Mono<T> empty() { return null; }
+    public static <T> Mono<T> fromCallable(java.util.concurrent.Callable<? extends T> c) { return null; }
+    public static <T> Mono<T> defer(java.util.function.Supplier<? extends Mono<? extends T>> s) { return null; }
+    public Mono<T> subscribeOn(reactor.core.scheduler.Scheduler s) { return this; }
+    public Mono<T> doOnError(java.util.function.Consumer<? super Throwable> c) { return this; }
+    public Mono<T> doFinally(java.util.function.Consumer<SignalType> c) { return this; }
+    public T block() { return null; }
+}
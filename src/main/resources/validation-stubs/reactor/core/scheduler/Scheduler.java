@@ -0,0 +1,4 @@
+package reactor.core.scheduler;
+
+public interface Scheduler {
+}
@@ -0,0 +1,5 @@
+package reactor.core.scheduler;
+
+public final class Schedulers {
+    public static Scheduler boundedElastic() { return null; }
+}
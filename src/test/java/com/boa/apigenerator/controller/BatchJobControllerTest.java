@@ -0,0 +1,43 @@
+package com.boa.apigenerator.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import com.boa.apigenerator.service.BatchJobService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(BatchJobController.class)
+class BatchJobControllerTest {
+
+    private static final String BATCH = "{\"projects\":[{\"parentName\":\"payments\","
+            + "\"specs\":[{\"apiName\":\"getUser\",\"returnType\":\"String\"}]}]}";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private BatchJobService batchJobService;
+
+    @Test
+    void fullQueueIsRefusedWithRetryAfter() throws Exception {
+        doThrow(new RejectedExecutionException("Batch queue is full")).when(batchJobService).submit(any(), any());
+        when(batchJobService.retryAfterSeconds()).thenReturn(4L);
+
+        mvc.perform(post("/api/generator/jobs").contentType(MediaType.APPLICATION_JSON).content(BATCH))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "4"));
+    }
+}
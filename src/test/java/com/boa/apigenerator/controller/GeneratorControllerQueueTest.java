@@ -0,0 +1,98 @@
+package com.boa.apigenerator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.service.ApiProjectGeneratorService;
+import com.boa.apigenerator.service.GeneratedSourceValidator;
+import com.boa.apigenerator.service.GenerationCache;
+import com.boa.apigenerator.service.GenerationExecutor;
+import com.boa.apigenerator.service.GenerationMetrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * The controller on a real {@link GenerationExecutor} with one thread and room for one waiting
+ * request.
+ */
+@WebMvcTest(GeneratorController.class)
+@Import(GenerationExecutor.class)
+@TestPropertySource(properties = {
+        "generator.async.threads=1",
+        "generator.async.max-queued=1",
+        "generator.async.timeout-millis=1000"
+})
+class GeneratorControllerQueueTest {
+
+    private static final String SPECS = "[{\"apiName\":\"getUser\",\"returnType\":\"String\"}]";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ApiProjectGeneratorService generatorService;
+
+    @MockBean
+    private GenerationCache generationCache;
+
+    @MockBean
+    private GeneratedSourceValidator validator;
+
+    @MockBean
+    private GenerationMetrics metrics;
+
+    @Test
+    void fullQueueIsRefusedAndTimedOutRequestsAreCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(generatorService.defaultOptions()).thenAnswer(invocation -> new GenerationOptions());
+        when(generatorService.generateProjects(anyList(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "never";
+        });
+
+        MvcResult running = generate().andExpect(request().asyncStarted()).andReturn();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        MvcResult queued = generate().andExpect(request().asyncStarted()).andReturn();
+
+        // one running and one waiting request at the initial estimate of a second each
+        generate()
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+
+        mvc.perform(asyncDispatch(running)).andExpect(status().isServiceUnavailable());
+        mvc.perform(asyncDispatch(queued)).andExpect(status().isServiceUnavailable());
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS), "the timed-out generation was not interrupted");
+    }
+
+    private ResultActions generate() throws Exception {
+        return mvc.perform(post("/api/generator/fromJson").contentType(MediaType.APPLICATION_JSON).content(SPECS));
+    }
+}
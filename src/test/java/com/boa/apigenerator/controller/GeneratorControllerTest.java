@@ -0,0 +1,143 @@
+package com.boa.apigenerator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.model.ValidationReport;
+import com.boa.apigenerator.service.ApiProjectGeneratorService;
+import com.boa.apigenerator.service.GeneratedSourceValidator;
+import com.boa.apigenerator.service.GenerationCache;
+import com.boa.apigenerator.service.GenerationExecutor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(GeneratorController.class)
+class GeneratorControllerTest {
+
+    private static final String SPECS = "[{\"apiName\":\"getUser\",\"returnType\":\"String\"}]";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ApiProjectGeneratorService generatorService;
+
+    @MockBean
+    private GenerationCache generationCache;
+
+    @MockBean
+    private GeneratedSourceValidator validator;
+
+    @MockBean
+    private GenerationExecutor executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // a new instance per call, as the real service returns
+        when(generatorService.defaultOptions()).thenAnswer(invocation -> {
+            GenerationOptions configured = new GenerationOptions();
+            configured.setPersistence(true);
+            return configured;
+        });
+        when(executor.submit(any())).thenAnswer(
+                invocation -> CompletableFuture.completedFuture(invocation.getArgument(0, Callable.class).call()));
+        when(validator.validate(anyList(), any())).thenReturn(new ValidationReport());
+    }
+
+    @Test
+    void requestParametersOverrideTheConfiguredOptions() throws Exception {
+        GenerationOptions options = validateWith("?reactive=true&maxEndpointsPerClass=50");
+
+        assertTrue(options.isReactive());
+        assertEquals(50, options.getMaxEndpointsPerClass());
+        assertTrue(options.isPersistence(), "configured value kept when the parameter is left out");
+    }
+
+    @Test
+    void everyRequestStartsFromTheConfiguredOptions() throws Exception {
+        validateWith("?reactive=true");
+        GenerationOptions options = validateWith("");
+
+        assertFalse(options.isReactive());
+        assertTrue(options.isPersistence());
+    }
+
+    @Test
+    void malformedOptionIsABadRequest() throws Exception {
+        mvc.perform(post("/api/generator/validate?maxEndpointsPerClass=many")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPECS))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void zipIsRenderedOnTheGenerationExecutor() throws Exception {
+        when(generatorService.zipFileName(any())).thenReturn("project.zip");
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("PK".getBytes(StandardCharsets.US_ASCII));
+            return null;
+        }).when(generatorService).generateZip(anyList(), any(), any(), any());
+
+        MvcResult started = mvc.perform(post("/api/generator/zip")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPECS))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"project.zip\""))
+                .andExpect(content().bytes("PK".getBytes(StandardCharsets.US_ASCII)));
+        verify(executor).submit(any());
+    }
+
+    @Test
+    void zipIsRefusedWhenTheQueueIsFull() throws Exception {
+        doThrow(new RejectedExecutionException("Generation queue is full")).when(executor).submit(any());
+        when(executor.retryAfterSeconds()).thenReturn(3L);
+
+        mvc.perform(post("/api/generator/zip")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPECS))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        verify(generatorService, never()).generateZip(anyList(), any(), any(), any());
+    }
+
+    private GenerationOptions validateWith(String query) throws Exception {
+        MvcResult started = mvc.perform(post("/api/generator/validate" + query)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPECS))
+                .andReturn();
+        mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        ArgumentCaptor<GenerationOptions> options = ArgumentCaptor.forClass(GenerationOptions.class);
+        verify(validator, atLeastOnce()).validate(anyList(), options.capture());
+        return options.getValue();
+    }
+}
@@ -0,0 +1,127 @@
+package com.boa.apigenerator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Uploads through a real servlet container, which spools every part to disk.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GeneratorControllerUploadTest {
+
+    private static final int WARM_UP = 200;
+    private static final int UPLOADS = 2000;
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+    private static final Path TEMP_DIR = Path.of(System.getProperty("java.io.tmpdir"));
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("generator.output-dir", () -> folder("projects").toString());
+        registry.add("generator.serials.file", () -> dir.resolve("serials.properties").toString());
+        registry.add("generator.cache.enabled", () -> "false");
+        registry.add("spring.servlet.multipart.location", () -> folder("uploads").toString());
+        registry.add("spring.servlet.multipart.file-size-threshold", () -> "1KB");
+    }
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void uploadsKeepHeapFlatAndLeaveNoTempFiles() throws IOException {
+        byte[] specs = specs(100);
+        assertTrue(specs.length > 1024, "the upload must be spooled to disk");
+
+        for (int i = 0; i < WARM_UP; i++) {
+            upload(specs);
+        }
+        long before = usedHeapAfterGc();
+        long tempFilesBefore = count(TEMP_DIR);
+        for (int i = 0; i < UPLOADS; i++) {
+            upload(specs);
+            if (i % 500 == 0) {
+                // keep the disk use of the test itself flat
+                FileUtils.cleanDirectory(folder("projects").toFile());
+            }
+        }
+        long after = usedHeapAfterGc();
+
+        assertTrue(after - before < MAX_HEAP_GROWTH,
+                "heap grew by " + (after - before) / 1024 + " KiB over " + UPLOADS + " uploads");
+        assertEquals(0, count(folder("uploads")), "spooled uploads left behind");
+        // other processes may come and go there, but not one file per upload
+        assertTrue(count(TEMP_DIR) - tempFilesBefore < UPLOADS / 10, "temp files left behind");
+    }
+
+    private void upload(byte[] specs) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(specs) {
+            @Override
+            public String getFilename() {
+                return "specs.json";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<String> response = rest.postForEntity("/api/generator/fromFile?parentName=upload",
+                new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), response::getBody);
+    }
+
+    private static long count(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.count();
+        }
+    }
+
+    private static Path folder(String name) {
+        File folder = dir.resolve(name).toFile();
+        folder.mkdirs();
+        return folder.toPath();
+    }
+
+    private static byte[] specs(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"apiName\":\"getUser").append(i).append("\",\"returnType\":\"UserDto\",")
+                    .append("\"parameters\":[{\"name\":\"id\",\"type\":\"Long\"}],")
+                    .append("\"returnFields\":[{\"name\":\"id\",\"type\":\"Long\"},{\"name\":\"name\",\"type\":\"String\"}]}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
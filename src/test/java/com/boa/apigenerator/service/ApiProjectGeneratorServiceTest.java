@@ -0,0 +1,253 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@SpringBootTest
+class ApiProjectGeneratorServiceTest {
+
+    private static final String SPECS = "["
+            + "{\"apiName\":\"getUser\",\"returnType\":\"UserDto\",\"parameters\":[{\"name\":\"id\",\"type\":\"Long\"}],"
+            + "\"returnFields\":[{\"name\":\"id\",\"type\":\"Long\"},{\"name\":\"name\",\"type\":\"String\"}]},"
+            + "{\"apiName\":\"listUsers\",\"returnType\":\"List<UserDto>\"},"
+            + "{\"apiName\":\"createUser\",\"method\":\"POST\",\"returnType\":\"UserDto\",\"batch\":true,"
+            + "\"parameters\":[{\"name\":\"id\",\"type\":\"Long\"},{\"name\":\"name\",\"type\":\"String\"}]},"
+            + "{\"apiName\":\"findAddress\",\"returnType\":\"AddressDto\",\"cache\":{\"ttlSeconds\":30},"
+            + "\"returnFields\":[{\"name\":\"street\",\"type\":\"String\"}]},"
+            + "{\"apiName\":\"deleteUser\",\"method\":\"DELETE\",\"returnType\":\"Boolean\","
+            + "\"parameters\":[{\"name\":\"id\",\"type\":\"Long\"}]}"
+            + "]";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    static Path output;
+
+    @DynamicPropertySource
+    static void outputDir(DynamicPropertyRegistry registry) {
+        registry.add("generator.output-dir", output::toString);
+        registry.add("generator.serials.file", () -> output.resolve("serials.properties").toString());
+        registry.add("generator.cache.enabled", () -> "false");
+    }
+
+    @Autowired
+    private ApiProjectGeneratorService generatorService;
+
+    @Test
+    void streamedProjectRecordsTheManifestOfTheListVariant() throws Exception {
+        GenerationOptions options = options();
+        File streamed = project(generatorService.generateProjects(
+                new ByteArrayInputStream(SPECS.getBytes(StandardCharsets.UTF_8)), "streamed", options));
+        File listed = project(generatorService.generateProjects(specs(), "listed", options));
+
+        assertEquals(manifest(listed), manifest(streamed));
+    }
+
+    @Test
+    void streamedProjectUpdatesWithoutRewritingAnything() throws Exception {
+        GenerationOptions options = options();
+        File streamed = project(generatorService.generateProjects(
+                new ByteArrayInputStream(SPECS.getBytes(StandardCharsets.UTF_8)), "updated", options));
+
+        String summary = generatorService.updateProject(specs(), streamed.getPath(), options);
+
+        assertTrue(summary.contains("0 written"), summary);
+        assertTrue(summary.contains("0 removed"), summary);
+    }
+
+    @Test
+    void nonAsciiSpecsAreWrittenAsUtf8() throws Exception {
+        String specs = "[{\"apiName\":\"getPrice\",\"returnType\":\"PriceDto\","
+                + "\"returnFields\":[{\"name\":\"gr\u00f6\u00dfe\",\"type\":\"String\"}]}]";
+        String dto = ProjectLayout.SRC_MAIN + "/PriceDto.java";
+        File streamed = project(generatorService.generateProjects(
+                new ByteArrayInputStream(specs.getBytes(StandardCharsets.UTF_8)), "utf8", new GenerationOptions()));
+        File listed = project(generatorService.generateProjects(
+                mapper.readValue(specs, new TypeReference<List<ApiSpec>>() {}), "utf8", new GenerationOptions()));
+
+        for (File project : List.of(streamed, listed)) {
+            byte[] content = Files.readAllBytes(project.toPath().resolve("generated-service").resolve(dto));
+            assertTrue(new String(content, StandardCharsets.UTF_8).contains("String gr\u00f6\u00dfe"), project::toString);
+            assertEquals(SpecDigest.hex(SpecDigest.sha256().digest(content)), readManifest(project).files.get(dto).sha256);
+        }
+    }
+
+    @Test
+    void cancelledGenerationLeavesNoProject() throws Exception {
+        assertCancelled(() -> generatorService.generateProjects(specs(), "cancelled", options()));
+        assertCancelled(() -> generatorService.generateProjects(
+                new ByteArrayInputStream(SPECS.getBytes(StandardCharsets.UTF_8)), "cancelled", options()));
+
+        try (Stream<Path> projects = Files.list(output)) {
+            assertTrue(projects.noneMatch(p -> p.getFileName().toString().startsWith("cancelled")));
+        }
+    }
+
+    @Test
+    void failedRenderLeavesNoProject() throws Exception {
+        GenerationPipeline pipeline = (GenerationPipeline) ReflectionTestUtils.getField(generatorService, "pipeline");
+        GenerationPipeline failing = mock(GenerationPipeline.class);
+        when(failing.emit(any(File.class), anyList())).thenAnswer(invocation -> {
+            File serviceDir = invocation.getArgument(0);
+            Files.createDirectories(serviceDir.toPath().resolve(ProjectLayout.SRC_MAIN));
+            Files.writeString(serviceDir.toPath().resolve(ProjectLayout.POM), "<project/>");
+            throw new IOException("render failed");
+        });
+        ReflectionTestUtils.setField(generatorService, "pipeline", failing);
+        try {
+            assertThrows(IOException.class, () -> generatorService.generateProjects(specs(), "broken", options()));
+        } finally {
+            ReflectionTestUtils.setField(generatorService, "pipeline", pipeline);
+        }
+
+        try (Stream<Path> projects = Files.list(output)) {
+            assertTrue(projects.noneMatch(p -> p.getFileName().toString().startsWith("broken")));
+        }
+    }
+
+    @Test
+    void latestProjectIsTheHighestSerialWithAManifest() throws Exception {
+        generatorService.generateProjects(specs(), "latest", options());
+        File second = generatorService.generateProject(specs().subList(0, 1), "latest", options());
+        Files.createDirectories(output.resolve("latest_99/generated-service"));
+
+        assertEquals(second, generatorService.latestProject("latest"));
+        assertNull(generatorService.latestProject("unknown"));
+    }
+
+    @Test
+    void projectOutsideTheOutputDirIsNotUpdated(@TempDir Path elsewhere) throws Exception {
+        Files.createDirectory(elsewhere.resolve("generated-service"));
+        File inside = project(generatorService.generateProjects(specs(), "inside", options()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> generatorService.updateProject(specs(), elsewhere.toString(), options()));
+        assertThrows(IllegalArgumentException.class,
+                () -> generatorService.updateProject(specs(), inside.getPath() + "/../../" + elsewhere.getFileName(), options()));
+        assertThrows(IllegalArgumentException.class,
+                () -> generatorService.updateProject(specs(), output.toString(), options()));
+    }
+
+    @Test
+    void updatesOfOneProjectRunOneAtATime() throws Exception {
+        File project = project(generatorService.generateProjects(specs(), "locked", options()));
+        IncrementalUpdater updater = mock(IncrementalUpdater.class);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        when(updater.update(any(), anyList(), anyList(), any())).thenAnswer(invocation -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            entered.countDown();
+            release.await();
+            running.decrementAndGet();
+            return new IncrementalUpdater.Result();
+        });
+        ApiProjectGeneratorService service = new ApiProjectGeneratorService();
+        ReflectionTestUtils.setField(service, "updater", updater);
+        ReflectionTestUtils.setField(service, "cache", mock(GenerationCache.class));
+        ReflectionTestUtils.setField(service, "metrics", mock(GenerationMetrics.class));
+        ReflectionTestUtils.setField(service, "outputDir", output.toString());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = pool.submit(() -> service.updateProject(specs(), project.getPath(), options()));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            // named relative to the output dir this time
+            Future<String> second = pool.submit(() -> service.updateProject(specs(), project.getName(), options()));
+            Thread.sleep(200);
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, mostRunning.get());
+        verify(updater, times(2)).update(any(), anyList(), anyList(), any());
+    }
+
+    /**
+     * Runs the generation as if its request had timed out before it started.
+     */
+    private static void assertCancelled(Executable generation) {
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedException.class, generation);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static GenerationOptions options() {
+        GenerationOptions options = new GenerationOptions();
+        options.setPersistence(true);
+        options.setLoadTest(true);
+        options.setMaxEndpointsPerClass(2);
+        return options;
+    }
+
+    private static List<ApiSpec> specs() throws IOException {
+        return mapper.readValue(SPECS, new TypeReference<List<ApiSpec>>() {});
+    }
+
+    private static File project(String message) {
+        return new File(message.substring("Generated project at: ".length()));
+    }
+
+    /**
+     * The manifest without the size and modification time of the files, which differ between runs.
+     */
+    private static Map<String, Object> manifest(File project) throws IOException {
+        IncrementalUpdater.Manifest manifest = readManifest(project);
+        Map<String, Object> content = new TreeMap<>();
+        content.put("templateVersion", manifest.templateVersion);
+        content.put("endpoints", manifest.endpoints);
+        manifest.files.forEach((path, f) -> content.put(path, f.sha256 + " " + f.inputs));
+        return content;
+    }
+
+    private static IncrementalUpdater.Manifest readManifest(File project) throws IOException {
+        return mapper.readValue(new File(project, "generated-service/" + ProjectLayout.MANIFEST),
+                IncrementalUpdater.Manifest.class);
+    }
+}
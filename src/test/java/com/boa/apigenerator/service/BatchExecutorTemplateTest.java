@@ -0,0 +1,113 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The BatchExecutor class of generated projects, compiled from its template.
+ */
+class BatchExecutorTemplateTest {
+
+    @TempDir
+    static Path dir;
+
+    private static Method run;
+    private static Method isOk;
+    private static Method getValue;
+    private static Method getError;
+
+    @BeforeAll
+    static void compile() throws Exception {
+        System.setProperty("batch.max-items", "5");
+        Map<String, GeneratedClasses.Source> sources = new LinkedHashMap<>();
+        sources.put("BatchResult", Templates::writeBatchResult);
+        sources.put("BatchExecutor", Templates::writeBatchExecutor);
+        ClassLoader loader = GeneratedClasses.compile(dir, sources);
+        Class<?> result = loader.loadClass("com.boa.generated.BatchResult");
+        run = loader.loadClass("com.boa.generated.BatchExecutor").getMethod("run", List.class, Function.class);
+        isOk = result.getMethod("isOk");
+        getValue = result.getMethod("getValue");
+        getError = result.getMethod("getError");
+    }
+
+    @AfterAll
+    static void clearProperty() {
+        System.clearProperty("batch.max-items");
+    }
+
+    @Test
+    void resultsComeBackInRequestOrder() throws Exception {
+        // the first items take longest, so they finish last
+        List<?> results = run(List.of(4, 3, 2, 1, 0), n -> {
+            sleep(n * 50L);
+            return "item " + n;
+        });
+
+        List<Object> values = new ArrayList<>();
+        for (Object result : results) {
+            values.add(getValue.invoke(result));
+        }
+        assertEquals(List.of("item 4", "item 3", "item 2", "item 1", "item 0"), values);
+    }
+
+    @Test
+    void failedItemDoesNotFailTheOthers() throws Exception {
+        List<?> results = run(List.of(1, 2, 3), n -> {
+            if (n == 2) {
+                throw new IllegalArgumentException("no user 2");
+            }
+            return "user " + n;
+        });
+
+        assertEquals(true, isOk.invoke(results.get(0)));
+        assertEquals("user 1", getValue.invoke(results.get(0)));
+        assertEquals(false, isOk.invoke(results.get(1)));
+        assertEquals("no user 2", getError.invoke(results.get(1)));
+        assertNull(getValue.invoke(results.get(1)));
+        assertEquals("user 3", getValue.invoke(results.get(2)));
+    }
+
+    @Test
+    void oversizedBatchIsRefused() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> run(List.of(1, 2, 3, 4, 5, 6), n -> n));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+    }
+
+    private static List<?> run(List<Integer> requests, Function<Integer, Object> call) throws Exception {
+        try {
+            return (List<?>) run.invoke(null, requests, call);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
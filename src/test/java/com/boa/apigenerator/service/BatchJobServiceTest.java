@@ -0,0 +1,234 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.BatchJob;
+import com.boa.apigenerator.model.BatchProject;
+import com.boa.apigenerator.model.BatchRequest;
+import com.boa.apigenerator.model.GenerationOptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BatchJobServiceTest {
+
+    private final BatchJobService service = new BatchJobService();
+    private final ApiProjectGeneratorService generatorService = mock(ApiProjectGeneratorService.class);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.stop();
+    }
+
+    @Test
+    void batchThatCannotBeJournaledIsNotKept() throws IOException {
+        start(0, dir.resolve("journal.jsonl").toString());
+        ReflectionTestUtils.setField(service, "journalWriter", new FailingWriter());
+
+        assertThrows(IOException.class, () -> service.submit(request("payments"), "team-a"));
+
+        assertEquals(0, service.queued());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(service, "jobs")).isEmpty());
+    }
+
+    @Test
+    void submittersAreServedRoundRobin() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        when(generatorService.generateProjects(anyList(), anyString())).thenAnswer(invocation -> {
+            order.add(invocation.getArgument(1));
+            firstStarted.countDown();
+            release.await();
+            return "done";
+        });
+        start(1, "");
+
+        BatchJob large = service.submit(request("a1", "a2", "a3", "a4"), "team-a");
+        assertTrue(firstStarted.await(10, TimeUnit.SECONDS));
+        BatchJob small = service.submit(request("b1", "b2"), "team-b");
+        release.countDown();
+        awaitFinished(large);
+        awaitFinished(small);
+
+        assertEquals(List.of("a1", "a2", "b1", "a3", "b2", "a4"), order);
+    }
+
+    @Test
+    void batchThatDoesNotFitIsRejected() throws IOException {
+        ReflectionTestUtils.setField(service, "maxQueued", 3);
+        start(0, "");
+        service.submit(request("a1", "a2"), "team-a");
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit(request("b1", "b2"), "team-b"));
+
+        assertEquals(2, service.queued());
+    }
+
+    @Test
+    void projectsUseTheirOwnOptionsElseTheBatchs() throws Exception {
+        start(1, "");
+        BatchRequest request = request("payments", "ledger");
+        request.setOptions(options(false));
+        request.getProjects().get(1).setOptions(options(true));
+
+        awaitFinished(service.submit(request, "team-a"));
+
+        verify(generatorService).generateProjects(anyList(), eq("payments"), argThat(o -> !o.isReactive()));
+        verify(generatorService).generateProjects(anyList(), eq("ledger"), argThat(GenerationOptions::isReactive));
+    }
+
+    @Test
+    void batchWithoutOptionsUsesTheConfiguredOnes() throws Exception {
+        start(1, "");
+
+        awaitFinished(service.submit(request("payments"), "team-a"));
+
+        verify(generatorService).generateProjects(anyList(), eq("payments"));
+    }
+
+    @Test
+    void replayedBatchKeepsItsOptions() throws Exception {
+        String journal = dir.resolve("journal.jsonl").toString();
+        start(0, journal);
+        BatchRequest request = request("payments", "ledger");
+        request.setOptions(options(true));
+        request.getProjects().get(1).setOptions(options(false));
+        String id = service.submit(request, "team-a").getId();
+        service.stop();
+
+        BatchJobService restarted = new BatchJobService();
+        ReflectionTestUtils.setField(restarted, "journal", journal);
+        ReflectionTestUtils.setField(restarted, "generatorService", generatorService);
+        restarted.start();
+        try {
+            awaitFinished(restarted.get(id));
+        } finally {
+            restarted.stop();
+        }
+
+        verify(generatorService).generateProjects(anyList(), eq("payments"), argThat(GenerationOptions::isReactive));
+        verify(generatorService).generateProjects(anyList(), eq("ledger"), argThat(o -> !o.isReactive()));
+    }
+
+    @Test
+    void journalIsCompactedOnceEnoughJobsFinished() throws Exception {
+        Path journal = dir.resolve("journal.jsonl");
+        ReflectionTestUtils.setField(service, "compactAfter", 2);
+        start(1, journal.toString());
+
+        BatchJob first = service.submit(request("a"), "team-a");
+        BatchJob second = service.submit(request("b"), "team-a");
+        BatchJob third = service.submit(request("c"), "team-a");
+        awaitFinished(first);
+        awaitFinished(second);
+        awaitFinished(third);
+
+        // the first two were dropped when the second finished; the third was appended after that
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Files.readAllLines(journal).size() != 2) {
+            assertTrue(System.currentTimeMillis() < deadline, () -> "journal not compacted: " + journal);
+            Thread.sleep(10);
+        }
+        service.stop();
+        BatchJobService restarted = new BatchJobService();
+        ReflectionTestUtils.setField(restarted, "journal", journal.toString());
+        ReflectionTestUtils.setField(restarted, "generatorService", generatorService);
+        restarted.start();
+        try {
+            assertNull(restarted.get(first.getId()));
+            assertNull(restarted.get(second.getId()));
+            assertEquals(0, restarted.queued());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void retryAfterGrowsWithTheQueue() throws IOException {
+        start(0, "");
+        long empty = service.retryAfterSeconds();
+        service.submit(request("a1", "a2", "a3", "a4", "a5", "a6"), "team-a");
+
+        assertEquals(1, empty);
+        assertTrue(service.retryAfterSeconds() > empty);
+    }
+
+    /**
+     * Starts the service with the given number of workers; 0 leaves everything queued.
+     */
+    private void start(int workers, String journal) throws IOException {
+        ReflectionTestUtils.setField(service, "workers", workers);
+        ReflectionTestUtils.setField(service, "journal", journal);
+        ReflectionTestUtils.setField(service, "generatorService", generatorService);
+        service.start();
+    }
+
+    private static void awaitFinished(BatchJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished()) {
+            assertTrue(System.currentTimeMillis() < deadline, "job did not finish");
+            Thread.sleep(10);
+        }
+    }
+
+    private static GenerationOptions options(boolean reactive) {
+        GenerationOptions options = new GenerationOptions();
+        options.setReactive(reactive);
+        options.setPersistence(true);
+        return options;
+    }
+
+    private static BatchRequest request(String... parentNames) {
+        ApiSpec spec = new ApiSpec();
+        spec.setApiName("getUser");
+        spec.setReturnType("String");
+        BatchRequest request = new BatchRequest();
+        request.setProjects(new ArrayList<>());
+        for (String name : parentNames) {
+            request.getProjects().add(new BatchProject(name, List.of(spec)));
+        }
+        return request;
+    }
+
+    private static class FailingWriter extends Writer {
+        @Override
+        public void write(char[] buf, int off, int len) throws IOException {
+            throw new IOException("disk full");
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,72 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CompiledTemplateTest {
+
+    private static final CompiledTemplate.Slots<Map<String, String>> BY_NAME = (slot, model, out) ->
+            out.write(model.get(slot == 0 ? "name" : "type"));
+
+    @Test
+    void slotsAreWrittenBetweenTheLiterals() throws IOException {
+        CompiledTemplate<Map<String, String>> template = CompiledTemplate.compile(
+                "private {{type}} {{ name }};\npublic {{type}} get() { return {{name}}; }", BY_NAME, "name", "type");
+
+        assertEquals("private Long id;\npublic Long get() { return id; }",
+                render(template, Map.of("name", "id", "type", "Long")));
+    }
+
+    @Test
+    void slotsAtTheEdgesAndNextToEachOther() throws IOException {
+        CompiledTemplate<Map<String, String>> template = CompiledTemplate.compile("{{name}}{{type}}", BY_NAME,
+                "name", "type");
+
+        assertEquals("idLong", render(template, Map.of("name", "id", "type", "Long")));
+    }
+
+    @Test
+    void templateWithoutSlotsIsItsSource() throws IOException {
+        StringWriter out = new StringWriter();
+
+        CompiledTemplate.compile("class A { String s = \"{\"; }").render(out);
+
+        assertEquals("class A { String s = \"{\"; }", out.toString());
+    }
+
+    @Test
+    void unknownOrUnterminatedPlaceholderFailsToCompile() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> CompiledTemplate.compile("a {{nmae}} b", BY_NAME, "name", "type"));
+        assertEquals("Unknown placeholder 'nmae' at offset 2", unknown.getMessage());
+
+        IllegalArgumentException unterminated = assertThrows(IllegalArgumentException.class,
+                () -> CompiledTemplate.compile("a {{name b", BY_NAME, "name"));
+        assertEquals("Unterminated placeholder at offset 2", unterminated.getMessage());
+    }
+
+    @Test
+    void resourceTemplatesComeFromTheClasspath() throws IOException {
+        StringWriter out = new StringWriter();
+
+        CompiledTemplate.load("BatchResult.java.tmpl").render(out);
+
+        assertEquals(CompiledTemplate.source("BatchResult.java.tmpl"), out.toString());
+        assertTrue(out.toString().startsWith("package com.boa.generated;\n"), out::toString);
+        assertThrows(IllegalStateException.class, () -> CompiledTemplate.source("Missing.java.tmpl"));
+    }
+
+    private static String render(CompiledTemplate<Map<String, String>> template, Map<String, String> model)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        template.render(out, model);
+        return out.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.boa.apigenerator.model.ApiSpec;
+
+import org.junit.jupiter.api.Test;
+
+class DtoRegistryTest {
+
+    private final SpecCompiler compiler = new SpecCompiler();
+    private final DtoRegistry registry = new DtoRegistry();
+
+    @Test
+    void typeReturnedByManySpecsIsOneDto() {
+        registry.add(compiler.compile(spec("getUser", "UserDto", field("id", "Long"), field("name", "String"))));
+        registry.add(compiler.compile(spec("findUser", "UserDto", field("id", "Long"), field("name", "String"))));
+        registry.add(compiler.compile(spec("anyUser", "UserDto")));
+
+        assertEquals(1, registry.types().size());
+        assertEquals("Long id, String name", registry.get("UserDto").getComponents());
+    }
+
+    @Test
+    void typeNamedByAFieldIsDeclaredByALaterSpec() {
+        registry.add(compiler.compile(spec("getUser", "UserDto", field("id", "Long"), field("address", "AddressDto"))));
+        assertFalse(registry.get("AddressDto").isDeclared());
+
+        registry.add(compiler.compile(spec("getAddress", "AddressDto", field("city", "String"))));
+
+        assertEquals(List.of("UserDto", "AddressDto"), names());
+        assertTrue(registry.get("AddressDto").isDeclared());
+        assertEquals("String city", registry.get("AddressDto").getComponents());
+    }
+
+    @Test
+    void otherFieldsForADeclaredTypeAreRefused() {
+        registry.add(compiler.compile(spec("getUser", "UserDto", field("id", "Long"))));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> registry.add(compiler.compile(spec("findUser", "UserDto", field("id", "String")))));
+
+        assertTrue(e.getMessage().contains("findUser"), e::getMessage);
+        assertEquals("Long id", registry.get("UserDto").getComponents());
+    }
+
+    @Test
+    void generatedClassNamesAreNotDtos() {
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.add(compiler.compile(spec("getCache", "ResponseCache", field("id", "Long")))));
+        assertFalse(DtoRegistry.isDto("String"));
+        assertFalse(DtoRegistry.isDto("List<UserDto>"));
+        assertTrue(DtoRegistry.isDto("UserDto"));
+    }
+
+    private List<String> names() {
+        return registry.types().stream().map(DtoType::getName).toList();
+    }
+
+    @SafeVarargs
+    private static ApiSpec spec(String apiName, String returnType, Map<String, String>... fields) {
+        ApiSpec spec = new ApiSpec();
+        spec.setApiName(apiName);
+        spec.setReturnType(returnType);
+        if (fields.length > 0) {
+            spec.setReturnFields(List.of(fields));
+        }
+        return spec;
+    }
+
+    private static Map<String, String> field(String name, String type) {
+        Map<String, String> field = new LinkedHashMap<>();
+        field.put("name", name);
+        field.put("type", type);
+        return field;
+    }
+}
@@ -0,0 +1,56 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles rendered templates of the generated project's fixed classes and loads them, so tests
+ * can run the code a generated service would.
+ */
+final class GeneratedClasses {
+
+    /**
+     * Renders one class of the generated project.
+     */
+    @FunctionalInterface
+    interface Source {
+        void write(Writer out) throws IOException;
+    }
+
+    private GeneratedClasses() {}
+
+    /**
+     * Compiles the classes of package com.boa.generated, by simple name, into dir against the test
+     * classpath and returns a class loader for them.
+     */
+    static ClassLoader compile(Path dir, Map<String, Source> sources) throws IOException {
+        Path src = Files.createDirectories(dir.resolve("src/com/boa/generated"));
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        List<String> args = new ArrayList<>(List.of("-d", classes.toString(), "-cp",
+                System.getProperty("java.class.path"), "-encoding", "UTF-8", "-nowarn"));
+        for (Map.Entry<String, Source> source : sources.entrySet()) {
+            StringWriter out = new StringWriter();
+            source.getValue().write(out);
+            Path file = src.resolve(source.getKey() + ".java");
+            Files.writeString(file, out.toString(), StandardCharsets.UTF_8);
+            args.add(file.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])), "generated classes do not compile");
+        return new URLClassLoader(new URL[] {classes.toUri().toURL()}, GeneratedClasses.class.getClassLoader());
+    }
+}
@@ -0,0 +1,222 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.CacheSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.boa.apigenerator.model.ValidationReport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GeneratedSourceValidatorTest {
+
+    @Test
+    void releaseComesFromThePom() {
+        assertEquals("17", GeneratedSourceValidator.release(
+                "<properties><java.version>17</java.version>"
+                        + "<maven.compiler.release>${java.version}</maven.compiler.release></properties>"));
+        assertEquals("21", GeneratedSourceValidator.release(
+                "<properties><maven.compiler.release> 21 </maven.compiler.release></properties>"));
+    }
+
+    @Test
+    void pomWithoutReleaseCompilesAtMavensDefault() {
+        assertEquals("8", GeneratedSourceValidator.release("<properties><java.version>17</java.version></properties>"));
+    }
+
+    @Test
+    void generatedPomCompilesRecords() throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        options.setPersistence(true);
+        ValidationReport report = new GeneratedSourceValidator().validate(List.of(userSpec()), options);
+
+        assertTrue(report.isValid(), () -> report.getProblems().toString());
+    }
+
+    @Test
+    void folderOnTheClasspathStandsForItsJars(@TempDir Path dir) throws IOException {
+        Path jar = Files.createFile(dir.resolve("spring-web.jar"));
+        Files.createFile(dir.resolve("notes.txt"));
+
+        List<File> libraries = GeneratedSourceValidator.libraries(dir.toString());
+
+        assertEquals(List.of(dir.toFile(), jar.toFile()), libraries);
+        assertTrue(GeneratedSourceValidator.libraries(" ").isEmpty());
+    }
+
+    @Test
+    void reactiveEndpointsCompile() throws IOException {
+        ApiSpec streamUser = userSpec();
+        streamUser.setApiName("streamUser");
+        streamUser.setReactive(true);
+        ApiSpec cached = userSpec();
+        cached.setCache(new CacheSpec(30, 100));
+
+        assertCompiles(new GenerationOptions(), cached, streamUser);
+    }
+
+    @Test
+    void webFluxProjectCompiles() throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        options.setReactive(true);
+        ApiSpec blocking = userSpec();
+        blocking.setApiName("blockingUser");
+        blocking.setReactive(false);
+        ApiSpec create = userSpec();
+        create.setApiName("createUser");
+        create.setMethod("POST");
+
+        assertCompiles(options, userSpec(), blocking, create);
+    }
+
+    @Test
+    void fastStartupProjectCompiles() throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        options.setFastStartup(true);
+        assertCompiles(options, userSpec());
+
+        options.setReactive(true);
+        assertCompiles(options, userSpec());
+    }
+
+    @Test
+    void persistenceProjectCompiles() throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        options.setPersistence(true);
+        options.setShardByGroup(true);
+        ApiSpec create = userSpec();
+        create.setApiName("createUser");
+        create.setMethod("POST");
+        create.setGroup("admin");
+        create.setParameters(List.of(Map.of("name", "id", "type", "Long"), Map.of("name", "name", "type", "String")));
+        ApiSpec delete = userSpec();
+        delete.setApiName("deleteUser");
+        delete.setMethod("DELETE");
+        delete.setGroup("admin");
+        ApiSpec order = new ApiSpec();
+        order.setApiName("getOrder");
+        order.setReturnType("OrderDto");
+        order.setParameters(List.of(Map.of("name", "orderId", "type", "String")));
+        order.setReturnFields(List.of(Map.of("name", "orderId", "type", "String"),
+                Map.of("name", "total", "type", "BigDecimal"), Map.of("name", "placed", "type", "LocalDate"),
+                Map.of("name", "buyer", "type", "UserDto")));
+
+        assertCompiles(options, userSpec(), create, delete, order);
+    }
+
+    @Test
+    void meteredProjectCompiles() throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        options.setEndpointMetrics(true);
+        ApiSpec slo = userSpec();
+        slo.setApiName("findUser");
+        slo.setSloMillis(List.of(10L, 50L, 200L));
+        ApiSpec streamUser = userSpec();
+        streamUser.setApiName("streamUser");
+        streamUser.setReactive(true);
+        assertCompiles(options, userSpec(), slo, streamUser);
+
+        options.setReactive(true);
+        assertCompiles(options, userSpec(), slo);
+    }
+
+    @Test
+    void everyLibraryTypeTheTemplatesImportHasAStub() throws IOException {
+        ApiSpec cached = userSpec();
+        cached.setCache(new CacheSpec(30, 100));
+        ApiSpec create = userSpec();
+        create.setApiName("createUser");
+        create.setMethod("POST");
+        create.setBatch(true);
+        create.setParameters(List.of(Map.of("name", "id", "type", "Long"), Map.of("name", "name", "type", "String")));
+        ApiSpec streamUser = userSpec();
+        streamUser.setApiName("streamUser");
+        streamUser.setReactive(true);
+        List<ApiSpec> specs = List.of(cached, create, streamUser);
+
+        Set<String> stubbed = GeneratedSourceValidator.stubbedTypes();
+        Set<String> packages = new TreeSet<>();
+        for (String type : stubbed) {
+            packages.add(type.substring(0, type.lastIndexOf('.')));
+        }
+        Pattern imports = Pattern.compile("^import (static )?([\\w.]+?)(\\.\\*)?;", Pattern.MULTILINE);
+        Set<String> missing = new TreeSet<>();
+        for (GenerationOptions options : everyFlavor()) {
+            for (ProjectFile f : ProjectLayout.files(specs, options)) {
+                // what the validator compiles
+                if (!f.getPath().endsWith(".java") || !f.getPath().startsWith("src/")) {
+                    continue;
+                }
+                StringWriter source = new StringWriter();
+                f.render(source);
+                Matcher m = imports.matcher(source.toString());
+                while (m.find()) {
+                    String name = m.group(2);
+                    if (m.group(1) != null && m.group(3) == null) {
+                        name = name.substring(0, name.lastIndexOf('.'));
+                    }
+                    boolean known = m.group(3) != null ? packages.contains(name) || stubbed.contains(name)
+                            : stubbed.contains(name);
+                    if (!known && !name.startsWith("java.") && !name.startsWith("javax.")
+                            && !name.startsWith("com.boa.generated")) {
+                        missing.add(f.getPath() + ": " + m.group());
+                    }
+                }
+            }
+        }
+
+        assertTrue(missing.isEmpty(), () -> "no validation stub for " + missing);
+        for (GenerationOptions options : everyFlavor()) {
+            assertCompiles(options, specs.toArray(new ApiSpec[0]));
+        }
+    }
+
+    private static List<GenerationOptions> everyFlavor() {
+        List<GenerationOptions> flavors = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            GenerationOptions options = new GenerationOptions();
+            options.setReactive(i == 1);
+            options.setFastStartup(true);
+            options.setEndpointMetrics(true);
+            options.setLoadTest(true);
+            options.setShardByGroup(true);
+            flavors.add(options);
+        }
+        GenerationOptions persistence = new GenerationOptions();
+        persistence.setPersistence(true);
+        persistence.setEndpointMetrics(true);
+        flavors.add(persistence);
+        return flavors;
+    }
+
+    private static void assertCompiles(GenerationOptions options, ApiSpec... specs) throws IOException {
+        ValidationReport report = new GeneratedSourceValidator().validate(List.of(specs), options);
+
+        assertTrue(report.isValid(), () -> report.getProblems().toString());
+    }
+
+    private static ApiSpec userSpec() {
+        ApiSpec spec = new ApiSpec();
+        spec.setApiName("getUser");
+        spec.setReturnType("UserDto");
+        spec.setParameters(List.of(Map.of("name", "id", "type", "Long")));
+        spec.setReturnFields(List.of(Map.of("name", "id", "type", "Long"), Map.of("name", "name", "type", "String")));
+        return spec;
+    }
+}
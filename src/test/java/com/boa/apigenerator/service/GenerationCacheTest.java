@@ -0,0 +1,107 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class GenerationCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private File a;
+    private File b;
+    private File c;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        a = Files.createDirectory(dir.resolve("a")).toFile();
+        b = Files.createDirectory(dir.resolve("b")).toFile();
+        c = Files.createDirectory(dir.resolve("c")).toFile();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() throws IOException {
+        GenerationCache cache = cache(2);
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.lookup("a");
+
+        cache.put("c", c);
+
+        assertEquals(a, cache.lookup("a"));
+        assertNull(cache.lookup("b"));
+        assertEquals(c, cache.lookup("c"));
+    }
+
+    @Test
+    void hitLeavesTheIndexFileAlone() throws IOException {
+        GenerationCache cache = cache(2);
+        cache.put("a", a);
+        cache.put("b", b);
+        byte[] saved = Files.readAllBytes(indexFile());
+
+        assertEquals(a, cache.lookup("a"));
+
+        assertEquals(new String(saved), new String(Files.readAllBytes(indexFile())));
+    }
+
+    @Test
+    void orderLeftByHitsIsSavedOnFlushAndSurvivesRestart() throws IOException {
+        GenerationCache cache = cache(2);
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.lookup("a");
+
+        cache.flush();
+
+        assertEquals(List.of("b", "a"), savedKeys());
+        GenerationCache restarted = cache(2);
+        restarted.put("c", c);
+        assertNull(restarted.lookup("b"));
+        assertEquals(a, restarted.lookup("a"));
+    }
+
+    @Test
+    void entryWhoseProjectIsGoneIsDropped() throws IOException {
+        GenerationCache cache = cache(2);
+        cache.put("a", a);
+        cache.put("b", b);
+        Files.delete(a.toPath());
+
+        assertNull(cache.lookup("a"));
+
+        assertEquals(List.of("b"), savedKeys());
+    }
+
+    private GenerationCache cache(int maxEntries) throws IOException {
+        GenerationCache cache = new GenerationCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(cache, "cacheDir", dir.resolve("cache").toString());
+        cache.load();
+        return cache;
+    }
+
+    private Path indexFile() {
+        return dir.resolve("cache").resolve("index.json");
+    }
+
+    private List<String> savedKeys() throws IOException {
+        return List.copyOf(new ObjectMapper().readValue(indexFile().toFile(),
+                new TypeReference<LinkedHashMap<String, String>>() {}).keySet());
+    }
+}
@@ -0,0 +1,104 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.boa.apigenerator.model.ApiSpec;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class GenerationPipelineTest {
+
+    private static final int ENDPOINTS = 200;
+
+    private final GenerationPipeline pipeline = new GenerationPipeline();
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void start() {
+        ReflectionTestUtils.setField(pipeline, "metrics", mock(GenerationMetrics.class));
+        ReflectionTestUtils.setField(pipeline, "parallelism", 1);
+        ReflectionTestUtils.setField(pipeline, "chunkSize", 1);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void stop() {
+        pipeline.stop();
+    }
+
+    @Test
+    void chunksAreWrittenInEndpointOrder() throws Exception {
+        ReflectionTestUtils.setField(pipeline, "parallelism", 4);
+        pipeline.stop();
+        pipeline.start();
+
+        pipeline.emit(dir.toFile(), List.of(ProjectFile.perSpec("Endpoints.txt", endpoints(), out -> out.write("[\n"),
+                (e, out) -> out.write(e.getApiName() + "\n"), out -> out.write("]\n"))));
+
+        List<String> lines = Files.readAllLines(dir.resolve("Endpoints.txt"));
+        assertEquals(ENDPOINTS + 2, lines.size());
+        assertEquals("api0", lines.get(1));
+        assertEquals("api" + (ENDPOINTS - 1), lines.get(ENDPOINTS));
+    }
+
+    @Test
+    void failedRenderCancelsTheRestAndStopsWriting() throws Exception {
+        AtomicInteger rendered = new AtomicInteger();
+        ProjectFile failing = ProjectFile.perSpec("Endpoints.txt", endpoints(), out -> {}, (e, out) -> {
+            sleep(2);
+            if (rendered.incrementAndGet() == 3) {
+                throw new IOException("render failed");
+            }
+            out.write(e.getApiName() + "\n");
+        }, out -> {});
+
+        IOException e = assertThrows(IOException.class, () -> pipeline.emit(dir.toFile(), List.of(failing)));
+
+        assertEquals("render failed", e.getMessage());
+        int afterFailure = rendered.get();
+        long size = Files.size(dir.resolve("Endpoints.txt"));
+        sleep(100);
+        // the render already running on the single render thread finishes into its buffer
+        assertTrue(rendered.get() <= afterFailure + 1,
+                () -> rendered.get() - afterFailure + " renders after the failure");
+        assertTrue(rendered.get() < ENDPOINTS / 2, () -> rendered.get() + " endpoints rendered");
+        assertEquals(size, Files.size(dir.resolve("Endpoints.txt")), "writing went on after the failure was reported");
+        assertFalse(Files.readString(dir.resolve("Endpoints.txt")).contains("api" + (ENDPOINTS - 1)));
+    }
+
+    private static List<CompiledEndpoint> endpoints() {
+        List<ApiSpec> specs = new ArrayList<>();
+        for (int i = 0; i < ENDPOINTS; i++) {
+            ApiSpec spec = new ApiSpec();
+            spec.setApiName("api" + i);
+            spec.setReturnType("String");
+            specs.add(spec);
+        }
+        return SpecCompiler.compile(specs);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalUpdaterTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final IncrementalUpdater updater = new IncrementalUpdater();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void firstUpdateWritesEveryFile() throws IOException {
+        List<ApiSpec> specs = List.of(getUser(field("id", "Long")));
+
+        IncrementalUpdater.Result result = update(specs, new GenerationOptions());
+
+        assertTrue(result.getWritten().contains(ProjectLayout.POM));
+        assertTrue(result.getWritten().contains(ProjectLayout.SRC_MAIN + "/UserDto.java"));
+        assertTrue(result.getUnchanged().isEmpty());
+        assertTrue(Files.isRegularFile(dir.resolve(ProjectLayout.MANIFEST)));
+    }
+
+    @Test
+    void sameSpecsWriteNothing() throws IOException {
+        List<ApiSpec> specs = List.of(getUser(field("id", "Long")));
+        update(specs, new GenerationOptions());
+        FileTime before = Files.getLastModifiedTime(dir.resolve(ProjectLayout.CONTROLLER));
+
+        IncrementalUpdater.Result result = update(specs, new GenerationOptions());
+
+        assertEquals(List.of(), result.getWritten());
+        assertEquals(List.of(), result.getRemoved());
+        assertEquals(before, Files.getLastModifiedTime(dir.resolve(ProjectLayout.CONTROLLER)));
+    }
+
+    @Test
+    void filesDerivedFromAllSpecsFollowTheirChanges() throws IOException {
+        update(List.of(getUser(field("id", "Long"))), new GenerationOptions());
+
+        ApiSpec reactive = spec("streamUsers", "GET", "String");
+        reactive.setReactive(true);
+        IncrementalUpdater.Result result = update(List.of(getUser(field("id", "Long"), field("name", "String")), reactive),
+                new GenerationOptions());
+
+        assertTrue(result.getWritten().contains(ProjectLayout.SRC_MAIN + "/UserDto.java"), result::toString);
+        assertTrue(result.getWritten().contains(ProjectLayout.POM), result::toString);
+        assertTrue(read(ProjectLayout.SRC_MAIN + "/UserDto.java").contains("String name"));
+        assertTrue(read(ProjectLayout.POM).contains("<artifactId>reactor-core</artifactId>"));
+        assertFalse(result.getWritten().contains(ProjectLayout.APPLICATION_CLASS), result::toString);
+    }
+
+    @Test
+    void repositoryCallFollowsTheDtoAnotherSpecDeclares() throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        options.setPersistence(true);
+        options.setShardByGroup(true);
+        ApiSpec create = spec("createUser", "POST", "UserDto");
+        create.setGroup("admin");
+        create.setParameters(List.of(field("id", "Long"), field("name", "String")));
+        update(List.of(getUser(field("id", "Long"), field("name", "String")), create), options);
+        String adminService = adminServicePath();
+        assertTrue(read(adminService).contains("new UserDto(id, name)"), () -> read(adminService));
+
+        IncrementalUpdater.Result result = update(List.of(
+                getUser(field("id", "Long"), field("name", "String"), field("age", "int")), create), options);
+
+        assertTrue(result.getWritten().contains(adminService), result::toString);
+        assertTrue(read(adminService).contains("new UserDto(id, name, 0)"), () -> read(adminService));
+    }
+
+    @Test
+    void filesNoLongerGeneratedAreRemoved() throws IOException {
+        update(List.of(getUser(field("id", "Long")), spec("getOrder", "GET", "OrderDto")), new GenerationOptions());
+        assertTrue(Files.exists(dir.resolve(ProjectLayout.SRC_MAIN + "/OrderDto.java")));
+
+        IncrementalUpdater.Result result = update(List.of(getUser(field("id", "Long"))), new GenerationOptions());
+
+        assertEquals(List.of(ProjectLayout.SRC_MAIN + "/OrderDto.java"), result.getRemoved());
+        assertFalse(Files.exists(dir.resolve(ProjectLayout.SRC_MAIN + "/OrderDto.java")));
+    }
+
+    @Test
+    void fileEditedOnDiskIsRestored() throws IOException {
+        List<ApiSpec> specs = List.of(getUser(field("id", "Long")));
+        update(specs, new GenerationOptions());
+        Files.writeString(dir.resolve(ProjectLayout.CONTROLLER), "// edited");
+
+        IncrementalUpdater.Result result = update(specs, new GenerationOptions());
+
+        assertEquals(List.of(ProjectLayout.CONTROLLER), result.getWritten());
+        assertTrue(read(ProjectLayout.CONTROLLER).contains("getUser"));
+    }
+
+    @Test
+    void nonAsciiSpecsAreWrittenAsUtf8() throws IOException {
+        update(List.of(getUser(field("gr\u00f6\u00dfe", "String"))), new GenerationOptions());
+
+        assertTrue(read(ProjectLayout.SRC_MAIN + "/UserDto.java").contains("String gr\u00f6\u00dfe"));
+    }
+
+    @Test
+    void manifestPointingOutsideTheProjectIsRefused() throws IOException {
+        Path serviceDir = Files.createDirectory(dir.resolve("generated-service"));
+        Path kept = Files.writeString(dir.resolve("kept.txt"), "kept");
+        List<ApiSpec> specs = List.of(getUser(field("id", "Long")));
+        update(serviceDir, specs);
+        Path manifestFile = serviceDir.resolve(ProjectLayout.MANIFEST);
+        IncrementalUpdater.Manifest manifest = mapper.readValue(manifestFile.toFile(), IncrementalUpdater.Manifest.class);
+        manifest.files.put("../kept.txt", manifest.files.get(ProjectLayout.POM));
+        mapper.writeValue(manifestFile.toFile(), manifest);
+        Files.writeString(serviceDir.resolve(ProjectLayout.CONTROLLER), "// edited");
+
+        assertThrows(IOException.class, () -> update(serviceDir, specs));
+
+        assertTrue(Files.exists(kept));
+        assertEquals("// edited", Files.readString(serviceDir.resolve(ProjectLayout.CONTROLLER)));
+    }
+
+    private IncrementalUpdater.Result update(List<ApiSpec> specs, GenerationOptions options) throws IOException {
+        return updater.update(dir.toFile(), specs, ProjectLayout.files(specs, options), options);
+    }
+
+    private IncrementalUpdater.Result update(Path serviceDir, List<ApiSpec> specs) throws IOException {
+        GenerationOptions options = new GenerationOptions();
+        return updater.update(serviceDir.toFile(), specs, ProjectLayout.files(specs, options), options);
+    }
+
+    private String adminServicePath() throws IOException {
+        List<String> services = new ArrayList<>();
+        try (var files = Files.list(dir.resolve(ProjectLayout.SRC_MAIN))) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.contains("Admin") && name.endsWith("BusinessService.java"))
+                    .forEach(services::add);
+        }
+        assertEquals(1, services.size(), services::toString);
+        return ProjectLayout.SRC_MAIN + "/" + services.get(0);
+    }
+
+    private String read(String path) {
+        try {
+            return Files.readString(dir.resolve(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SafeVarargs
+    private static ApiSpec getUser(Map<String, String>... fields) {
+        ApiSpec spec = spec("getUser", "GET", "UserDto");
+        spec.setParameters(List.of(field("id", "Long")));
+        spec.setReturnFields(List.of(fields));
+        return spec;
+    }
+
+    private static ApiSpec spec(String apiName, String method, String returnType) {
+        ApiSpec spec = new ApiSpec();
+        spec.setApiName(apiName);
+        spec.setMethod(method);
+        spec.setReturnType(returnType);
+        return spec;
+    }
+
+    private static Map<String, String> field(String name, String type) {
+        Map<String, String> field = new LinkedHashMap<>();
+        field.put("name", name);
+        field.put("type", type);
+        return field;
+    }
+}
@@ -0,0 +1,88 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InputSpecParserTest {
+
+    private final List<String> names = new ArrayList<>();
+
+    @Test
+    void emptyArrayHasNoSpecs() throws Exception {
+        assertEquals(0, InputSpecParser.stream(json("[]"), this::collect));
+        assertEquals(0, InputSpecParser.streamChunks(json(" [ ] "), 10, chunk -> names.add("chunk")));
+        assertEquals(List.of(), names);
+    }
+
+    @Test
+    void singleObjectIsNotAnArray() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> InputSpecParser.stream(json("{\"apiName\":\"getUser\"}"), this::collect));
+
+        assertEquals("Input must be a JSON array of API specs", e.getMessage());
+        assertEquals(List.of(), names);
+    }
+
+    @Test
+    void arrayOfOtherValuesIsRefused() {
+        assertThrows(IllegalArgumentException.class,
+                () -> InputSpecParser.stream(json("[{\"apiName\":\"getUser\"}, \"getOrder\"]"), this::collect));
+
+        assertEquals(List.of("getUser"), names);
+    }
+
+    @Test
+    void truncatedInputFailsAfterTheCompleteSpecs() {
+        assertThrows(Exception.class, () -> InputSpecParser.stream(
+                json("[{\"apiName\":\"getUser\"},{\"apiName\":\"getOrder\"},{\"apiName\":\"get"), this::collect));
+        assertEquals(List.of("getUser", "getOrder"), names);
+
+        names.clear();
+        assertThrows(Exception.class, () -> InputSpecParser.stream(json("[{\"apiName\":\"getUser\"}"), this::collect));
+        assertEquals(List.of("getUser"), names);
+    }
+
+    @Test
+    void unknownFieldIsRefusedByBothParsers(@TempDir Path dir) throws Exception {
+        String specs = "[{\"apiName\":\"getUser\",\"returnTpye\":\"UserDto\"}]";
+        Path file = Files.writeString(dir.resolve("specs.json"), specs);
+
+        assertThrows(UnrecognizedPropertyException.class, () -> InputSpecParser.stream(json(specs), this::collect));
+        assertThrows(UnrecognizedPropertyException.class, () -> InputSpecParser.parseFromFile(file.toFile()));
+        assertEquals(List.of(), names);
+    }
+
+    @Test
+    void chunksHoldAtMostChunkSizeSpecs() throws Exception {
+        List<Integer> sizes = new ArrayList<>();
+
+        int count = InputSpecParser.streamChunks(json("[{\"apiName\":\"a\"},{\"apiName\":\"b\"},{\"apiName\":\"c\"}]"), 2,
+                chunk -> sizes.add(chunk.size()));
+
+        assertEquals(3, count);
+        assertEquals(List.of(2, 1), sizes);
+        assertThrows(IllegalArgumentException.class, () -> InputSpecParser.streamChunks(json("[]"), 0, chunk -> {}));
+    }
+
+    private void collect(ApiSpec spec) {
+        names.add(spec.getApiName());
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ProjectSerialAllocatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void eachBaseCountsOnItsOwn() throws IOException {
+        ProjectSerialAllocator allocator = allocator();
+
+        assertEquals("payments_1", allocator.allocate("payments").getName());
+        assertEquals("ledger_1", allocator.allocate("ledger").getName());
+        assertEquals("payments_2", allocator.allocate("payments").getName());
+    }
+
+    @Test
+    void existingFoldersAreSkippedInBothFormats() throws IOException {
+        Files.createDirectory(dir.resolve("payments_3"));
+        Files.createDirectory(dir.resolve("payments7"));
+
+        assertEquals("payments_8", allocator().allocate("payments").getName());
+    }
+
+    @Test
+    void folderCreatedAfterStartupIsSkipped() throws IOException {
+        ProjectSerialAllocator allocator = allocator();
+        Files.createDirectory(dir.resolve("payments_1"));
+
+        assertEquals("payments_2", allocator.allocate("payments").getName());
+    }
+
+    @Test
+    void serialOfADeletedProjectIsNotReused() throws IOException {
+        ProjectSerialAllocator before = allocator();
+        File first = before.allocate("payments");
+        before.flush();
+        Files.delete(first.toPath());
+
+        assertEquals("payments_2", allocator().allocate("payments").getName());
+    }
+
+    @Test
+    void allocationDoesNotWriteTheSerialsFile() throws IOException {
+        ProjectSerialAllocator allocator = allocator();
+        allocator.allocate("payments");
+
+        assertFalse(Files.exists(dir.resolve("serials.properties")));
+
+        allocator.flush();
+        assertTrue(Files.exists(dir.resolve("serials.properties")));
+    }
+
+    @Test
+    void concurrentRequestsGetDistinctFolders() throws Exception {
+        ProjectSerialAllocator allocator = allocator();
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        List<Callable<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            requests.add(() -> {
+                names.add(allocator.allocate("payments").getName());
+                return null;
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> f : pool.invokeAll(requests)) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(400, names.size());
+        assertEquals("payments_401", allocator.allocate("payments").getName());
+    }
+
+    private ProjectSerialAllocator allocator() throws IOException {
+        ProjectSerialAllocator allocator = new ProjectSerialAllocator();
+        ReflectionTestUtils.setField(allocator, "outputDir", dir.toString());
+        ReflectionTestUtils.setField(allocator, "serialsFile", dir.resolve("serials.properties").toString());
+        allocator.load();
+        return allocator;
+    }
+}
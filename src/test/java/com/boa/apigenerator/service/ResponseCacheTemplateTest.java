@@ -0,0 +1,169 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The ResponseCache class of generated projects, compiled from its template.
+ */
+class ResponseCacheTemplateTest {
+
+    @TempDir
+    static Path dir;
+
+    private static Constructor<?> constructor;
+    private static Method get;
+    private static Method stats;
+
+    private static final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeAll
+    static void compile() throws Exception {
+        Class<?> cache = GeneratedClasses.compile(dir, Map.of("ResponseCache", Templates::writeResponseCache))
+                .loadClass("com.boa.generated.ResponseCache");
+        constructor = cache.getConstructor(String.class, long.class, int.class);
+        get = cache.getMethod("get", Object.class, Supplier.class);
+        stats = cache.getMethod("stats");
+    }
+
+    @AfterAll
+    static void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsForAKeyLoadItOnce() throws Exception {
+        Object cache = cache(60_000, 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> slow = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "user";
+        };
+
+        List<Future<Object>> responses = new ArrayList<>();
+        responses.add(callers.submit(() -> get(cache, "id=1", slow)));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            responses.add(callers.submit(() -> get(cache, "id=1", slow)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (stat(cache, "coalesced") < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (Future<Object> response : responses) {
+            assertEquals("user", response.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(3L, stat(cache, "coalesced"));
+    }
+
+    @Test
+    void leastRecentlyUsedResponseIsEvicted() {
+        Object cache = cache(60_000, 2);
+        get(cache, "a", this::load);
+        get(cache, "b", this::load);
+        get(cache, "a", this::load);
+        get(cache, "c", this::load);
+
+        get(cache, "a", this::load);
+        assertEquals(3, loads.get());
+        get(cache, "b", this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2L, stat(cache, "evictions"));
+    }
+
+    @Test
+    void expiredResponseIsLoadedAgain() throws InterruptedException {
+        Object cache = cache(50, 10);
+        get(cache, "a", this::load);
+        get(cache, "a", this::load);
+        assertEquals(1, loads.get());
+
+        Thread.sleep(100);
+
+        get(cache, "a", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failureIsNotCached() {
+        Object cache = cache(60_000, 10);
+
+        assertThrows(IllegalStateException.class, () -> get(cache, "a", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals("loaded", get(cache, "a", this::load));
+        assertEquals(1, loads.get());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "loaded";
+    }
+
+    private static Object cache(long ttlMillis, int maxSize) {
+        try {
+            return constructor.newInstance("users", ttlMillis, maxSize);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object get(Object cache, Object key, Supplier<?> loader) {
+        try {
+            return get.invoke(cache, key, loader);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long stat(Object cache, String name) {
+        try {
+            return (Long) ((Map<?, ?>) stats.invoke(cache)).get(name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
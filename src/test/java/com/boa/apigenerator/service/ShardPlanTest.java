@@ -0,0 +1,91 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.GenerationOptions;
+
+import org.junit.jupiter.api.Test;
+
+class ShardPlanTest {
+
+    @Test
+    void withoutShardingEverythingGoesToTheDefaultPair() {
+        ShardPlan plan = new ShardPlan(new GenerationOptions());
+
+        for (CompiledEndpoint e : endpoints(null, "users", "orders")) {
+            assertSame(ShardPlan.DEFAULT, plan.assign(e));
+        }
+    }
+
+    @Test
+    void fullShardContinuesInANumberedClass() {
+        GenerationOptions options = new GenerationOptions();
+        options.setMaxEndpointsPerClass(2);
+
+        assertEquals(List.of("GeneratedController", "GeneratedController", "GeneratedController2",
+                        "GeneratedController2", "GeneratedController3"),
+                controllers(options, null, null, null, null, null));
+    }
+
+    @Test
+    void groupsGetTheirOwnPairAndUngroupedSpecsKeepTheDefault() {
+        GenerationOptions options = new GenerationOptions();
+        options.setShardByGroup(true);
+
+        assertEquals(List.of("GeneratedUserAccountsController", "GeneratedController", "GeneratedOrdersController",
+                        "GeneratedUserAccountsController"),
+                controllers(options, "user-accounts", null, "orders", "user-accounts"));
+    }
+
+    @Test
+    void eachGroupFillsUpOnItsOwn() {
+        GenerationOptions options = new GenerationOptions();
+        options.setShardByGroup(true);
+        options.setMaxEndpointsPerClass(2);
+
+        ShardPlan plan = new ShardPlan(options);
+        List<ShardPlan.Shard> shards = new ArrayList<>();
+        for (CompiledEndpoint e : endpoints("orders", "users", "orders", "orders")) {
+            shards.add(plan.assign(e));
+        }
+
+        assertEquals(List.of("GeneratedOrdersController", "GeneratedUsersController", "GeneratedOrdersController",
+                "GeneratedOrdersController2"), names(shards));
+        assertEquals("GeneratedOrdersBusinessService2", shards.get(3).getServiceClass());
+        assertSame(shards.get(0), shards.get(2));
+    }
+
+    private static List<String> controllers(GenerationOptions options, String... groups) {
+        ShardPlan plan = new ShardPlan(options);
+        List<ShardPlan.Shard> shards = new ArrayList<>();
+        for (CompiledEndpoint e : endpoints(groups)) {
+            shards.add(plan.assign(e));
+        }
+        return names(shards);
+    }
+
+    private static List<String> names(List<ShardPlan.Shard> shards) {
+        List<String> names = new ArrayList<>();
+        for (ShardPlan.Shard s : shards) {
+            names.add(s.getControllerClass());
+        }
+        return names;
+    }
+
+    private static List<CompiledEndpoint> endpoints(String... groups) {
+        List<ApiSpec> specs = new ArrayList<>();
+        for (int i = 0; i < groups.length; i++) {
+            ApiSpec spec = new ApiSpec();
+            spec.setApiName("op" + i);
+            spec.setReturnType("String");
+            spec.setGroup(groups[i]);
+            specs.add(spec);
+        }
+        return SpecCompiler.compile(specs);
+    }
+}
@@ -0,0 +1,94 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.boa.apigenerator.model.ApiSpec;
+import com.boa.apigenerator.model.CacheSpec;
+
+import org.junit.jupiter.api.Test;
+
+class SpecCompilerTest {
+
+    @Test
+    void nullSpecOrParameterIsRefused() {
+        ApiSpec spec = spec("getUser", "GET");
+        spec.setParameters(Arrays.asList(field("id", "Long"), null));
+
+        assertMessage("API spec #0 is null", () -> SpecCompiler.compile(Arrays.asList((ApiSpec) null)));
+        assertMessage("API spec #1 (getUser) has a null parameter",
+                () -> SpecCompiler.compile(List.of(spec("listUsers", "GET"), spec)));
+    }
+
+    @Test
+    void onlyBlockingGetEndpointsCanBeCached() {
+        ApiSpec post = spec("createUser", "POST");
+        post.setCache(new CacheSpec(30, 100));
+        ApiSpec reactive = spec("streamUser", "GET");
+        reactive.setCache(new CacheSpec(30, 100));
+        reactive.setReactive(true);
+        ApiSpec noTtl = spec("getUser", "GET");
+        noTtl.setCache(new CacheSpec(0, 100));
+
+        assertMessage("API spec #0 (createUser): only GET endpoints can be cached", () -> compile(post));
+        assertThrows(IllegalArgumentException.class, () -> compile(reactive));
+        assertThrows(IllegalArgumentException.class, () -> compile(noTtl));
+    }
+
+    @Test
+    void sloBucketsMustBePositive() {
+        ApiSpec zero = spec("getUser", "GET");
+        zero.setSloMillis(List.of(10L, 0L));
+        ApiSpec missing = spec("getUser", "GET");
+        missing.setSloMillis(Arrays.asList(10L, null));
+        ApiSpec valid = spec("getUser", "GET");
+        valid.setSloMillis(List.of(10L, 50L));
+
+        assertMessage("API spec #0 (getUser): sloMillis must be positive", () -> compile(zero));
+        assertMessage("API spec #0 (getUser): sloMillis must be positive", () -> compile(missing));
+        assertEquals(", 10, 50", compile(valid).getSloMillis());
+    }
+
+    @Test
+    void cachedGetIsCompiledWithItsSettings() {
+        ApiSpec spec = spec("getUser", "GET");
+        spec.setParameters(List.of(field("id", "Long")));
+        spec.setCache(new CacheSpec(30, 100));
+
+        CompiledEndpoint e = compile(spec);
+
+        assertTrue(e.isCached());
+        assertEquals(30_000, e.getCacheTtlMillis());
+        assertEquals(100, e.getCacheMaxSize());
+    }
+
+    private static CompiledEndpoint compile(ApiSpec spec) {
+        return new SpecCompiler().compile(spec);
+    }
+
+    private static void assertMessage(String message, Runnable compile) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, compile::run);
+        assertEquals(message, e.getMessage());
+    }
+
+    private static ApiSpec spec(String apiName, String method) {
+        ApiSpec spec = new ApiSpec();
+        spec.setApiName(apiName);
+        spec.setMethod(method);
+        spec.setReturnType("String");
+        return spec;
+    }
+
+    private static Map<String, String> field(String name, String type) {
+        Map<String, String> field = new LinkedHashMap<>();
+        field.put("name", name);
+        field.put("type", type);
+        return field;
+    }
+}
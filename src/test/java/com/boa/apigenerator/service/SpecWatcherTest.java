@@ -0,0 +1,124 @@
+package com.boa.apigenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.boa.apigenerator.model.GenerationOptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SpecWatcherTest {
+
+    private static final String USERS = "[{\"apiName\":\"getUser\",\"returnType\":\"String\"}]";
+    private static final String ORDERS = "[{\"apiName\":\"getOrder\",\"returnType\":\"String\"}]";
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final SpecWatcher watcher = new SpecWatcher();
+    private final ApiProjectGeneratorService generatorService = mock(ApiProjectGeneratorService.class);
+
+    @TempDir
+    Path dir;
+
+    private Path specs;
+    private File project;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        specs = Files.createDirectory(dir.resolve("specs"));
+        project = Files.createDirectory(dir.resolve("users_1")).toFile();
+        when(generatorService.defaultOptions()).thenReturn(new GenerationOptions());
+        when(generatorService.generateProject(anyList(), anyString(), any())).thenReturn(project);
+        ReflectionTestUtils.setField(watcher, "debounceMillis", DEBOUNCE_MILLIS);
+        ReflectionTestUtils.setField(watcher, "generatorService", generatorService);
+        ReflectionTestUtils.setField(watcher, "cache", new GenerationCache());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        watcher.stop();
+    }
+
+    @Test
+    void burstOfWritesRegeneratesOnce() throws Exception {
+        Thread watching = new Thread(() -> {
+            try {
+                watcher.watch(specs);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        watching.setDaemon(true);
+        watching.start();
+        // let the watcher register before writing
+        Thread.sleep(DEBOUNCE_MILLIS);
+
+        Path file = specs.resolve("users.json");
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(file, i % 2 == 0 ? USERS : ORDERS);
+            Thread.sleep(20);
+        }
+
+        verify(generatorService, timeout(5_000)).generateProject(anyList(), eq("users"), any());
+        Thread.sleep(3 * DEBOUNCE_MILLIS);
+        verify(generatorService, times(1)).generateProject(anyList(), anyString(), any());
+        verify(generatorService, never()).updateProject(anyList(), anyString());
+    }
+
+    @Test
+    void saveWithTheSameSpecsIsSkipped() throws Exception {
+        Path file = Files.writeString(specs.resolve("users.json"), USERS);
+        watcher.regenerate(file);
+        Files.writeString(file, USERS.replace(",", ", "));
+
+        assertEquals("unchanged", watcher.regenerate(file));
+
+        Files.writeString(file, ORDERS);
+        watcher.regenerate(file);
+        verify(generatorService, times(1)).generateProject(anyList(), anyString(), any());
+        verify(generatorService).updateProject(anyList(), eq(project.getPath()));
+    }
+
+    @Test
+    void malformedFileKeepsItsProject() throws Exception {
+        Path file = Files.writeString(specs.resolve("users.json"), USERS);
+        watcher.regenerate(file);
+
+        Files.writeString(file, "[{\"apiName\":");
+        assertThrows(Exception.class, () -> watcher.regenerate(file));
+
+        Files.writeString(file, ORDERS);
+        watcher.regenerate(file);
+        verify(generatorService, times(1)).generateProject(anyList(), anyString(), any());
+        verify(generatorService).updateProject(anyList(), eq(project.getPath()));
+    }
+
+    @Test
+    void fileSeenForTheFirstTimeUpdatesTheLatestProjectOfItsName() throws Exception {
+        when(generatorService.latestProject("users")).thenReturn(project);
+        Path file = Files.writeString(specs.resolve("users.json"), USERS);
+
+        watcher.regenerate(file);
+
+        verify(generatorService).updateProject(anyList(), eq(project.getPath()));
+        verify(generatorService, never()).generateProject(anyList(), anyString(), any());
+    }
+}